@@ -0,0 +1,120 @@
+package com.example.benchmarks;
+
+import com.example.clients.exchange.ExchangeRateDto;
+import com.example.clients.exchange.ExchangeRequest;
+import com.example.clients.exchange.ExchangeRequestDeserializer;
+import com.example.clients.exchange.ExchangeRequestSerializer;
+import com.example.clients.notification.NotificationRequest;
+import com.example.clients.notification.NotificationRequestDeserializer;
+import com.example.clients.notification.NotificationRequestSerializer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON (spring-kafka JsonSerializer/JsonDeserializer, как в продюсерах до перехода) против
+ * компактного формата из clients на тех же сообщениях. Размер в байтах печатается в setup,
+ * аллокации видно с -prof gc:
+ * java -jar benchmarks/target/benchmarks.jar SerializationBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    private static final String TOPIC = "benchmark";
+
+    private final JsonSerializer<ExchangeRequest> jsonExchangeSerializer = jsonSerializer();
+    private final JsonDeserializer<ExchangeRequest> jsonExchangeDeserializer = new JsonDeserializer<>(ExchangeRequest.class, false);
+    private final ExchangeRequestSerializer compactExchangeSerializer = new ExchangeRequestSerializer();
+    private final ExchangeRequestDeserializer compactExchangeDeserializer = new ExchangeRequestDeserializer();
+
+    private final JsonSerializer<NotificationRequest> jsonNotificationSerializer = jsonSerializer();
+    private final JsonDeserializer<NotificationRequest> jsonNotificationDeserializer = new JsonDeserializer<>(NotificationRequest.class, false);
+    private final NotificationRequestSerializer compactNotificationSerializer = new NotificationRequestSerializer();
+    private final NotificationRequestDeserializer compactNotificationDeserializer = new NotificationRequestDeserializer();
+
+    private ExchangeRequest exchange;
+    private NotificationRequest notification;
+    private byte[] exchangeJson;
+    private byte[] exchangeCompact;
+    private byte[] notificationJson;
+    private byte[] notificationCompact;
+
+    private static <T> JsonSerializer<T> jsonSerializer() {
+        var serializer = new JsonSerializer<T>();
+        serializer.setAddTypeInfo(false);
+        return serializer;
+    }
+
+    @Setup
+    public void setUp() {
+        exchange = new ExchangeRequest(List.of(
+                new ExchangeRateDto("Рубль", "RUB", 1.0),
+                new ExchangeRateDto("Доллар", "USD", 92.15),
+                new ExchangeRateDto("Юань", "CNY", 12.7)));
+        notification = new NotificationRequest(42, "john@example.com",
+                "Перевод 100.00 RUB -> 1.09 USD от john к jane");
+
+        exchangeJson = jsonExchangeSerializer.serialize(TOPIC, exchange);
+        exchangeCompact = compactExchangeSerializer.serialize(TOPIC, exchange);
+        notificationJson = jsonNotificationSerializer.serialize(TOPIC, notification);
+        notificationCompact = compactNotificationSerializer.serialize(TOPIC, notification);
+        System.out.printf("%nExchangeRequest: json %d bytes, compact %d bytes%n", exchangeJson.length, exchangeCompact.length);
+        System.out.printf("NotificationRequest: json %d bytes, compact %d bytes%n", notificationJson.length, notificationCompact.length);
+    }
+
+    @Benchmark
+    public byte[] exchangeSerializeJson() {
+        return jsonExchangeSerializer.serialize(TOPIC, exchange);
+    }
+
+    @Benchmark
+    public byte[] exchangeSerializeCompact() {
+        return compactExchangeSerializer.serialize(TOPIC, exchange);
+    }
+
+    @Benchmark
+    public ExchangeRequest exchangeDeserializeJson() {
+        return jsonExchangeDeserializer.deserialize(TOPIC, exchangeJson);
+    }
+
+    @Benchmark
+    public ExchangeRequest exchangeDeserializeCompact() {
+        return compactExchangeDeserializer.deserialize(TOPIC, exchangeCompact);
+    }
+
+    @Benchmark
+    public byte[] notificationSerializeJson() {
+        return jsonNotificationSerializer.serialize(TOPIC, notification);
+    }
+
+    @Benchmark
+    public byte[] notificationSerializeCompact() {
+        return compactNotificationSerializer.serialize(TOPIC, notification);
+    }
+
+    @Benchmark
+    public NotificationRequest notificationDeserializeJson() {
+        return jsonNotificationDeserializer.deserialize(TOPIC, notificationJson);
+    }
+
+    @Benchmark
+    public NotificationRequest notificationDeserializeCompact() {
+        return compactNotificationDeserializer.deserialize(TOPIC, notificationCompact);
+    }
+
+    @TearDown
+    public void tearDown() {
+        jsonExchangeSerializer.close();
+        jsonExchangeDeserializer.close();
+        jsonNotificationSerializer.close();
+        jsonNotificationDeserializer.close();
+    }
+}
@@ -3,9 +3,10 @@ package com.example.cash.service;
 import com.example.clients.cash.CashAction;
 import com.example.clients.cash.CashOperationRequest;
 import com.example.clients.cash.CashOperationResponse;
-import com.example.clients.customer.AccountDto;
+import com.example.clients.customer.BalanceChangeResponse;
 import com.example.clients.customer.CustomerClient;
-import com.example.clients.customer.CustomerDto;
+import com.example.clients.fraud.OperationEvent;
+import com.example.clients.fraud.OperationType;
 import com.example.clients.notification.NotificationRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -24,6 +25,7 @@ public class CashService {
 
     private final CustomerClient customerClient;
     private final KafkaTemplate<String, NotificationRequest> kafkaTemplate;
+    private final OperationEventPublisher operationEventPublisher;
 
     @Value("${spring.kafka.topics.cash-notification}")
     private String cashNotificationTopic;
@@ -43,39 +45,34 @@ public class CashService {
                 return CashOperationResponse.error(errors);
             }
 
-            // 2. Получаем данные пользователя
-            CustomerDto customer = customerClient.getCustomer(request.login());
-            if (customer == null) {
-                log.error("Customer not found: {}", request.login());
-                return CashOperationResponse.error("Customer not found");
-            }
-
-            // 3. Проверяем наличие счета с указанной валютой
-            AccountDto account = customer.findAccountByCurrency(request.currency());
-            if (account == null) {
-                log.error("Account with currency {} not found for user {}", request.currency(), request.login());
-                return CashOperationResponse.error("Account with currency " + request.currency() + " not found");
-            }
+            // 2. Изменяем баланс на дельту в Customer сервисе (без предварительного чтения счета)
+            BigDecimal delta = request.action() == CashAction.DEPOSIT
+                    ? request.value()
+                    : request.value().negate();
+            BalanceChangeResponse result = customerClient.changeAccountBalance(
+                    request.login(), request.currency(), delta);
 
-            // 4. Для операций снятия проверяем достаточность средств
-            if (request.action() == CashAction.WITHDRAW) {
-                if (account.balance().compareTo(request.value()) < 0) {
+            if (!result.success()) {
+                // balance заполнен только при нехватке средств
+                if (result.balance() != null) {
                     log.warn("Insufficient funds for withdrawal. User: {}, requested: {} {}, available: {} {}",
-                            request.login(), request.value(), request.currency(), account.balance(), request.currency());
+                            request.login(), request.value(), request.currency(), result.balance(), request.currency());
                     return CashOperationResponse.error(
                             String.format("Недостаточно средств. Доступно: %s %s",
-                                    account.balance(), request.currency()));
+                                    result.balance(), request.currency()));
                 }
+                log.error("Cash operation rejected for user {}: {}", request.login(), result.errors());
+                return CashOperationResponse.error(result.errors());
             }
 
-            // 5. Рассчитываем новый баланс
-            BigDecimal newBalance = calculateNewBalance(account.balance(), request.value(), request.action());
-
-            // 6. Обновляем баланс в Customer сервисе
-            customerClient.updateAccountBalance(request.login(), request.currency(), newBalance);
+            BigDecimal newBalance = result.balance();
 
-            // 7. Отправляем уведомление пользователю
-            sendNotification(customer, request, newBalance);
+            // 3. Отправляем уведомление пользователю и событие для антифрода
+            sendNotification(result, request, newBalance);
+            operationEventPublisher.publish(OperationEvent.cash(
+                    result.customerId(),
+                    request.action() == CashAction.DEPOSIT ? OperationType.DEPOSIT : OperationType.WITHDRAWAL,
+                    request.value(), request.currency()));
 
             log.info("Cash operation completed successfully for user {}: {} {} {}. New balance: {} {}",
                     request.login(), request.action(), request.value(), request.currency(), newBalance, request.currency());
@@ -132,20 +129,10 @@ public class CashService {
         return List.of("RUB", "USD", "CNY").contains(currency.toUpperCase());
     }
 
-    /**
-     * Расчет нового баланса в зависимости от операции
-     */
-    private BigDecimal calculateNewBalance(BigDecimal currentBalance, BigDecimal operationValue, CashAction action) {
-        return switch (action) {
-            case DEPOSIT -> currentBalance.add(operationValue);
-            case WITHDRAW -> currentBalance.subtract(operationValue);
-        };
-    }
-
     /**
      * Отправка уведомления пользователю об операции
      */
-    private void sendNotification(CustomerDto customer, CashOperationRequest request, BigDecimal newBalance) {
+    private void sendNotification(BalanceChangeResponse result, CashOperationRequest request, BigDecimal newBalance) {
         try {
             String actionText = request.action() == CashAction.DEPOSIT ? "пополнение" : "снятие";
             String message = String.format(
@@ -154,15 +141,15 @@ public class CashService {
             );
 
             NotificationRequest notificationRequest = new NotificationRequest(
-                    customer.id(),
-                    customer.email(),
+                    result.customerId(),
+                    result.email(),
                     message
             );
 
-            kafkaTemplate.send(cashNotificationTopic, notificationRequest);
-            log.info("Notification sent to user {} about cash operation", customer.login());
+            kafkaTemplate.send(cashNotificationTopic, String.valueOf(result.customerId()), notificationRequest);
+            log.info("Notification sent to user {} about cash operation", request.login());
         } catch (Exception e) {
-            log.warn("Failed to send notification to user {}: {}", customer.login(), e.getMessage());
+            log.warn("Failed to send notification to user {}: {}", request.login(), e.getMessage());
             // Не прерываем операцию из-за ошибки отправки уведомления
         }
     }
@@ -0,0 +1,30 @@
+package com.example.cash.service;
+
+import com.example.clients.fraud.OperationEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Публикует совершенные операции для fraud-service; ошибка отправки операцию не отменяет.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OperationEventPublisher {
+
+    private final KafkaTemplate<String, OperationEvent> kafkaTemplate;
+
+    @Value("${spring.kafka.topics.operation-events}")
+    private String operationEventsTopic;
+
+    public void publish(OperationEvent event) {
+        try {
+            kafkaTemplate.send(operationEventsTopic, String.valueOf(event.customerId()), event);
+        } catch (Exception e) {
+            log.warn("Failed to publish operation event for customer {}: {}", event.customerId(), e.getMessage());
+        }
+    }
+}
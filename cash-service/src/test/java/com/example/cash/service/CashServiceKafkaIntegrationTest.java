@@ -2,12 +2,13 @@ package com.example.cash.service;
 
 import com.example.clients.cash.CashAction;
 import com.example.clients.cash.CashOperationRequest;
-import com.example.clients.customer.AccountDto;
+import com.example.clients.customer.BalanceChangeResponse;
 import com.example.clients.customer.Currency;
 import com.example.clients.customer.CustomerClient;
-import com.example.clients.customer.CustomerDto;
 import com.example.clients.notification.NotificationRequest;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -36,7 +37,6 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.when;
 
 @SpringBootTest(properties = "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}")
@@ -63,6 +63,8 @@ class CashServiceKafkaIntegrationTest {
     @BeforeEach
     void setUp() {
         Map<String, Object> consumerProps = KafkaTestUtils.consumerProps("test-group", "true", embeddedKafkaBroker);
+        // ключ - id клиента строкой, а не Integer по умолчанию из KafkaTestUtils
+        consumerProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         DefaultKafkaConsumerFactory<String, String> cf = new DefaultKafkaConsumerFactory<>(consumerProps);
         ContainerProperties containerProperties = new ContainerProperties(NOTIFICATION_TOPIC);
         KafkaMessageListenerContainer<String, String> container = new KafkaMessageListenerContainer<>(cf, containerProperties);
@@ -80,12 +82,9 @@ class CashServiceKafkaIntegrationTest {
         var initialBalance = BigDecimal.valueOf(1000);
         var operationValue = BigDecimal.valueOf(100);
 
-        var customer = new CustomerDto(1, login, "Test User", "test@example.com", null, List.of(
-                new AccountDto(com.example.clients.customer.Currency.RUB, currency, "Рубль", initialBalance, true)
-        ));
-
-        when(customerClient.getCustomer(login)).thenReturn(customer);
-        doNothing().when(customerClient).updateAccountBalance(eq(login), eq(currency), any(BigDecimal.class));
+        when(customerClient.changeAccountBalance(eq(login), eq(currency), any(BigDecimal.class)))
+                .thenReturn(new BalanceChangeResponse(true, 1, "test@example.com",
+                        initialBalance.add(operationValue), List.of()));
 
         var request = new CashOperationRequest(login, currency, operationValue, CashAction.DEPOSIT);
 
@@ -96,6 +95,7 @@ class CashServiceKafkaIntegrationTest {
         var received = consumerRecords.poll(10, TimeUnit.SECONDS);
         assertNotNull(received);
         assertThat(received.topic()).isEqualTo(NOTIFICATION_TOPIC);
+        assertThat(received.key()).isEqualTo("1");
         assertThat(received.value()).contains("Выполнено пополнение счета на сумму 100 RUB. Новый баланс: 1100 RUB");
     }
 }
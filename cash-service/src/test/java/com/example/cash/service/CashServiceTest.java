@@ -2,10 +2,9 @@ package com.example.cash.service;
 
 import com.example.clients.cash.CashAction;
 import com.example.clients.cash.CashOperationRequest;
-import com.example.clients.customer.AccountDto;
-import com.example.clients.customer.Currency;
+import com.example.clients.customer.BalanceChangeResponse;
 import com.example.clients.customer.CustomerClient;
-import com.example.clients.customer.CustomerDto;
+import com.example.clients.fraud.OperationType;
 import com.example.clients.notification.NotificationRequest;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -19,9 +18,9 @@ import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -35,6 +34,8 @@ class CashServiceTest {
     private CustomerClient customerClient;
     @Mock
     private KafkaTemplate<String, NotificationRequest> kafkaTemplate;
+    @Mock
+    private OperationEventPublisher operationEventPublisher;
     @InjectMocks
     private CashService cashService;
 
@@ -43,22 +44,12 @@ class CashServiceTest {
         ReflectionTestUtils.setField(cashService, "cashNotificationTopic", "cash-notification");
     }
 
-    private static CustomerDto buildCustomer(String login, BigDecimal rubBalance) {
-        var rubAccount = new AccountDto(
-                Currency.RUB,
-                Currency.RUB.getCode(),
-                Currency.RUB.getTitle(),
-                rubBalance,
-                true
-        );
-        return new CustomerDto(
-                1,
-                login,
-                "Имя " + login,
-                login + "@mail.io",
-                LocalDate.of(1990, 1, 1),
-                List.of(rubAccount)
-        );
+    private static BalanceChangeResponse changed(BigDecimal newBalance) {
+        return new BalanceChangeResponse(true, 1, "user5@mail.io", newBalance, List.of());
+    }
+
+    private static BalanceChangeResponse insufficient(BigDecimal available) {
+        return new BalanceChangeResponse(false, null, null, available, List.of("Insufficient funds"));
     }
 
 
@@ -73,15 +64,16 @@ class CashServiceTest {
                     "user5", "RUB",
                     BigDecimal.valueOf(100), CashAction.DEPOSIT);
 
-            when(customerClient.getCustomer("user5"))
-                    .thenReturn(buildCustomer("user5", BigDecimal.valueOf(200)));
+            when(customerClient.changeAccountBalance("user5", "RUB", BigDecimal.valueOf(100)))
+                    .thenReturn(changed(BigDecimal.valueOf(300)));
 
             var response = cashService.processCashOperation(req);
 
             assertTrue(response.isSuccess());
-            verify(customerClient).updateAccountBalance("user5", "RUB",
-                    BigDecimal.valueOf(300));
-            verify(kafkaTemplate).send(eq("cash-notification"), any(NotificationRequest.class));
+            verify(customerClient, never()).getCustomer(any());
+            verify(kafkaTemplate).send(eq("cash-notification"), eq("1"), any(NotificationRequest.class));
+            verify(operationEventPublisher).publish(argThat(e ->
+                    e.customerId() == 1 && e.type() == OperationType.DEPOSIT && e.currency().equals("RUB")));
         }
     }
 
@@ -96,14 +88,14 @@ class CashServiceTest {
                     "user5", "RUB",
                     BigDecimal.valueOf(500), CashAction.WITHDRAW);
 
-            when(customerClient.getCustomer("user5"))
-                    .thenReturn(buildCustomer("user5", BigDecimal.valueOf(300)));
+            when(customerClient.changeAccountBalance("user5", "RUB", BigDecimal.valueOf(-500)))
+                    .thenReturn(insufficient(BigDecimal.valueOf(300)));
 
             var rs = cashService.processCashOperation(req);
 
             assertFalse(rs.isSuccess());
-            verify(customerClient, never()).updateAccountBalance(any(), any(), any());
-            verify(kafkaTemplate, never()).send(eq("cash-notification"), any(NotificationRequest.class));
+            assertThat(rs.getErrors()).containsExactly("Недостаточно средств. Доступно: 300 RUB");
+            verify(kafkaTemplate, never()).send(eq("cash-notification"), anyString(), any(NotificationRequest.class));
         }
     }
 }
@@ -0,0 +1,15 @@
+package com.example.clients.customer;
+
+import java.math.BigDecimal;
+
+/**
+ * Списание с одного счета и зачисление на другой в одной транзакции
+ */
+public record AccountTransferRequest(
+        String fromLogin,
+        String fromCurrency,
+        BigDecimal debitAmount,
+        String toLogin,
+        String toCurrency,
+        BigDecimal creditAmount
+) {}
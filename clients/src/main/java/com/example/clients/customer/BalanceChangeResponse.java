@@ -0,0 +1,16 @@
+package com.example.clients.customer;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Результат изменения баланса на дельту.
+ * При успехе balance - новый баланс, при нехватке средств - текущий.
+ */
+public record BalanceChangeResponse(
+        boolean success,
+        Integer customerId,
+        String email,
+        BigDecimal balance,
+        List<String> errors
+) {}
@@ -15,6 +15,13 @@ public interface CustomerClient {
     @GetMapping("/api/v1/customers/main")
     MainPageData getMainPage(@RequestParam("login") String login);
 
+    @GetMapping("/api/v1/customers/users")
+    UserDirectoryPage searchUsers(
+            @RequestParam("query") String query,
+            @RequestParam("page") int page,
+            @RequestParam("size") int size
+    );
+
     @PostMapping("/api/v1/customers/user/{login}/editPassword")
     List<String> editPassword(
             @PathVariable("login") String login,
@@ -32,6 +39,11 @@ public interface CustomerClient {
             @RequestBody EditUserAccountsRequest request
     );
 
+    /**
+     * @deprecated абсолютная запись баланса теряет конкурентные изменения,
+     * используйте {@link #changeAccountBalance(String, String, BigDecimal)}
+     */
+    @Deprecated
     @PutMapping("/api/v1/customers/{login}/accounts/{currency}/balance")
     void updateAccountBalance(
             @PathVariable("login") String login,
@@ -39,7 +51,17 @@ public interface CustomerClient {
             @RequestBody BigDecimal newBalance
     );
 
+    @PostMapping("/api/v1/customers/{login}/accounts/{currency}/balance/delta")
+    BalanceChangeResponse changeAccountBalance(
+            @PathVariable("login") String login,
+            @PathVariable("currency") String currency,
+            @RequestBody BigDecimal delta
+    );
+
     @GetMapping("/api/v1/customers/{login}")
     CustomerDto getCustomer(@PathVariable("login") String login);
 
+    @PostMapping("/api/v1/customers/accounts/transfer")
+    List<String> transferBalance(@RequestBody AccountTransferRequest request);
+
 }
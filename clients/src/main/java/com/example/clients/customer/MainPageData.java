@@ -15,5 +15,6 @@ public record MainPageData(
         List<String> userAccountsErrors,
         List<String> cashErrors,
         List<String> transferErrors,
-        List<String> transferOtherErrors
+        List<String> transferOtherErrors,
+        Integer customerId
 ) {}
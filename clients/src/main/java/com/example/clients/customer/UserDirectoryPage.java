@@ -0,0 +1,13 @@
+package com.example.clients.customer;
+
+import java.util.List;
+
+/**
+ * Страница справочника пользователей (для выбора получателя перевода)
+ */
+public record UserDirectoryPage(
+        List<UserShortDto> users,
+        int page,
+        int size,
+        boolean hasNext
+) {}
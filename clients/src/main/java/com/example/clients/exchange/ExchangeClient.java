@@ -1,10 +1,13 @@
 package com.example.clients.exchange;
 
+import com.example.clients.customer.Currency;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.PutMapping;
-import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @FeignClient(
@@ -13,7 +16,32 @@ import java.util.List;
 )
 public interface ExchangeClient {
 
+    /** Версия набора курсов в ответе exchange-service (она же значение ETag без кавычек) */
+    String RATES_VERSION_HEADER = "X-Rates-Version";
+
     @GetMapping("/api/rates")
     List<ExchangeRateDto> getRates();
 
+    /**
+     * Курсы, только если текущий набор отличается от набора с указанной версией (хэш содержимого).
+     * 200 - новый набор и его версия в {@link #RATES_VERSION_HEADER}, 204 - у клиента актуальная версия.
+     */
+    @GetMapping("/api/rates")
+    ResponseEntity<List<ExchangeRateDto>> getRatesSince(@RequestParam("since") long version);
+
+    @GetMapping("/api/rates/history")
+    List<RatePointDto> getRateHistory(
+            @RequestParam("currency") Currency currency,
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam("step") String step);
+
+    @GetMapping("/api/rates/at")
+    List<ExchangeRateDto> getRatesAt(
+            @RequestParam("time") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime time);
+
+    static long versionOf(ResponseEntity<?> response) {
+        var header = response.getHeaders().getFirst(RATES_VERSION_HEADER);
+        return header == null ? 0L : Long.parseLong(header);
+    }
 }
@@ -0,0 +1,108 @@
+package com.example.clients.exchange;
+
+import com.example.clients.customer.Currency;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Неизменяемая таблица курсов, индексированная по Currency.ordinal().
+ * Кросс-курсы считаются один раз при построении, поиск - O(1) без аллокаций.
+ * RUB - базовая валюта, его курс всегда 1.0.
+ * Для денежных сумм - {@link #convert}: кросс-курс в double округляет результат деления,
+ * и на границе .5 HALF_UP может уйти в другую сторону.
+ */
+public final class ExchangeRateTable {
+
+    private static final Currency[] CURRENCIES = Currency.values();
+
+    public static final ExchangeRateTable EMPTY = of(List.of());
+
+    private final double[] toRub;      // NaN - курс неизвестен
+    private final double[][] cross;    // cross[from][to] = toRub[from] / toRub[to]
+    private final BigDecimal[] toRubDecimal; // null - курс неизвестен
+    private final List<ExchangeRateDto> rates;
+
+    private ExchangeRateTable(double[] toRub) {
+        this.toRub = toRub;
+        this.cross = new double[CURRENCIES.length][CURRENCIES.length];
+        this.toRubDecimal = new BigDecimal[CURRENCIES.length];
+        List<ExchangeRateDto> list = new ArrayList<>(CURRENCIES.length);
+        for (Currency from : CURRENCIES) {
+            for (Currency to : CURRENCIES) {
+                cross[from.ordinal()][to.ordinal()] = toRub[from.ordinal()] / toRub[to.ordinal()];
+            }
+            if (!Double.isNaN(toRub[from.ordinal()])) {
+                toRubDecimal[from.ordinal()] = BigDecimal.valueOf(toRub[from.ordinal()]);
+                list.add(new ExchangeRateDto(from.getTitle(), from.name(), toRub[from.ordinal()]));
+            }
+        }
+        this.rates = List.copyOf(list);
+    }
+
+    /**
+     * Строит таблицу из списка курсов к рублю; неизвестные валюты и переданный RUB игнорируются.
+     */
+    public static ExchangeRateTable of(Collection<ExchangeRateDto> dtos) {
+        double[] toRub = new double[CURRENCIES.length];
+        Arrays.fill(toRub, Double.NaN);
+        toRub[Currency.RUB.ordinal()] = 1.0;
+        for (ExchangeRateDto dto : dtos) {
+            Currency currency = find(dto.getName());
+            if (currency != null && currency != Currency.RUB) {
+                toRub[currency.ordinal()] = dto.getValue();
+            }
+        }
+        return new ExchangeRateTable(toRub);
+    }
+
+    /** Курс валюты к рублю */
+    public double rateToRub(Currency currency) {
+        double rate = toRub[currency.ordinal()];
+        if (Double.isNaN(rate)) {
+            throw new IllegalArgumentException("Exchange rate not found for " + currency);
+        }
+        return rate;
+    }
+
+    /** Сколько единиц to дают за одну единицу from */
+    public double crossRate(Currency from, Currency to) {
+        double rate = cross[from.ordinal()][to.ordinal()];
+        if (Double.isNaN(rate)) {
+            throw new IllegalArgumentException("Exchange rate not found for "
+                    + (Double.isNaN(toRub[from.ordinal()]) ? from : to));
+        }
+        return rate;
+    }
+
+    /**
+     * Пересчет суммы: amount * курс(from) / курс(to) целиком в BigDecimal,
+     * с округлением HALF_UP до scale знаков.
+     */
+    public BigDecimal convert(BigDecimal amount, Currency from, Currency to, int scale) {
+        BigDecimal fromRate = toRubDecimal[from.ordinal()];
+        BigDecimal toRate = toRubDecimal[to.ordinal()];
+        if (fromRate == null || toRate == null) {
+            throw new IllegalArgumentException("Exchange rate not found for " + (fromRate == null ? from : to));
+        }
+        return amount.multiply(fromRate).divide(toRate, scale, RoundingMode.HALF_UP);
+    }
+
+    /** Курсы в порядке Currency.values(), начиная с RUB */
+    public List<ExchangeRateDto> toDtoList() {
+        return rates;
+    }
+
+    private static Currency find(String name) {
+        for (Currency currency : CURRENCIES) {
+            if (currency.name().equals(name)) {
+                return currency;
+            }
+        }
+        return null;
+    }
+}
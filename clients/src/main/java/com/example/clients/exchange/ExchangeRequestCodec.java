@@ -0,0 +1,89 @@
+package com.example.clients.exchange;
+
+import com.example.clients.customer.Currency;
+import com.example.clients.serialization.CompactCodec;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import static com.example.clients.serialization.CompactFormat.*;
+
+/**
+ * Число курсов (+1, 0 - null), затем по каждому курсу:
+ * байт валюты - ordinal+1 известной {@link Currency} со стандартным названием, иначе 0 и строки name/title;
+ * затем значение курса (8 байт double).
+ */
+public final class ExchangeRequestCodec implements CompactCodec<ExchangeRequest> {
+
+    public static final ExchangeRequestCodec INSTANCE = new ExchangeRequestCodec();
+
+    private static final Currency[] CURRENCIES = Currency.values();
+    // байт валюты + double
+    private static final int MIN_RATE_BYTES = 1 + Double.BYTES;
+
+    private ExchangeRequestCodec() {
+    }
+
+    @Override
+    public void write(ExchangeRequest value, DataOutputStream out) throws IOException {
+        var rates = value.getRates();
+        if (rates == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        writeVarInt(out, rates.size() + 1);
+        for (ExchangeRateDto rate : rates) {
+            Currency currency = known(rate);
+            if (currency != null) {
+                out.writeByte(currency.ordinal() + 1);
+            } else {
+                out.writeByte(0);
+                writeString(out, rate.getName());
+                writeString(out, rate.getTitle());
+            }
+            out.writeDouble(rate.getValue());
+        }
+    }
+
+    @Override
+    public ExchangeRequest read(DataInputStream in) throws IOException {
+        int count = readVarInt(in);
+        if (count == 0) {
+            return new ExchangeRequest(null);
+        }
+        // каждый курс занимает минимум MIN_RATE_BYTES - больше курсов в оставшихся байтах не поместится
+        if (count - 1 > in.available() / MIN_RATE_BYTES) {
+            throw new EOFException("Rate count " + (count - 1) + " exceeds remaining " + in.available() + " bytes");
+        }
+        var rates = new ArrayList<ExchangeRateDto>(count - 1);
+        for (int i = 0; i < count - 1; i++) {
+            int code = in.readUnsignedByte();
+            String name;
+            String title;
+            if (code == 0) {
+                name = readString(in);
+                title = readString(in);
+            } else if (code <= CURRENCIES.length) {
+                Currency currency = CURRENCIES[code - 1];
+                name = currency.name();
+                title = currency.getTitle();
+            } else {
+                throw new IOException("Unknown currency code " + code);
+            }
+            rates.add(new ExchangeRateDto(title, name, in.readDouble()));
+        }
+        return new ExchangeRequest(rates);
+    }
+
+    private static Currency known(ExchangeRateDto rate) {
+        for (Currency currency : CURRENCIES) {
+            if (currency.name().equals(rate.getName()) && currency.getTitle().equals(rate.getTitle())) {
+                return currency;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.clients.exchange;
+
+import com.example.clients.serialization.CompactDeserializer;
+
+public class ExchangeRequestDeserializer extends CompactDeserializer<ExchangeRequest> {
+
+    public ExchangeRequestDeserializer() {
+        super(ExchangeRequestCodec.INSTANCE, ExchangeRequest.class);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.clients.exchange;
+
+import com.example.clients.serialization.CompactSerializer;
+
+public class ExchangeRequestSerializer extends CompactSerializer<ExchangeRequest> {
+
+    public ExchangeRequestSerializer() {
+        super(ExchangeRequestCodec.INSTANCE, 64);
+    }
+}
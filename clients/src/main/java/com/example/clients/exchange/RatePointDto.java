@@ -0,0 +1,13 @@
+package com.example.clients.exchange;
+
+import java.time.LocalDateTime;
+
+/**
+ * Точка истории курса: начало интервала и агрегаты значений внутри него.
+ */
+public record RatePointDto(
+        LocalDateTime time,
+        double avg,
+        double min,
+        double max
+) {}
@@ -4,6 +4,10 @@ package com.example.clients.fraud;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import java.util.List;
 
 @FeignClient(
         name = "fraud",
@@ -13,4 +17,8 @@ public interface FraudClient {
     @GetMapping(path = "/api/v1/fraud-check/{customerId}")
     FraudCheckResponse isFraudster(
             @PathVariable("customerId") Integer customerId);
+
+    /** Вердикты по списку клиентов одним запросом, в порядке переданных id */
+    @PostMapping(path = "/api/v1/fraud-check/bulk")
+    List<FraudVerdict> checkAll(@RequestBody List<Integer> customerIds);
 }
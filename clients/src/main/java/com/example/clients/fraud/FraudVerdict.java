@@ -0,0 +1,5 @@
+package com.example.clients.fraud;
+
+public record FraudVerdict(Integer customerId, Boolean isFraudster) {
+
+}
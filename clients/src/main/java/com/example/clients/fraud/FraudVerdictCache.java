@@ -0,0 +1,77 @@
+package com.example.clients.fraud;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Ограниченный по размеру кэш вердиктов проверки на фрод с TTL, ключ - customerId.
+ * Чтение без блокировок; при переполнении сначала выбрасываются просроченные записи,
+ * затем произвольные. Чистка идет до нижней границы (maxSize минус ~1/8), поэтому полный
+ * проход по карте случается не чаще раза на evictSlack вставок, а не на каждую, и только
+ * в одном потоке; размер может кратковременно превысить maxSize на число параллельных put.
+ */
+public final class FraudVerdictCache {
+
+    private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long ttlNanos;
+    private final int evictSlack;
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    private record Entry(boolean fraudster, long expiresAtNanos) {}
+
+    public FraudVerdictCache(int maxSize, Duration ttl) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.evictSlack = Math.max(1, maxSize / 8);
+    }
+
+    /** null - вердикта нет или он устарел */
+    public Boolean get(Integer customerId) {
+        var entry = entries.get(customerId);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAtNanos() > 0) {
+            entries.remove(customerId, entry);
+            return null;
+        }
+        return entry.fraudster();
+    }
+
+    public void put(Integer customerId, boolean fraudster) {
+        if (ttlNanos <= 0 || maxSize <= 0) {
+            return;
+        }
+        entries.put(customerId, new Entry(fraudster, System.nanoTime() + ttlNanos));
+        if (entries.size() > maxSize && evicting.compareAndSet(false, true)) {
+            try {
+                evict();
+            } finally {
+                evicting.set(false);
+            }
+        }
+    }
+
+    public void invalidate(Integer customerId) {
+        entries.remove(customerId);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evict() {
+        long now = System.nanoTime();
+        entries.values().removeIf(e -> now - e.expiresAtNanos() > 0);
+        int target = maxSize - evictSlack;
+        Iterator<Integer> it = entries.keySet().iterator();
+        while (entries.size() > target && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.clients.fraud;
+
+import java.math.BigDecimal;
+
+/**
+ * Денежная операция клиента для fraud-service (топик operation-events, ключ - customerId).
+ * toCustomerId и toCurrency заполнены только для переводов.
+ */
+public record OperationEvent(
+        Integer customerId,
+        OperationType type,
+        BigDecimal amount,
+        String currency,
+        Integer toCustomerId,
+        String toCurrency,
+        long timestampMillis
+) {
+    public static OperationEvent cash(Integer customerId, OperationType type, BigDecimal amount, String currency) {
+        return new OperationEvent(customerId, type, amount, currency, null, null, System.currentTimeMillis());
+    }
+
+    public static OperationEvent transfer(Integer customerId, BigDecimal amount, String currency,
+                                          Integer toCustomerId, String toCurrency) {
+        return new OperationEvent(customerId, OperationType.TRANSFER, amount, currency,
+                toCustomerId, toCurrency, System.currentTimeMillis());
+    }
+}
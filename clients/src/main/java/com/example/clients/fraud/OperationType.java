@@ -0,0 +1,7 @@
+package com.example.clients.fraud;
+
+public enum OperationType {
+    DEPOSIT,
+    WITHDRAWAL,
+    TRANSFER
+}
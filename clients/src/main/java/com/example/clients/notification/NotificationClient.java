@@ -0,0 +1,28 @@
+package com.example.clients.notification;
+
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
+
+@FeignClient(
+        name = "notification",
+        url = "${clients.notification.url}"
+)
+public interface NotificationClient {
+
+    /** Inbox клиента, чей токен передан в запросе */
+    @GetMapping("/api/v1/notifications")
+    NotificationPage getInbox(
+            @RequestParam(value = "before", required = false) Integer before,
+            @RequestParam("size") int size);
+
+    @GetMapping("/api/v1/notifications/unread")
+    long getUnreadCount();
+
+    /** Отмечает прочитанными показанные уведомления, возвращает оставшееся число непрочитанных */
+    @PostMapping("/api/v1/notifications/read")
+    long markRead(@RequestParam("ids") List<Integer> ids);
+}
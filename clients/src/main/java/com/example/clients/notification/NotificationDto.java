@@ -0,0 +1,11 @@
+package com.example.clients.notification;
+
+import java.time.LocalDateTime;
+
+public record NotificationDto(
+        Integer id,
+        String sender,
+        String message,
+        LocalDateTime sentAt,
+        boolean read
+) {}
@@ -0,0 +1,13 @@
+package com.example.clients.notification;
+
+import java.util.List;
+
+/**
+ * Страница inbox, новые первыми.
+ * nextBefore - курсор следующей страницы (передать как before), null - страниц больше нет.
+ */
+public record NotificationPage(
+        List<NotificationDto> items,
+        Integer nextBefore,
+        long unread
+) {}
@@ -0,0 +1,32 @@
+package com.example.clients.notification;
+
+import com.example.clients.serialization.CompactCodec;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static com.example.clients.serialization.CompactFormat.*;
+
+/**
+ * toCustomerId, toCustomerName, message - в этом порядке, все поля nullable.
+ */
+public final class NotificationRequestCodec implements CompactCodec<NotificationRequest> {
+
+    public static final NotificationRequestCodec INSTANCE = new NotificationRequestCodec();
+
+    private NotificationRequestCodec() {
+    }
+
+    @Override
+    public void write(NotificationRequest value, DataOutputStream out) throws IOException {
+        writeNullableInt(out, value.toCustomerId());
+        writeString(out, value.toCustomerName());
+        writeString(out, value.message());
+    }
+
+    @Override
+    public NotificationRequest read(DataInputStream in) throws IOException {
+        return new NotificationRequest(readNullableInt(in), readString(in), readString(in));
+    }
+}
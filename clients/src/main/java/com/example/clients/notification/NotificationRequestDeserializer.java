@@ -0,0 +1,10 @@
+package com.example.clients.notification;
+
+import com.example.clients.serialization.CompactDeserializer;
+
+public class NotificationRequestDeserializer extends CompactDeserializer<NotificationRequest> {
+
+    public NotificationRequestDeserializer() {
+        super(NotificationRequestCodec.INSTANCE, NotificationRequest.class);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.clients.notification;
+
+import com.example.clients.serialization.CompactSerializer;
+
+public class NotificationRequestSerializer extends CompactSerializer<NotificationRequest> {
+
+    public NotificationRequestSerializer() {
+        super(NotificationRequestCodec.INSTANCE, 128);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.clients.serialization;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Схема компактного бинарного формата для одного типа сообщения.
+ * Порядок полей фиксирован кодом, поэтому имена полей и типы в сообщение не пишутся.
+ */
+public interface CompactCodec<T> {
+
+    void write(T value, DataOutputStream out) throws IOException;
+
+    T read(DataInputStream in) throws IOException;
+}
@@ -0,0 +1,54 @@
+package com.example.clients.serialization;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+
+/**
+ * Kafka-десериализатор компактного формата.
+ * Сообщения без {@link CompactFormat#MAGIC} читаются как JSON, поэтому консьюмер понимает оба формата
+ * и продюсеры можно переключать по топикам в любом порядке.
+ */
+public abstract class CompactDeserializer<T> implements Deserializer<T> {
+
+    private final CompactCodec<T> codec;
+    private final JsonDeserializer<T> jsonFallback;
+
+    protected CompactDeserializer(CompactCodec<T> codec, Class<T> type) {
+        this.codec = codec;
+        this.jsonFallback = new JsonDeserializer<>(type, false);
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (!CompactFormat.isCompact(data)) {
+            return jsonFallback.deserialize(topic, headers, data);
+        }
+        if (data[1] != CompactFormat.VERSION) {
+            throw new SerializationException("Unsupported compact format version " + data[1] + " in topic " + topic);
+        }
+        try (var in = new DataInputStream(new ByteArrayInputStream(data, 2, data.length - 2))) {
+            return codec.read(in);
+        } catch (IOException e) {
+            throw new SerializationException("Can't deserialize compact message from topic " + topic, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        jsonFallback.close();
+    }
+}
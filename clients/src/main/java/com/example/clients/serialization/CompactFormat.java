@@ -0,0 +1,108 @@
+package com.example.clients.serialization;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Общие примитивы компактного формата.
+ * <p>
+ * Сообщение: {@link #MAGIC}, {@link #VERSION}, затем поля в порядке, заданном {@link CompactCodec}.
+ * Целые и длины строк пишутся как varint, строки - UTF-8, null - отдельным маркером.
+ * Длины и счетчики при чтении сверяются с оставшимися байтами ({@code in.available()},
+ * поток всегда поверх массива сообщения), чтобы битое сообщение не заставило выделить гигабайты.
+ * Байт 0xC1 не встречается в UTF-8, так что JSON-сообщение с ним никогда не начинается -
+ * по первому байту десериализатор отличает бинарный формат от старого JSON.
+ */
+public final class CompactFormat {
+
+    public static final byte MAGIC = (byte) 0xC1;
+    public static final byte VERSION = 1;
+
+    private CompactFormat() {
+    }
+
+    public static boolean isCompact(byte[] data) {
+        return data != null && data.length > 1 && data[0] == MAGIC;
+    }
+
+    /** Строка: длина+1 varint-ом (0 - null), затем UTF-8 байты */
+    public static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    public static String readString(DataInputStream in) throws IOException {
+        int length = readVarInt(in);
+        if (length == 0) {
+            return null;
+        }
+        // длина из сообщения: не выделяем больше, чем реально осталось байт
+        if (length - 1 > in.available()) {
+            throw new EOFException("String length " + (length - 1) + " exceeds remaining " + in.available() + " bytes");
+        }
+        byte[] bytes = new byte[length - 1];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Nullable Integer: 0 - null, иначе zigzag(value)+1 */
+    public static void writeNullableInt(DataOutputStream out, Integer value) throws IOException {
+        if (value == null) {
+            writeVarLong(out, 0);
+        } else {
+            writeVarLong(out, ((long) value << 1 ^ (long) value >> 63) + 1);
+        }
+    }
+
+    public static Integer readNullableInt(DataInputStream in) throws IOException {
+        long raw = readVarLong(in);
+        if (raw == 0) {
+            return null;
+        }
+        long zigzag = raw - 1;
+        return (int) (zigzag >>> 1 ^ -(zigzag & 1));
+    }
+
+    public static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        writeVarLong(out, value & 0xFFFFFFFFL);
+    }
+
+    public static int readVarInt(DataInputStream in) throws IOException {
+        long value = readVarLong(in);
+        if (value > Integer.MAX_VALUE) {
+            throw new IOException("Varint out of range: " + value);
+        }
+        return (int) value;
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Truncated varint");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.clients.serialization;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Kafka-сериализатор компактного формата. Конкретные подклассы с конструктором без аргументов
+ * указываются в конфигурации продюсера, например через DelegatingByTopicSerializer - по топикам.
+ */
+public abstract class CompactSerializer<T> implements Serializer<T> {
+
+    private final CompactCodec<T> codec;
+    private final int initialSize;
+
+    protected CompactSerializer(CompactCodec<T> codec, int initialSize) {
+        this.codec = codec;
+        this.initialSize = initialSize;
+    }
+
+    @Override
+    public byte[] serialize(String topic, T data) {
+        if (data == null) {
+            return null;
+        }
+        var bytes = new ByteArrayOutputStream(initialSize);
+        try (var out = new DataOutputStream(bytes)) {
+            out.writeByte(CompactFormat.MAGIC);
+            out.writeByte(CompactFormat.VERSION);
+            codec.write(data, out);
+        } catch (IOException e) {
+            throw new SerializationException("Can't serialize " + data.getClass().getSimpleName()
+                    + " for topic " + topic, e);
+        }
+        return bytes.toByteArray();
+    }
+}
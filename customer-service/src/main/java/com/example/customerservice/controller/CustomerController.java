@@ -4,6 +4,8 @@ import com.example.clients.customer.*;
 import com.example.clients.customer.CustomerRegistrationRequest;
 import com.example.clients.customer.CustomerRegistrationResponse;
 import com.example.clients.customer.MainPageData;
+import com.example.customerservice.exception.AccountNotFoundException;
+import com.example.customerservice.exception.InsufficientFundsException;
 import com.example.customerservice.service.CustomerService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -36,6 +38,14 @@ public class CustomerController {
         return customerService.getMainData(login);
     }
 
+    @GetMapping("/users")
+    public UserDirectoryPage searchUsers(
+            @RequestParam(value = "query", required = false) String query,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        return customerService.searchUsers(query, page, size);
+    }
+
     @PostMapping("/user/{login}/editUserAccounts")
     public List<String> editUserAccounts(
             @PathVariable("login") String login,
@@ -66,4 +76,27 @@ public class CustomerController {
         log.info("Updating account balance for user {}: {} {} = {}", login, currency, "new balance", newBalance);
         customerService.updateAccountBalance(login, currency, newBalance);
     }
+
+    @PostMapping("/{login}/accounts/{currency}/balance/delta")
+    public BalanceChangeResponse changeAccountBalance(
+            @PathVariable("login") String login,
+            @PathVariable("currency") String currency,
+            @RequestBody BigDecimal delta) {
+
+        log.info("Changing account balance for user {}: {} {} {}", login, currency, "delta", delta);
+        return customerService.changeAccountBalance(login, currency, delta);
+    }
+
+    @PostMapping("/accounts/transfer")
+    public List<String> transferBalance(@RequestBody AccountTransferRequest request) {
+        log.info("Transferring {} {} from {} to {} ({} {})",
+                request.debitAmount(), request.fromCurrency(), request.fromLogin(),
+                request.toLogin(), request.creditAmount(), request.toCurrency());
+        try {
+            return customerService.transferBalance(request);
+        } catch (InsufficientFundsException | AccountNotFoundException e) {
+            log.warn("Transfer from {} to {} rejected: {}", request.fromLogin(), request.toLogin(), e.getMessage());
+            return List.of(e.getMessage());
+        }
+    }
 }
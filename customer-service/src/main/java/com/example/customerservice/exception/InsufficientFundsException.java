@@ -0,0 +1,7 @@
+package com.example.customerservice.exception;
+
+public class InsufficientFundsException extends RuntimeException {
+    public InsufficientFundsException(String message) {
+        super(message);
+    }
+}
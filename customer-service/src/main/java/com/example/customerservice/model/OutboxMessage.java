@@ -0,0 +1,47 @@
+package com.example.customerservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Уведомление, ожидающее отправки в Kafka (transactional outbox).
+ * Пишется в той же транзакции, что и бизнес-изменение, удаляется relay-ем после подтверждения брокера.
+ */
+@Entity
+@Table(name = "notification_outbox")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OutboxMessage {
+
+    @Id
+    @SequenceGenerator(
+            name = "notification_outbox_id_sequence",
+            sequenceName = "notification_outbox_id_sequence"
+    )
+    @GeneratedValue(
+            strategy = GenerationType.SEQUENCE,
+            generator = "notification_outbox_id_sequence"
+    )
+    private Long id;
+
+    @Column(nullable = false)
+    private String topic;
+
+    private String msgKey;
+
+    private Integer toCustomerId;
+    private String toCustomerName;
+
+    @Column(nullable = false, length = 2000)
+    private String message;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,12 @@
+package com.example.customerservice.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection of the row returned by {@link AccountRepository#applyDelta}.
+ */
+public interface AccountBalanceView {
+    BigDecimal getBalance();
+    Integer getCustomerId();
+    String getEmail();
+}
@@ -1,13 +1,63 @@
 package com.example.customerservice.repository;
 
+import com.example.clients.customer.Currency;
 import com.example.customerservice.model.Account;
 import com.example.customerservice.model.Customer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-import java.util.Currency;
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 
 public interface AccountRepository extends JpaRepository<Account, Integer> {
     List<Account> findAllByCustomer(Customer customer);
     boolean existsByCustomerAndCurrency(Customer customer, Currency currency);
+    boolean existsByCustomer_LoginAndCurrency(String login, Currency currency);
+    Optional<Account> findByCustomer_LoginAndCurrency(String login, Currency currency);
+
+    /**
+     * Applies a signed delta in a single statement, refusing to go below zero.
+     * Empty result means missing account or insufficient funds.
+     */
+    @Query(value = """
+            update account a
+               set balance = a.balance + :delta
+              from customer c
+             where c.id = a.customer_id
+               and c.login = :login
+               and a.currency = :currency
+               and a.balance + :delta >= 0
+            returning a.balance as "balance", c.id as "customerId", c.email as "email"
+            """, nativeQuery = true)
+    Optional<AccountBalanceView> applyDelta(@Param("login") String login,
+                                            @Param("currency") String currency,
+                                            @Param("delta") BigDecimal delta);
+
+    /**
+     * Conditional debit: the row is updated (and locked) only if the balance covers the amount.
+     * Returns the number of updated rows, 0 means missing account or insufficient funds.
+     */
+    @Modifying
+    @Query("""
+            update Account a set a.balance = a.balance - :amount
+            where a.currency = :currency
+              and a.balance >= :amount
+              and a.customer.id = (select c.id from Customer c where c.login = :login)
+            """)
+    int debit(@Param("login") String login,
+              @Param("currency") Currency currency,
+              @Param("amount") BigDecimal amount);
+
+    @Modifying
+    @Query("""
+            update Account a set a.balance = a.balance + :amount
+            where a.currency = :currency
+              and a.customer.id = (select c.id from Customer c where c.login = :login)
+            """)
+    int credit(@Param("login") String login,
+               @Param("currency") Currency currency,
+               @Param("amount") BigDecimal amount);
 }
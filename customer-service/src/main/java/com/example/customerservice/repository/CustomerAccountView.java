@@ -0,0 +1,20 @@
+package com.example.customerservice.repository;
+
+import com.example.clients.customer.Currency;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One row per account of a customer (currency/balance are null when the customer has none).
+ * Read-only projection: no password hash, no managed entities.
+ */
+public interface CustomerAccountView {
+    Integer getId();
+    String getLogin();
+    String getName();
+    String getEmail();
+    LocalDate getBirthdate();
+    Currency getCurrency();
+    BigDecimal getBalance();
+}
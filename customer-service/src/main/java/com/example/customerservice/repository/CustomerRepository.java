@@ -1,8 +1,14 @@
 package com.example.customerservice.repository;
 
+import com.example.clients.customer.UserShortDto;
 import com.example.customerservice.model.Customer;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface CustomerRepository extends JpaRepository<Customer, Integer> {
@@ -10,4 +16,25 @@ public interface CustomerRepository extends JpaRepository<Customer, Integer> {
     Optional<Customer> findByEmail(String email);
     boolean existsByLogin(String login);
     boolean existsByEmail(String email);
+
+    @Query("""
+            select c.id as id, c.login as login, c.name as name, c.email as email, c.birthdate as birthdate,
+                   a.currency as currency, a.balance as balance
+            from Customer c left join c.accounts a
+            where c.login = :login
+            order by a.id
+            """)
+    List<CustomerAccountView> findCustomerWithAccounts(@Param("login") String login);
+
+    @Query("select new com.example.clients.customer.UserShortDto(c.login, c.name) from Customer c order by c.login")
+    List<UserShortDto> findUserDirectory(Pageable pageable);
+
+    /** query должен быть экранирован для LIKE (%, _ и обратный слэш), см. UserDirectoryCache */
+    @Query("""
+            select new com.example.clients.customer.UserShortDto(c.login, c.name) from Customer c
+            where lower(c.login) like lower(concat(:query, '%')) escape '\\'
+               or lower(c.name) like lower(concat('%', :query, '%')) escape '\\'
+            order by c.login
+            """)
+    Slice<UserShortDto> searchUserDirectory(@Param("query") String query, Pageable pageable);
 }
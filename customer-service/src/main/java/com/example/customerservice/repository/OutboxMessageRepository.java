@@ -0,0 +1,33 @@
+package com.example.customerservice.repository;
+
+import com.example.customerservice.model.OutboxMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+
+    /**
+     * Самые старые сообщения с блокировкой строк; SKIP LOCKED позволяет нескольким
+     * репликам разбирать outbox параллельно, не отправляя одно сообщение дважды.
+     */
+    @Query(value = """
+            select * from notification_outbox
+            order by id
+            limit :limit
+            for update skip locked
+            """, nativeQuery = true)
+    List<OutboxMessage> lockBatch(@Param("limit") int limit);
+
+    /**
+     * Примерный размер outbox по статистике Postgres - для метрики: чтение каталога
+     * вместо count(*) по таблице на каждый scrape.
+     */
+    @Query(value = """
+            select coalesce(sum(n_live_tup), 0) from pg_stat_user_tables
+            where relname = 'notification_outbox'
+            """, nativeQuery = true)
+    long estimatePending();
+}
@@ -2,22 +2,23 @@ package com.example.customerservice.service;
 
 import com.example.clients.customer.*;
 import com.example.clients.customer.Currency;
-import com.example.clients.fraud.FraudClient;
 import com.example.clients.notification.NotificationRequest;
 import com.example.customerservice.exception.AccountNotFoundException;
 import com.example.customerservice.exception.CustomerNotFoundException;
+import com.example.customerservice.exception.InsufficientFundsException;
 import com.example.customerservice.model.Account;
 import com.example.customerservice.model.Customer;
 import com.example.customerservice.repository.AccountRepository;
 import com.example.customerservice.repository.CustomerRepository;
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import io.github.resilience4j.retry.annotation.Retry;
 import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.security.crypto.bcrypt.BCrypt;
 import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -28,11 +29,15 @@ import java.util.stream.Collectors;
 @Slf4j
 public class CustomerService {
 
+    private static final int MAX_DIRECTORY_PAGE_SIZE = 100;
+
     private final CustomerRepository customerRepository;
     private final AccountRepository accountRepository;
-    private final FraudClient fraudClient;
-    private final KafkaTemplate<String, NotificationRequest> kafkaTemplate;
+    private final FraudChecker fraudChecker;
+    private final NotificationOutbox notificationOutbox;
     private final MeterRegistry meterRegistry;
+    private final UserDirectoryCache userDirectoryCache;
+    private final TransactionTemplate transactionTemplate;
 
     @Value("${spring.kafka.topics.customer-notification}")
     private String customerNotificationTopic;
@@ -40,18 +45,27 @@ public class CustomerService {
     public CustomerService(
             CustomerRepository customerRepository,
             AccountRepository accountRepository,
-            FraudClient fraudClient,
-            KafkaTemplate<String, NotificationRequest> kafkaTemplate,
-            MeterRegistry meterRegistry) {
+            FraudChecker fraudChecker,
+            NotificationOutbox notificationOutbox,
+            MeterRegistry meterRegistry,
+            UserDirectoryCache userDirectoryCache,
+            TransactionTemplate transactionTemplate) {
         this.customerRepository = customerRepository;
         this.accountRepository = accountRepository;
-        this.fraudClient = fraudClient;
-        this.kafkaTemplate = kafkaTemplate;
+        this.fraudChecker = fraudChecker;
+        this.notificationOutbox = notificationOutbox;
         this.meterRegistry = meterRegistry;
+        this.userDirectoryCache = userDirectoryCache;
+        this.transactionTemplate = transactionTemplate;
     }
 
-    @CircuitBreaker(name = "fraudCheckService", fallbackMethod = "fraudCheckFallback")
-    @Retry(name = "fraudCheckService")
+    /**
+     * fraud-service проверяет клиента по id, поэтому регистрация - две короткие транзакции вокруг
+     * удаленного вызова, а не одна на весь метод: соединение с БД и строка с логином не держатся
+     * на время Feign-таймаута и повторов. Первая коммитит клиента со счетами (логин занят на время
+     * проверки), вторая - запись outbox. Заблокированный, непроверенный или оставшийся без outbox
+     * клиент удаляется, так что письмо уходит только прошедшему проверку клиенту.
+     */
     public CustomerRegistrationResponse registerCustomer(CustomerRegistrationRequest request) {
         List<String> validationErrors = validateRegistrationRequest(request);
 
@@ -86,12 +100,17 @@ public class CustomerService {
                 defaultAccounts.size(), customer.getLogin());
 
         // If we don’t say ‘save and FLUSH’ then the ID will be null.
-        customerRepository.saveAndFlush(customer);
-
-        var fraudCheckResponse =
-                fraudClient.isFraudster(customer.getId());
-        if (fraudCheckResponse.isFraudster()) {
-            customerRepository.delete(customer);
+        transactionTemplate.executeWithoutResult(status -> customerRepository.saveAndFlush(customer));
+
+        boolean fraudster;
+        try {
+            fraudster = fraudChecker.isFraudster(customer.getId());
+        } catch (RuntimeException e) {
+            deleteUnregistered(customer);
+            return fraudCheckFallback(request, e);
+        }
+        if (fraudster) {
+            deleteUnregistered(customer);
             List<String> fraudErrors = new ArrayList<>();
             fraudErrors.add("Your registration is blocked due to fraud suspicion");
             return new CustomerRegistrationResponse(false, fraudErrors);
@@ -104,8 +123,19 @@ public class CustomerService {
                         customer.getName())
         );
 
-        kafkaTemplate.send(customerNotificationTopic, notificationRequest);
-        log.info("Sent notification request to Kafka for customer: {}", customer.getId());
+        // в outbox, отправит NotificationOutboxRelay; ключ - id клиента для порядка в партиции
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                notificationOutbox.enqueue(customerNotificationTopic, String.valueOf(customer.getId()), notificationRequest);
+                invalidateDirectoryAfterCommit();
+            });
+        } catch (RuntimeException e) {
+            log.error("Failed to queue notification for customer {}, rolling back registration", customer.getId(), e);
+            deleteUnregistered(customer);
+            return new CustomerRegistrationResponse(false,
+                    List.of("Registration failed. Please try again later."));
+        }
+        log.info("Queued notification request for customer: {}", customer.getId());
 
         // custom metric for successful registrations
         meterRegistry.counter("customer_registrations_total").increment();
@@ -158,6 +188,33 @@ public class CustomerService {
                 List.of("Fraud service unavailable. Please try again later."));
     }
 
+    /**
+     * Отмена первой транзакции регистрации. Справочник сбрасывается: между транзакциями
+     * другой поток мог успеть его перечитать вместе с этим клиентом.
+     */
+    private void deleteUnregistered(Customer customer) {
+        transactionTemplate.executeWithoutResult(status -> customerRepository.delete(customer));
+        userDirectoryCache.invalidate();
+        log.info("Registration of customer {} rolled back", customer.getId());
+    }
+
+    /**
+     * Справочник перечитывается только после коммита, иначе перезагрузка из другого потока
+     * успеет закешировать состояние без этой транзакции.
+     */
+    private void invalidateDirectoryAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    userDirectoryCache.invalidate();
+                }
+            });
+        } else {
+            userDirectoryCache.invalidate();
+        }
+    }
+
     private boolean validateEmail(String email) {
         // Простая regex-проверка
         return email != null && email.matches("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
@@ -168,35 +225,33 @@ public class CustomerService {
     }
 
     // Агрегирующий метод для main
+    @Transactional(readOnly = true)
     public MainPageData getMainData(String login) {
-        var customer = customerRepository.findByLogin(login)
-                .orElseThrow(() -> {
-                    // Track failed login attempts (user authenticated in Keycloak but not found in DB)
-                    meterRegistry.counter("customer_logins_total", "result", "failed").increment();
-                    log.warn("Failed login attempt: user {} authenticated in Keycloak but not found in customer database", login);
-                    return new NoSuchElementException("Customer not found " + login);
-                });
+        var rows = customerRepository.findCustomerWithAccounts(login);
+        if (rows.isEmpty()) {
+            // Track failed login attempts (user authenticated in Keycloak but not found in DB)
+            meterRegistry.counter("customer_logins_total", "result", "failed").increment();
+            log.warn("Failed login attempt: user {} authenticated in Keycloak but not found in customer database", login);
+            throw new NoSuchElementException("Customer not found " + login);
+        }
+        var customer = rows.get(0);
+
+        Map<Currency, BigDecimal> balances = new EnumMap<>(Currency.class);
+        rows.stream()
+                .filter(row -> row.getCurrency() != null)
+                .forEach(row -> balances.put(row.getCurrency(), row.getBalance()));
 
         var accountsDto = Arrays.stream(Currency.values())
-                .map(currency -> {
-                    Optional<Account> account = customer.getAccounts() == null
-                            ? Optional.empty()
-                            : customer.getAccounts().stream()
-                                .filter(acc -> acc.getCurrency() == currency)
-                                .findFirst();
-                    return new AccountDto(
-                            currency,
-                            currency.name(),
-                            currency.getTitle(),
-                            account.map(Account::getBalance).orElse(BigDecimal.ZERO),
-                            account.isPresent()
-                    );
-                }).collect(Collectors.toList());
-
-        // Prepare users list for transfers etc.
-        var users = customerRepository.findAll().stream()
-                .map(user -> new UserShortDto(user.getLogin(), user.getName()))
-                .collect(Collectors.toList());
+                .map(currency -> new AccountDto(
+                        currency,
+                        currency.name(),
+                        currency.getTitle(),
+                        balances.getOrDefault(currency, BigDecimal.ZERO),
+                        balances.containsKey(currency)
+                )).collect(Collectors.toList());
+
+        // Prepare users list for transfers etc. (ограниченная первая страница, остальное через поиск)
+        var users = userDirectoryCache.firstPage();
 
         var currencies = Arrays.stream(Currency.values())
                 .map(currency -> new CurrencyDto(currency.name(), currency.getTitle()))
@@ -214,10 +269,15 @@ public class CustomerService {
                 null,
                 null,
                 null,
-                null
+                null,
+                customer.getId()
         );
     }
 
+    public UserDirectoryPage searchUsers(String query, int page, int size) {
+        return userDirectoryCache.page(query, Math.max(page, 0), Math.clamp(size, 1, MAX_DIRECTORY_PAGE_SIZE));
+    }
+
     // CRUD для профиля и счетов (методы edit)
     public List<String> editUserProfile(String login, EditUserAccountsRequest request) {
         List<String> errors = new ArrayList<>();
@@ -276,6 +336,7 @@ public class CustomerService {
         }
 
         customerRepository.save(customer);
+        invalidateDirectoryAfterCommit();
         return Collections.emptyList();
     }
 
@@ -301,14 +362,16 @@ public class CustomerService {
         return Collections.emptyList();
     }
 
+    @Transactional(readOnly = true)
     public CustomerDto getCustomerByLogin(String login) {
-        var customer = customerRepository.findByLogin(login)
-                .orElseThrow(() -> {
-                    // Track failed login attempts (user authenticated in Keycloak but not found in DB)
-                    meterRegistry.counter("customer_logins_total", "result", "failed").increment();
-                    log.warn("Failed login attempt: user {} authenticated in Keycloak but not found in customer database", login);
-                    return new CustomerNotFoundException("Customer not found: " + login);
-                });
+        var rows = customerRepository.findCustomerWithAccounts(login);
+        if (rows.isEmpty()) {
+            // Track failed login attempts (user authenticated in Keycloak but not found in DB)
+            meterRegistry.counter("customer_logins_total", "result", "failed").increment();
+            log.warn("Failed login attempt: user {} authenticated in Keycloak but not found in customer database", login);
+            throw new CustomerNotFoundException("Customer not found: " + login);
+        }
+        var customer = rows.get(0);
 
         return new CustomerDto(
                 customer.getId(),
@@ -316,12 +379,13 @@ public class CustomerService {
                 customer.getName(),
                 customer.getEmail(),
                 customer.getBirthdate(),
-                customer.getAccounts().stream()
-                        .map(account -> new AccountDto(
-                                account.getCurrency(),
-                                account.getCurrency().getCode(),
-                                account.getCurrency().getTitle(),
-                                account.getBalance(),
+                rows.stream()
+                        .filter(row -> row.getCurrency() != null)
+                        .map(row -> new AccountDto(
+                                row.getCurrency(),
+                                row.getCurrency().getCode(),
+                                row.getCurrency().getTitle(),
+                                row.getBalance(),
                                 true
                         ))
                         .toList()
@@ -342,4 +406,101 @@ public class CustomerService {
 
         log.info("Account balance updated successfully for user {}: {} = {}", login, currency, newBalance);
     }
+
+    /**
+     * Изменение баланса на знаковую дельту одним условным UPDATE (без предварительного чтения).
+     * Неизвестная валюта и пустая дельта - ошибки валидации в ответе, а не исключение.
+     */
+    @Transactional
+    public BalanceChangeResponse changeAccountBalance(String login, String currency, BigDecimal delta) {
+        List<String> errors = new ArrayList<>();
+        // null дошел бы до UPDATE и вернулся бы как "Insufficient funds"
+        if (delta == null || delta.signum() == 0) {
+            errors.add("Balance change amount must be non-zero");
+        }
+        var accountCurrency = parseCurrency(currency, errors);
+        if (!errors.isEmpty()) {
+            log.warn("Balance change for user {} rejected: {}", login, errors);
+            return new BalanceChangeResponse(false, null, null, null, errors);
+        }
+
+        var updated = accountRepository.applyDelta(login, accountCurrency.name(), delta);
+        if (updated.isPresent()) {
+            var view = updated.get();
+            log.info("Account balance changed for user {}: {} {} -> {}", login, currency, delta, view.getBalance());
+            return new BalanceChangeResponse(true, view.getCustomerId(), view.getEmail(), view.getBalance(), List.of());
+        }
+
+        // Медленный путь только для отказов: различаем отсутствие счета и нехватку средств
+        return accountRepository.findByCustomer_LoginAndCurrency(login, accountCurrency)
+                .map(account -> new BalanceChangeResponse(false, null, null, account.getBalance(),
+                        List.of("Insufficient funds")))
+                .orElseGet(() -> new BalanceChangeResponse(false, null, null, null,
+                        List.of("Account with currency " + currency + " not found for user " + login)));
+    }
+
+    /**
+     * Перевод между счетами в одной транзакции: два условных UPDATE вместо read-modify-write.
+     * Строки обновляются в детерминированном порядке (login:currency), чтобы встречные
+     * переводы A->B и B->A не взаимоблокировались.
+     */
+    @Transactional
+    public List<String> transferBalance(AccountTransferRequest request) {
+        List<String> errors = new ArrayList<>();
+        // отрицательная сумма прошла бы проверку balance >= :amount и пополнила бы отправителя
+        if (!isPositive(request.debitAmount()) || !isPositive(request.creditAmount())) {
+            errors.add("Transfer amount must be positive");
+        }
+        var fromCurrency = parseCurrency(request.fromCurrency(), errors);
+        var toCurrency = parseCurrency(request.toCurrency(), errors);
+        if (!errors.isEmpty()) {
+            log.warn("Transfer from {} to {} rejected: {}", request.fromLogin(), request.toLogin(), errors);
+            return errors;
+        }
+
+        var fromKey = request.fromLogin() + ":" + fromCurrency;
+        var toKey = request.toLogin() + ":" + toCurrency;
+
+        if (fromKey.compareTo(toKey) <= 0) {
+            debit(request.fromLogin(), fromCurrency, request.debitAmount());
+            credit(request.toLogin(), toCurrency, request.creditAmount());
+        } else {
+            credit(request.toLogin(), toCurrency, request.creditAmount());
+            debit(request.fromLogin(), fromCurrency, request.debitAmount());
+        }
+
+        log.info("Transfer completed: {} {} {} -> {} {} {}",
+                request.fromLogin(), request.debitAmount(), fromCurrency,
+                request.toLogin(), request.creditAmount(), toCurrency);
+        return List.of();
+    }
+
+    private static boolean isPositive(BigDecimal amount) {
+        return amount != null && amount.signum() > 0;
+    }
+
+    /** Регистр не важен: cash-service проверяет валюту так же */
+    private static Currency parseCurrency(String currency, List<String> errors) {
+        try {
+            return Currency.valueOf(currency.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            errors.add("Unknown currency: " + currency);
+            return null;
+        }
+    }
+
+    private void debit(String login, Currency currency, BigDecimal amount) {
+        if (accountRepository.debit(login, currency, amount) == 0) {
+            if (!accountRepository.existsByCustomer_LoginAndCurrency(login, currency)) {
+                throw new AccountNotFoundException("Account with currency " + currency + " not found for user " + login);
+            }
+            throw new InsufficientFundsException("Insufficient funds");
+        }
+    }
+
+    private void credit(String login, Currency currency, BigDecimal amount) {
+        if (accountRepository.credit(login, currency, amount) == 0) {
+            throw new AccountNotFoundException("Account with currency " + currency + " not found for user " + login);
+        }
+    }
 }
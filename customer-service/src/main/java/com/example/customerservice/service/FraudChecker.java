@@ -0,0 +1,24 @@
+package com.example.customerservice.service;
+
+import com.example.clients.fraud.FraudClient;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.github.resilience4j.retry.annotation.Retry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Проверка клиента во fraud-service. Отдельный бин, чтобы повторы и circuit breaker
+ * оборачивали только удаленный вызов, а не транзакции регистрации вокруг него.
+ */
+@Component
+@RequiredArgsConstructor
+public class FraudChecker {
+
+    private final FraudClient fraudClient;
+
+    @CircuitBreaker(name = "fraudCheckService")
+    @Retry(name = "fraudCheckService")
+    public boolean isFraudster(Integer customerId) {
+        return fraudClient.isFraudster(customerId).isFraudster();
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.customerservice.service;
+
+import com.example.clients.notification.NotificationRequest;
+import com.example.customerservice.model.OutboxMessage;
+import com.example.customerservice.repository.OutboxMessageRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Постановка уведомления в outbox. Вызывается внутри транзакции бизнес-операции
+ * (или открывает свою), поэтому запрос пользователя не ждет Kafka.
+ */
+@Service
+@RequiredArgsConstructor
+public class NotificationOutbox {
+
+    private final OutboxMessageRepository outboxMessageRepository;
+
+    @Transactional
+    public void enqueue(String topic, String key, NotificationRequest notification) {
+        outboxMessageRepository.save(OutboxMessage.builder()
+                .topic(topic)
+                .msgKey(key)
+                .toCustomerId(notification.toCustomerId())
+                .toCustomerName(notification.toCustomerName())
+                .message(notification.message())
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.customerservice.service;
+
+import com.example.clients.notification.NotificationRequest;
+import com.example.customerservice.model.OutboxMessage;
+import com.example.customerservice.repository.OutboxMessageRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фоновая отправка outbox в Kafka пачками. Строки удаляются в той же транзакции
+ * только после подтверждения всей пачки брокером; при ошибке транзакция откатывается
+ * и пачка уйдет повторно (at-least-once).
+ */
+@Component
+@Slf4j
+public class NotificationOutboxRelay {
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final KafkaTemplate<String, NotificationRequest> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long sendTimeoutMillis;
+
+    public NotificationOutboxRelay(
+            OutboxMessageRepository outboxMessageRepository,
+            KafkaTemplate<String, NotificationRequest> kafkaTemplate,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${customer.outbox.batch-size:100}") int batchSize,
+            @Value("${customer.outbox.send-timeout:10s}") Duration sendTimeout) {
+        this.outboxMessageRepository = outboxMessageRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.sendTimeoutMillis = sendTimeout.toMillis();
+
+        Gauge.builder("customer_outbox_pending", outboxMessageRepository, OutboxMessageRepository::estimatePending)
+                .description("Notifications waiting in the outbox (estimate from table statistics)")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${customer.outbox.poll-interval:200}")
+    public void relay() {
+        try {
+            Integer sent;
+            do {
+                sent = transactionTemplate.execute(status -> publishBatch());
+            } while (sent != null && sent == batchSize);
+        } catch (Exception e) {
+            log.warn("Outbox relay failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    private int publishBatch() {
+        var batch = outboxMessageRepository.lockBatch(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        var futures = batch.stream()
+                .map(this::send)
+                .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(futures).get(sendTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException("Kafka did not acknowledge outbox batch", e);
+        }
+        outboxMessageRepository.deleteAllInBatch(batch);
+        log.debug("Relayed {} notifications from outbox", batch.size());
+        return batch.size();
+    }
+
+    private CompletableFuture<?> send(OutboxMessage message) {
+        return kafkaTemplate.send(message.getTopic(), message.getMsgKey(), new NotificationRequest(
+                message.getToCustomerId(), message.getToCustomerName(), message.getMessage()));
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.customerservice.service;
+
+import com.example.clients.customer.UserDirectoryPage;
+import com.example.clients.customer.UserShortDto;
+import com.example.customerservice.repository.CustomerRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ограниченный кэш начала справочника пользователей (login + name).
+ * Сбрасывается при регистрации/изменении профиля, а TTL нужен, чтобы
+ * остальные реплики customer-service тоже увидели изменения.
+ */
+@Component
+@Slf4j
+public class UserDirectoryCache {
+
+    private final CustomerRepository customerRepository;
+    private final int cacheSize;
+    private final long ttlNanos;
+
+    private volatile Snapshot snapshot;
+    // invalidate() во время загрузки не должен потеряться: снимок старого поколения не используется
+    private final AtomicLong generation = new AtomicLong();
+
+    private record Snapshot(List<UserShortDto> users, long loadedAtNanos, long generation) {}
+
+    public UserDirectoryCache(
+            CustomerRepository customerRepository,
+            @Value("${customer.directory.cache-size:100}") int cacheSize,
+            @Value("${customer.directory.ttl:30s}") Duration ttl) {
+        this.customerRepository = customerRepository;
+        this.cacheSize = cacheSize;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /** Первые cacheSize пользователей, отсортированные по логину */
+    public List<UserShortDto> firstPage() {
+        return current().users();
+    }
+
+    /**
+     * Страница справочника; из кэша, если она целиком в него попадает,
+     * иначе из БД через Slice (без count-запроса).
+     */
+    public UserDirectoryPage page(String query, int page, int size) {
+        size = Math.max(size, 1);
+        // page * size + size не должно переполнять int
+        page = Math.clamp(page, 0, Integer.MAX_VALUE / size - 1);
+        if (query == null || query.isBlank()) {
+            var users = current().users();
+            int from = page * size;
+            int to = from + size;
+            boolean wholeDirectoryCached = users.size() < cacheSize;
+            if (to < users.size() || (wholeDirectoryCached && from <= users.size())) {
+                return new UserDirectoryPage(
+                        users.subList(from, Math.min(to, users.size())), page, size, to < users.size());
+            }
+        }
+        var slice = customerRepository.searchUserDirectory(
+                query == null ? "" : escapeLike(query.trim()), PageRequest.of(page, size));
+        return new UserDirectoryPage(slice.getContent(), page, size, slice.hasNext());
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+        log.debug("User directory cache invalidated");
+    }
+
+    private Snapshot current() {
+        var s = snapshot;
+        long currentGeneration = generation.get();
+        if (s == null || s.generation() != currentGeneration || System.nanoTime() - s.loadedAtNanos() > ttlNanos) {
+            s = new Snapshot(
+                    List.copyOf(customerRepository.findUserDirectory(PageRequest.of(0, cacheSize))),
+                    System.nanoTime(),
+                    currentGeneration);
+            snapshot = s;
+            log.debug("User directory cache reloaded: {} entries", s.users().size());
+        }
+        return s;
+    }
+
+    /** Символы шаблона LIKE в поисковой строке ищутся буквально */
+    static String escapeLike(String query) {
+        return query.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -1,9 +1,12 @@
 package com.example.customerservice.controller;
 
+import com.example.clients.customer.AccountTransferRequest;
+import com.example.clients.customer.BalanceChangeResponse;
 import com.example.clients.customer.CustomerRegistrationRequest;
 import com.example.clients.customer.CustomerRegistrationResponse;
 import com.example.clients.customer.MainPageData;
 import com.example.customerservice.config.SecurityConfig;
+import com.example.customerservice.exception.InsufficientFundsException;
 import com.example.customerservice.service.CustomerService;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.BeforeEach;
@@ -29,6 +32,7 @@ import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
@@ -129,6 +133,39 @@ class CustomerControllerTest {
         verify(customerService).updateAccountBalance(TEST_USERNAME, "USD", newBalance);
     }
 
+    @Test
+    @DisplayName("POST /api/v1/customers/{login}/accounts/{currency}/balance/delta returns new balance")
+    void changeAccountBalance_returnsNewBalance() throws Exception {
+        var delta = BigDecimal.valueOf(-100);
+        when(customerService.changeAccountBalance(TEST_USERNAME, "USD", delta))
+                .thenReturn(new BalanceChangeResponse(true, 1, TEST_EMAIL, BigDecimal.valueOf(400), List.of()));
+
+        mockMvc.perform(post("/api/v1/customers/" + TEST_USERNAME + "/accounts/USD/balance/delta")
+                        .with(jwt().jwt(jwt -> jwt.claim("preferred_username", TEST_USERNAME)))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(delta)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.balance").value(400));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/customers/accounts/transfer returns rejection reason")
+    void transferBalance_insufficientFunds() throws Exception {
+        var req = new AccountTransferRequest(
+                TEST_USERNAME, "RUB", BigDecimal.TEN, "bob", "RUB", BigDecimal.TEN
+        );
+        doThrow(new InsufficientFundsException("Insufficient funds"))
+                .when(customerService).transferBalance(req);
+
+        mockMvc.perform(post("/api/v1/customers/accounts/transfer")
+                        .with(jwt().jwt(jwt -> jwt.claim("preferred_username", TEST_USERNAME)))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(req)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]").value("Insufficient funds"));
+    }
+
     // утилитный метод для создания тестовых MainPageData
     private MainPageData createTestMainPageData(String login, String name, String email) {
         return new MainPageData(
@@ -143,7 +180,8 @@ class CustomerControllerTest {
                 List.of(),
                 List.of(),
                 List.of(),
-                List.of()
+                List.of(),
+                1
         );
     }
 }
\ No newline at end of file
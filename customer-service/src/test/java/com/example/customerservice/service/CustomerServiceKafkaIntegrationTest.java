@@ -18,6 +18,7 @@ import org.springframework.kafka.test.context.EmbeddedKafka;
 import org.springframework.kafka.test.utils.ContainerTestUtils;
 import org.springframework.kafka.test.utils.KafkaTestUtils;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
 
 import java.time.LocalDate;
 import java.util.Map;
@@ -28,7 +29,10 @@ import java.util.concurrent.TimeUnit;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 
 @EmbeddedKafka(partitions = 1, brokerProperties = { "listeners=PLAINTEXT://localhost:9092", "port=9092" })
@@ -48,6 +52,9 @@ class CustomerServiceKafkaIntegrationTest extends AbstractIntegrationTest {
     @MockitoBean
     private FraudClient fraudClient;
 
+    @MockitoSpyBean
+    private NotificationOutbox notificationOutbox;
+
     private BlockingQueue<ConsumerRecord<String, String>> consumerRecords;
 
     @BeforeEach
@@ -82,4 +89,18 @@ class CustomerServiceKafkaIntegrationTest extends AbstractIntegrationTest {
         assertEquals(NOTIFICATION_TOPIC, received.topic());
         assertThat(received.value()).contains("Hi John Doe, welcome to Bank-system...");
     }
+
+    @Test
+    void registerCustomer_outboxFailureRollsBackCustomer() {
+        var request = new CustomerRegistrationRequest(
+                "jane.doe", "password123", "password123", "Jane Doe", "jane.doe@example.com", LocalDate.of(1990, 1, 1)
+        );
+        doThrow(new IllegalStateException("outbox is down"))
+                .when(notificationOutbox).enqueue(anyString(), anyString(), any());
+
+        var response = customerService.registerCustomer(request);
+
+        assertThat(response.success()).isFalse();
+        assertThat(customerRepository.findByLogin("jane.doe")).isEmpty();
+    }
 }
@@ -1,30 +1,36 @@
 package com.example.customerservice.service;
 
+import com.example.clients.customer.AccountDto;
+import com.example.clients.customer.AccountTransferRequest;
 import com.example.clients.customer.Currency;
 import com.example.clients.customer.CustomerRegistrationRequest;
 import com.example.clients.customer.EditPasswordRequest;
-import com.example.clients.fraud.FraudCheckResponse;
-import com.example.clients.fraud.FraudClient;
+import com.example.clients.customer.UserShortDto;
 import com.example.clients.notification.NotificationRequest;
 import com.example.customerservice.exception.AccountNotFoundException;
 import com.example.customerservice.exception.CustomerNotFoundException;
+import com.example.customerservice.exception.InsufficientFundsException;
 import com.example.customerservice.model.Account;
 import com.example.customerservice.model.Customer;
+import com.example.customerservice.repository.AccountBalanceView;
 import com.example.customerservice.repository.AccountRepository;
+import com.example.customerservice.repository.CustomerAccountView;
 import com.example.customerservice.repository.CustomerRepository;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.junit.jupiter.api.BeforeEach;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.security.crypto.bcrypt.BCrypt;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -34,12 +40,17 @@ import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 
 @ExtendWith(MockitoExtension.class)
 @MockitoSettings(strictness = Strictness.LENIENT)
@@ -50,17 +61,22 @@ class CustomerServiceTest {
     @Mock
     private AccountRepository accountRepository;
     @Mock
-    private FraudClient fraudClient;
+    private FraudChecker fraudChecker;
     @Mock
-    private KafkaTemplate<String, NotificationRequest> kafkaTemplate;
+    private NotificationOutbox notificationOutbox;
     @Mock
     private MeterRegistry meterRegistry;
+    @Mock
+    private UserDirectoryCache userDirectoryCache;
+    @Mock
+    private PlatformTransactionManager transactionManager;
 
-    @InjectMocks
     private CustomerService customerService;
 
     @BeforeEach
     void setUp() {
+        customerService = new CustomerService(customerRepository, accountRepository, fraudChecker, notificationOutbox,
+                meterRegistry, userDirectoryCache, new TransactionTemplate(transactionManager));
         ReflectionTestUtils.setField(customerService, "customerNotificationTopic", "customer-notification");
 
         var mockCounter = mock(Counter.class);
@@ -76,7 +92,7 @@ class CustomerServiceTest {
 
         when(customerRepository.existsByLogin("login1")).thenReturn(false);
         when(customerRepository.existsByEmail("john@example.com")).thenReturn(false);
-        when(fraudClient.isFraudster(anyInt())).thenReturn(new FraudCheckResponse(false));
+        when(fraudChecker.isFraudster(anyInt())).thenReturn(false);
 
         var savedCustomer = Customer.builder()
                 .id(123)
@@ -96,9 +112,141 @@ class CustomerServiceTest {
         var result = customerService.registerCustomer(req);
 
         assertTrue(result.success());
-        verify(kafkaTemplate).send(eq("customer-notification"), any(NotificationRequest.class));
+        verify(notificationOutbox).enqueue(eq("customer-notification"), eq("123"), any(NotificationRequest.class));
 
         verify(meterRegistry).counter("customer_registrations_total");
+        verify(userDirectoryCache).invalidate();
+    }
+
+    @Test
+    void registerCustomer_invalidatesDirectoryOnlyAfterCommit() {
+        var req = new CustomerRegistrationRequest(
+                "login1", "pass", "pass", "John Doe", "john@example.com", LocalDate.of(2000, 1, 1)
+        );
+        when(fraudChecker.isFraudster(anyInt())).thenReturn(false);
+        when(customerRepository.saveAndFlush(any())).thenAnswer(invocation -> {
+            Customer c = invocation.getArgument(0);
+            c.setId(123);
+            return c;
+        });
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            customerService.registerCustomer(req);
+            verify(userDirectoryCache, never()).invalidate();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(userDirectoryCache).invalidate();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void registerCustomer_checksFraudBetweenShortTransactions() {
+        var req = new CustomerRegistrationRequest(
+                "login1", "pass", "pass", "John Doe", "john@example.com", LocalDate.of(2000, 1, 1)
+        );
+        when(fraudChecker.isFraudster(anyInt())).thenReturn(false);
+        when(customerRepository.saveAndFlush(any())).thenAnswer(invocation -> {
+            Customer c = invocation.getArgument(0);
+            c.setId(123);
+            return c;
+        });
+
+        customerService.registerCustomer(req);
+
+        // удаленный вызов - вне транзакции: первая закоммичена до него, вторая открыта после
+        var inOrder = inOrder(transactionManager, customerRepository, fraudChecker, notificationOutbox);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(customerRepository).saveAndFlush(any());
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(fraudChecker).isFraudster(123);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(notificationOutbox).enqueue(eq("customer-notification"), eq("123"), any());
+        inOrder.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void registerCustomer_fraudServiceUnavailableRemovesCustomer() {
+        var req = new CustomerRegistrationRequest(
+                "login1", "pass", "pass", "John Doe", "john@example.com", LocalDate.of(2000, 1, 1)
+        );
+        when(fraudChecker.isFraudster(anyInt())).thenThrow(new IllegalStateException("fraud-service timeout"));
+        when(customerRepository.saveAndFlush(any())).thenAnswer(invocation -> {
+            Customer c = invocation.getArgument(0);
+            c.setId(123);
+            return c;
+        });
+
+        var response = customerService.registerCustomer(req);
+
+        assertFalse(response.success());
+        assertThat(response.errors()).containsExactly("Fraud service unavailable. Please try again later.");
+        verify(customerRepository).delete(any());
+        verifyNoInteractions(notificationOutbox);
+    }
+
+    @Test
+    void registerCustomer_outboxFailureRemovesCustomer() {
+        var req = new CustomerRegistrationRequest(
+                "login1", "pass", "pass", "John Doe", "john@example.com", LocalDate.of(2000, 1, 1)
+        );
+        when(fraudChecker.isFraudster(anyInt())).thenReturn(false);
+        when(customerRepository.saveAndFlush(any())).thenAnswer(invocation -> {
+            Customer c = invocation.getArgument(0);
+            c.setId(123);
+            return c;
+        });
+        doThrow(new IllegalStateException("outbox is down"))
+                .when(notificationOutbox).enqueue(anyString(), anyString(), any());
+
+        var response = customerService.registerCustomer(req);
+
+        assertFalse(response.success());
+        verify(customerRepository).delete(any());
+        verify(meterRegistry, never()).counter("customer_registrations_total");
+    }
+
+    @Test
+    void getMainData_usesDirectoryCache() {
+        var row = accountRow(1, "alice", Currency.USD, BigDecimal.TEN);
+        when(customerRepository.findCustomerWithAccounts("alice")).thenReturn(List.of(row));
+        when(userDirectoryCache.firstPage()).thenReturn(List.of(new UserShortDto("bob", "Bob")));
+
+        var data = customerService.getMainData("alice");
+
+        assertThat(data.users()).containsExactly(new UserShortDto("bob", "Bob"));
+        assertThat(data.accounts())
+                .filteredOn(AccountDto::exists)
+                .extracting(AccountDto::currency, AccountDto::balance)
+                .containsExactly(tuple(Currency.USD, BigDecimal.TEN));
+        verify(customerRepository, never()).findAll();
+    }
+
+    @Test
+    void getCustomerByLogin() {
+        var rows = List.of(
+                accountRow(1, "alice", Currency.RUB, BigDecimal.ONE),
+                accountRow(1, "alice", Currency.CNY, BigDecimal.TEN));
+        when(customerRepository.findCustomerWithAccounts("alice")).thenReturn(rows);
+
+        var dto = customerService.getCustomerByLogin("alice");
+
+        assertThat(dto.id()).isEqualTo(1);
+        assertThat(dto.accounts()).extracting(AccountDto::currency)
+                .containsExactly(Currency.RUB, Currency.CNY);
+        verify(customerRepository, never()).findByLogin(any());
+    }
+
+    private static CustomerAccountView accountRow(int id, String login, Currency currency, BigDecimal balance) {
+        var row = mock(CustomerAccountView.class);
+        when(row.getId()).thenReturn(id);
+        when(row.getLogin()).thenReturn(login);
+        when(row.getName()).thenReturn("Name " + login);
+        when(row.getCurrency()).thenReturn(currency);
+        when(row.getBalance()).thenReturn(balance);
+        return row;
     }
 
     @Test
@@ -120,7 +268,7 @@ class CustomerServiceTest {
 
         when(customerRepository.existsByLogin("login2")).thenReturn(false);
         when(customerRepository.existsByEmail("evil@example.com")).thenReturn(false);
-        when(fraudClient.isFraudster(anyInt())).thenReturn(new FraudCheckResponse(true));
+        when(fraudChecker.isFraudster(anyInt())).thenReturn(true);
 
         var customer = Customer.builder().login("login2").email("evil@example.com").build();
         when(customerRepository.saveAndFlush(any())).thenAnswer(invocation -> {
@@ -167,9 +315,131 @@ class CustomerServiceTest {
                 .isInstanceOf(AccountNotFoundException.class);
     }
 
+    @Test
+    void changeAccountBalance() {
+        var view = mock(AccountBalanceView.class);
+        when(view.getBalance()).thenReturn(BigDecimal.valueOf(150));
+        when(view.getCustomerId()).thenReturn(7);
+        when(view.getEmail()).thenReturn("bob@example.com");
+        when(accountRepository.applyDelta("bob", "RUB", BigDecimal.valueOf(50))).thenReturn(Optional.of(view));
+
+        var result = customerService.changeAccountBalance("bob", "RUB", BigDecimal.valueOf(50));
+
+        assertTrue(result.success());
+        assertThat(result.balance()).isEqualTo(BigDecimal.valueOf(150));
+        assertThat(result.customerId()).isEqualTo(7);
+        verify(customerRepository, never()).findByLogin(any());
+    }
+
+    @Test
+    void changeAccountBalance_insufficientFunds() {
+        var account = Account.builder().currency(Currency.RUB).balance(BigDecimal.valueOf(30)).build();
+        when(accountRepository.applyDelta("bob", "RUB", BigDecimal.valueOf(-50))).thenReturn(Optional.empty());
+        when(accountRepository.findByCustomer_LoginAndCurrency("bob", Currency.RUB)).thenReturn(Optional.of(account));
+
+        var result = customerService.changeAccountBalance("bob", "RUB", BigDecimal.valueOf(-50));
+
+        assertFalse(result.success());
+        assertThat(result.balance()).isEqualTo(BigDecimal.valueOf(30));
+        assertThat(result.errors()).containsExactly("Insufficient funds");
+    }
+
+    @Test
+    void changeAccountBalance_accountNotFound() {
+        when(accountRepository.applyDelta("bob", "USD", BigDecimal.TEN)).thenReturn(Optional.empty());
+        when(accountRepository.findByCustomer_LoginAndCurrency("bob", Currency.USD)).thenReturn(Optional.empty());
+
+        var result = customerService.changeAccountBalance("bob", "USD", BigDecimal.TEN);
+
+        assertFalse(result.success());
+        assertThat(result.balance()).isNull();
+    }
+
+    @Test
+    void changeAccountBalance_acceptsLowercaseCurrency() {
+        var view = mock(AccountBalanceView.class);
+        when(view.getBalance()).thenReturn(BigDecimal.valueOf(150));
+        when(accountRepository.applyDelta("bob", "RUB", BigDecimal.valueOf(50))).thenReturn(Optional.of(view));
+
+        var result = customerService.changeAccountBalance("bob", "rub", BigDecimal.valueOf(50));
+
+        assertTrue(result.success());
+    }
+
+    @Test
+    void changeAccountBalance_rejectsUnknownCurrency() {
+        var result = customerService.changeAccountBalance("bob", "XYZ", BigDecimal.TEN);
+
+        assertFalse(result.success());
+        assertThat(result.errors()).containsExactly("Unknown currency: XYZ");
+        verifyNoInteractions(accountRepository);
+    }
+
+    @Test
+    void changeAccountBalance_rejectsMissingOrZeroDelta() {
+        assertThat(customerService.changeAccountBalance("bob", "RUB", null).errors())
+                .containsExactly("Balance change amount must be non-zero");
+        assertThat(customerService.changeAccountBalance("bob", "RUB", BigDecimal.ZERO).errors())
+                .containsExactly("Balance change amount must be non-zero");
+        verifyNoInteractions(accountRepository);
+    }
+
+    @Test
+    void transferBalance() {
+        when(accountRepository.debit("alice", Currency.RUB, BigDecimal.valueOf(100))).thenReturn(1);
+        when(accountRepository.credit("bob", Currency.USD, BigDecimal.ONE)).thenReturn(1);
+
+        var errors = customerService.transferBalance(new AccountTransferRequest(
+                "alice", "RUB", BigDecimal.valueOf(100), "bob", "USD", BigDecimal.ONE));
+
+        assertThat(errors).isEmpty();
+
+        verify(accountRepository).debit("alice", Currency.RUB, BigDecimal.valueOf(100));
+        verify(accountRepository).credit("bob", Currency.USD, BigDecimal.ONE);
+    }
+
+    @Test
+    void transferBalance_insufficientFunds() {
+        when(accountRepository.debit("alice", Currency.RUB, BigDecimal.TEN)).thenReturn(0);
+        when(accountRepository.existsByCustomer_LoginAndCurrency("alice", Currency.RUB)).thenReturn(true);
+
+        assertThatThrownBy(() -> customerService.transferBalance(new AccountTransferRequest(
+                "alice", "RUB", BigDecimal.TEN, "bob", "RUB", BigDecimal.TEN)))
+                .isInstanceOf(InsufficientFundsException.class);
+        verify(accountRepository, never()).credit(any(), any(), any());
+    }
+
+    @Test
+    void transferBalance_destinationAccountNotFound() {
+        when(accountRepository.debit("alice", Currency.RUB, BigDecimal.TEN)).thenReturn(1);
+        when(accountRepository.credit("bob", Currency.RUB, BigDecimal.TEN)).thenReturn(0);
+
+        assertThatThrownBy(() -> customerService.transferBalance(new AccountTransferRequest(
+                "alice", "RUB", BigDecimal.TEN, "bob", "RUB", BigDecimal.TEN)))
+                .isInstanceOf(AccountNotFoundException.class);
+    }
+
+    @Test
+    void transferBalance_rejectsNonPositiveAmounts() {
+        var errors = customerService.transferBalance(new AccountTransferRequest(
+                "alice", "RUB", BigDecimal.valueOf(-100), "bob", "RUB", BigDecimal.ZERO));
+
+        assertThat(errors).containsExactly("Transfer amount must be positive");
+        verifyNoInteractions(accountRepository);
+    }
+
+    @Test
+    void transferBalance_rejectsUnknownCurrency() {
+        var errors = customerService.transferBalance(new AccountTransferRequest(
+                "alice", "XYZ", BigDecimal.TEN, "bob", null, BigDecimal.TEN));
+
+        assertThat(errors).containsExactly("Unknown currency: XYZ", "Unknown currency: null");
+        verifyNoInteractions(accountRepository);
+    }
+
     @Test
     void getCustomerByLogin_notFound() {
-        when(customerRepository.findByLogin("unknown")).thenReturn(Optional.empty());
+        when(customerRepository.findCustomerWithAccounts("unknown")).thenReturn(List.of());
 
         assertThatThrownBy(() -> customerService.getCustomerByLogin("unknown"))
                 .isInstanceOf(CustomerNotFoundException.class);
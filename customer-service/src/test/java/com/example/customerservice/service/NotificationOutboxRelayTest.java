@@ -0,0 +1,98 @@
+package com.example.customerservice.service;
+
+import com.example.clients.notification.NotificationRequest;
+import com.example.customerservice.model.OutboxMessage;
+import com.example.customerservice.repository.OutboxMessageRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class NotificationOutboxRelayTest {
+
+    @Mock
+    private OutboxMessageRepository outboxMessageRepository;
+    @Mock
+    private KafkaTemplate<String, NotificationRequest> kafkaTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private NotificationOutboxRelay underTest;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        underTest = new NotificationOutboxRelay(outboxMessageRepository, kafkaTemplate,
+                new TransactionTemplate(transactionManager), new SimpleMeterRegistry(), 10, Duration.ofSeconds(1));
+    }
+
+    private static OutboxMessage message(long id) {
+        return OutboxMessage.builder()
+                .id(id)
+                .topic("customer-notification")
+                .msgKey("7")
+                .toCustomerId(7)
+                .toCustomerName("john@example.com")
+                .message("Hi John")
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    void relay_sendsBatchAndDeletesAfterAck() {
+        var batch = List.of(message(1), message(2));
+        CompletableFuture<SendResult<String, NotificationRequest>> acked = CompletableFuture.completedFuture(null);
+        when(outboxMessageRepository.lockBatch(10)).thenReturn(batch);
+        when(kafkaTemplate.send(anyString(), anyString(), any(NotificationRequest.class))).thenReturn(acked);
+
+        underTest.relay();
+
+        verify(kafkaTemplate, times(2)).send("customer-notification", "7",
+                new NotificationRequest(7, "john@example.com", "Hi John"));
+        verify(outboxMessageRepository).deleteAllInBatch(batch);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void relay_keepsMessagesWhenKafkaFails() {
+        var batch = List.of(message(1));
+        CompletableFuture<SendResult<String, NotificationRequest>> failed =
+                CompletableFuture.failedFuture(new RuntimeException("broker down"));
+        when(outboxMessageRepository.lockBatch(10)).thenReturn(batch);
+        when(kafkaTemplate.send(anyString(), anyString(), any(NotificationRequest.class))).thenReturn(failed);
+
+        underTest.relay();
+
+        verify(outboxMessageRepository, never()).deleteAllInBatch(any());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void relay_emptyOutboxDoesNothing() {
+        when(outboxMessageRepository.lockBatch(anyInt())).thenReturn(List.of());
+
+        underTest.relay();
+
+        verifyNoInteractions(kafkaTemplate);
+    }
+}
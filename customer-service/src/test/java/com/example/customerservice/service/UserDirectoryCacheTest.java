@@ -0,0 +1,114 @@
+package com.example.customerservice.service;
+
+import com.example.clients.customer.UserShortDto;
+import com.example.customerservice.repository.CustomerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserDirectoryCacheTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    private UserDirectoryCache underTest;
+
+    private final List<UserShortDto> users = List.of(
+            new UserShortDto("alice", "Alice"),
+            new UserShortDto("bob", "Bob"),
+            new UserShortDto("carol", "Carol")
+    );
+
+    @BeforeEach
+    void setUp() {
+        underTest = new UserDirectoryCache(customerRepository, 10, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void firstPage_loadedOnceUntilInvalidated() {
+        when(customerRepository.findUserDirectory(PageRequest.of(0, 10))).thenReturn(users);
+
+        assertThat(underTest.firstPage()).isEqualTo(users);
+        assertThat(underTest.firstPage()).isEqualTo(users);
+        verify(customerRepository, times(1)).findUserDirectory(any(Pageable.class));
+
+        underTest.invalidate();
+        underTest.firstPage();
+        verify(customerRepository, times(2)).findUserDirectory(any(Pageable.class));
+    }
+
+    @Test
+    void page_servedFromCacheWhenWholeDirectoryFits() {
+        when(customerRepository.findUserDirectory(PageRequest.of(0, 10))).thenReturn(users);
+
+        var page = underTest.page("", 0, 2);
+
+        assertThat(page.users()).extracting(UserShortDto::login).containsExactly("alice", "bob");
+        assertThat(page.hasNext()).isTrue();
+        verify(customerRepository, never()).searchUserDirectory(anyString(), any());
+    }
+
+    @Test
+    void page_searchGoesToDatabase() {
+        when(customerRepository.searchUserDirectory(eq("bo"), eq(PageRequest.of(0, 5))))
+                .thenReturn(new SliceImpl<>(List.of(new UserShortDto("bob", "Bob")), PageRequest.of(0, 5), false));
+
+        var page = underTest.page("bo", 0, 5);
+
+        assertThat(page.users()).containsExactly(new UserShortDto("bob", "Bob"));
+        assertThat(page.hasNext()).isFalse();
+        verify(customerRepository, never()).findUserDirectory(any());
+    }
+
+    @Test
+    void page_escapesLikeWildcards() {
+        when(customerRepository.searchUserDirectory(anyString(), any()))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 5), false));
+
+        underTest.page("100%_a\\b", 0, 5);
+
+        verify(customerRepository).searchUserDirectory("100\\%\\_a\\\\b", PageRequest.of(0, 5));
+    }
+
+    @Test
+    void page_hugePageNumberDoesNotOverflow() {
+        when(customerRepository.findUserDirectory(PageRequest.of(0, 10))).thenReturn(users);
+        when(customerRepository.searchUserDirectory(anyString(), any()))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 100), false));
+
+        var page = underTest.page("", Integer.MAX_VALUE, 100);
+
+        assertThat(page.users()).isEmpty();
+        assertThat(page.hasNext()).isFalse();
+    }
+
+    @Test
+    void invalidateDuringReload_snapshotIsNotReused() {
+        // invalidate() приходит, пока идет загрузка: загруженный снимок уже устарел
+        when(customerRepository.findUserDirectory(PageRequest.of(0, 10)))
+                .thenAnswer(invocation -> {
+                    underTest.invalidate();
+                    return users;
+                })
+                .thenReturn(users.subList(0, 1));
+
+        assertThat(underTest.firstPage()).isEqualTo(users);
+        assertThat(underTest.firstPage()).hasSize(1);
+        verify(customerRepository, times(2)).findUserDirectory(any(Pageable.class));
+    }
+}
@@ -1,10 +1,22 @@
 package com.example.exchange.controller;
 
+import com.example.clients.customer.Currency;
+import com.example.clients.exchange.ExchangeClient;
 import com.example.clients.exchange.ExchangeRateDto;
+import com.example.clients.exchange.RatePointDto;
 import com.example.exchange.service.ExchangeService;
+import com.example.exchange.service.RateHistoryService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -12,10 +24,62 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ExchangeController {
     private final ExchangeService exchangeService;
+    private final RateHistoryService rateHistoryService;
 
-    @GetMapping
-    public List<ExchangeRateDto> getRates() {
-        return exchangeService.getAllRates();
+    /**
+     * Отдаем заранее сериализованный снимок, без обращения к БД и Jackson на каждый запрос.
+     * If-None-Match с текущим ETag -> 304, since равен текущей версии -> 204 (Feign не считает его ошибкой).
+     * If-None-Match разбирается по RFC 9110: список тегов через запятую, слабое сравнение (W/"..." совпадает
+     * с "..."), "*" - любая версия. Версия - хэш содержимого, сравнивается только на равенство.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getRates(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestParam(value = "since", required = false) Long since) {
+        var snapshot = exchangeService.getSnapshot();
+
+        if (notModified(ifNoneMatch, snapshot.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(snapshot.etag())
+                    .build();
+        }
+        if (since != null && since == snapshot.version()) {
+            return ResponseEntity.noContent()
+                    .eTag(snapshot.etag())
+                    .header(ExchangeClient.RATES_VERSION_HEADER, String.valueOf(snapshot.version()))
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(snapshot.etag())
+                .header(ExchangeClient.RATES_VERSION_HEADER, String.valueOf(snapshot.version()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(snapshot.json());
+    }
+
+    private static boolean notModified(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        var current = ETag.create(etag);
+        // несколько заголовков If-None-Match Spring склеивает через запятую
+        return ETag.parse(ifNoneMatch).stream()
+                .anyMatch(tag -> tag.isWildcard() || tag.compare(current, false));
     }
-}
 
+    /** История курса за [from, to) с шагом step (ISO-8601, например PT5M) */
+    @GetMapping("/history")
+    public List<RatePointDto> getHistory(
+            @RequestParam("currency") Currency currency,
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "step", defaultValue = "PT1M") Duration step) {
+        return rateHistoryService.getHistory(currency, from, to, step);
+    }
+
+    /** Курсы, действовавшие на момент time */
+    @GetMapping("/at")
+    public List<ExchangeRateDto> getRatesAt(
+            @RequestParam("time") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime time) {
+        return rateHistoryService.getRatesAt(time);
+    }
+}
@@ -39,4 +39,17 @@ public class ExchangeRateKafkaConsumer {
         lastUpdateTimestamp.set(currentTimestamp);
         log.debug("Updated exchange rates timestamp to: {}", currentTimestamp);
     }
+
+    /**
+     * Снимок в памяти нужен каждому экземпляру, поэтому у этого слушателя своя группа на под,
+     * а запись в БД выше остается в общей группе (один писатель на обновление).
+     */
+    @KafkaListener(
+            topics = "exchange-rates",
+            groupId = "exchange-service-snapshot-${random.uuid}",
+            properties = "auto.offset.reset=latest"
+    )
+    public void refreshSnapshot(ConsumerRecord<String, ExchangeRequest> record) {
+        exchangeService.applyRates(record.value());
+    }
 }
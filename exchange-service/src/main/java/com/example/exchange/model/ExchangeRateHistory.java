@@ -0,0 +1,45 @@
+package com.example.exchange.model;
+
+import com.example.clients.customer.Currency;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Append-only история курсов: строка на валюту на каждое применённое обновление.
+ * Индекс (currency, recorded_at) покрывает и выборки по диапазону, и поиск курса на момент времени.
+ */
+@Entity
+@Table(
+        name = "exchange_rate_history",
+        indexes = @Index(name = "idx_rate_history_currency_time", columnList = "currency, recorded_at")
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExchangeRateHistory {
+    @Id
+    @SequenceGenerator(
+            name = "exchange_rate_history_id_sequence",
+            sequenceName = "exchange_rate_history_id_sequence",
+            allocationSize = 50
+    )
+    @GeneratedValue(
+            strategy = GenerationType.SEQUENCE,
+            generator = "exchange_rate_history_id_sequence"
+    )
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 3, nullable = false)
+    private Currency currency;
+
+    @Column(nullable = false)
+    private double value;
+
+    @Column(name = "recorded_at", nullable = false)
+    private LocalDateTime recordedAt;
+}
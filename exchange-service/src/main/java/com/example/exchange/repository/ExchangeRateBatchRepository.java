@@ -0,0 +1,14 @@
+package com.example.exchange.repository;
+
+import com.example.exchange.model.ExchangeRate;
+
+import java.util.List;
+
+public interface ExchangeRateBatchRepository {
+
+    /**
+     * Вставляет или обновляет курсы одной JDBC-пачкой по ключу currency.
+     * Строки не удаляются, поэтому читатели никогда не видят пустую таблицу.
+     */
+    void upsertAll(List<ExchangeRate> rates);
+}
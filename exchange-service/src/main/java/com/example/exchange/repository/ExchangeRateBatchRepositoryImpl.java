@@ -0,0 +1,29 @@
+package com.example.exchange.repository;
+
+import com.example.exchange.model.ExchangeRate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ExchangeRateBatchRepositoryImpl implements ExchangeRateBatchRepository {
+
+    private static final String UPSERT_SQL = """
+            insert into exchange_rates (currency, value) values (?, ?)
+            on conflict (currency) do update set value = excluded.value
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void upsertAll(List<ExchangeRate> rates) {
+        if (rates.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rates, rates.size(), (ps, rate) -> {
+            ps.setString(1, rate.getCurrency().name());
+            ps.setDouble(2, rate.getValue());
+        });
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.exchange.repository;
+
+import com.example.clients.customer.Currency;
+import com.example.exchange.model.ExchangeRateHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface ExchangeRateHistoryRepository extends JpaRepository<ExchangeRateHistory, Long> {
+
+    /**
+     * Курсы в интервалах по stepSeconds секунд. Агрегация на стороне БД,
+     * чтобы не тащить в сервис все сырые точки диапазона.
+     */
+    @Query(value = """
+            select to_timestamp(floor(extract(epoch from h.recorded_at) / :stepSeconds) * :stepSeconds)
+                       at time zone 'UTC' as "time",
+                   avg(h.value) as "avg",
+                   min(h.value) as "min",
+                   max(h.value) as "max"
+            from exchange_rate_history h
+            where h.currency = :currency
+              and h.recorded_at >= :from
+              and h.recorded_at < :to
+            group by 1
+            order by 1
+            """, nativeQuery = true)
+    List<RatePointView> findDownsampled(@Param("currency") String currency,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to,
+                                        @Param("stepSeconds") long stepSeconds);
+
+    /**
+     * Последнее известное значение валюты на момент at. Один seek по индексу
+     * (currency, recorded_at) вместо просмотра всей истории до at.
+     */
+    Optional<ExchangeRateHistory> findFirstByCurrencyAndRecordedAtLessThanEqualOrderByRecordedAtDesc(
+            Currency currency, LocalDateTime at);
+
+    /**
+     * Удаляет не больше batch строк валюты старше cutoff. Пачками, чтобы не держать
+     * длинную транзакцию и блокировки на всю просроченную историю сразу.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            delete from exchange_rate_history
+            where id in (select h.id
+                         from exchange_rate_history h
+                         where h.currency = :currency
+                           and h.recorded_at < :cutoff
+                         limit :batch)
+            """, nativeQuery = true)
+    int deleteOlderThan(@Param("currency") String currency,
+                        @Param("cutoff") LocalDateTime cutoff,
+                        @Param("batch") int batch);
+}
@@ -1,7 +1,8 @@
 package com.example.exchange.repository;
 
+import com.example.clients.customer.Currency;
 import com.example.exchange.model.ExchangeRate;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-public interface ExchangeRepository extends JpaRepository<ExchangeRate, Long> {
+public interface ExchangeRepository extends JpaRepository<ExchangeRate, Currency>, ExchangeRateBatchRepository {
 }
@@ -0,0 +1,10 @@
+package com.example.exchange.repository;
+
+import java.time.LocalDateTime;
+
+public interface RatePointView {
+    LocalDateTime getTime();
+    Double getAvg();
+    Double getMin();
+    Double getMax();
+}
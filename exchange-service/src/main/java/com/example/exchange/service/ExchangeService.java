@@ -2,17 +2,29 @@ package com.example.exchange.service;
 
 import com.example.clients.customer.Currency;
 import com.example.clients.exchange.ExchangeRateDto;
+import com.example.clients.exchange.ExchangeRateTable;
 import com.example.clients.exchange.ExchangeRequest;
 import com.example.exchange.mapper.ExchangeRateFromDTOConverter;
 import com.example.exchange.mapper.ExchangeRateToDTOConverter;
 import com.example.exchange.model.ExchangeRate;
 import com.example.exchange.repository.ExchangeRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import java.util.ArrayList;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Slf4j
 @Service
@@ -21,34 +33,98 @@ public class ExchangeService {
     private final ExchangeRepository repo;
     private final ExchangeRateToDTOConverter toDto;
     private final ExchangeRateFromDTOConverter fromDto;
+    private final ObjectMapper objectMapper;
+    private final RateHistoryService rateHistoryService;
+
+    // null - еще не загружен из БД
+    private final AtomicReference<RatesSnapshot> snapshot = new AtomicReference<>();
 
     /** GET /api/rates */
     public List<ExchangeRateDto> getAllRates() {
         log.debug("Fetching all exchange rates");
-        List<ExchangeRateDto> out = new ArrayList<>();
-        // базовый рубль
-        out.add(new ExchangeRateDto(
-                Currency.RUB.getTitle(),
-                Currency.RUB.name(),
-                1.0
-        ));
-        // остальные из БД
-        repo.findAll().stream()
+        return getSnapshot().table().toDtoList();
+    }
+
+    public RatesSnapshot getSnapshot() {
+        var current = snapshot.get();
+        if (current == null) {
+            // запрос пришел раньше прогрева - читаем БД один раз
+            warmUp();
+            current = snapshot.get();
+        }
+        return current;
+    }
+
+    /** Теплый старт: последние сохраненные курсы из БД */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (snapshot.get() != null) {
+            return;
+        }
+        // базовый рубль добавляет сама таблица, остальные из БД
+        var table = ExchangeRateTable.of(repo.findAll().stream()
                 .map(toDto)
-                .forEach(out::add);
-        return out;
+                .toList());
+        snapshot.compareAndSet(null, buildSnapshot(table));
+        log.info("Exchange rate snapshot loaded from database");
+    }
+
+    /**
+     * Атомарно подменяет снимок, который отдается на GET /api/rates.
+     */
+    public void applyRates(ExchangeRequest request) {
+        var table = ExchangeRateTable.of(request.getRates());
+        snapshot.set(buildSnapshot(table));
+        log.debug("Exchange rate snapshot replaced");
+    }
+
+    private RatesSnapshot buildSnapshot(ExchangeRateTable table) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(table.toDtoList());
+            long version = contentVersion(json);
+            return new RatesSnapshot(version, "\"" + version + "\"", table, json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize exchange rates", e);
+        }
+    }
+
+    /**
+     * Версия - хэш содержимого, а не счетчик: одинаковый набор курсов дает одну и ту же версию
+     * на любой реплике и после рестарта, поэтому since/If-None-Match за балансировщиком
+     * не получат 204/304 от пода с другими курсами. Всегда > 0 (0 у клиентов - "версия неизвестна").
+     */
+    static long contentVersion(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            long hash = ByteBuffer.wrap(digest).getLong() & Long.MAX_VALUE;
+            return hash == 0 ? 1 : hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     /** POST /api/rates */
     @Transactional
     public void updateRates(ExchangeRequest request) {
-        log.info("Received request to update exchange rates. Deleting existing rates...");
-        repo.deleteAll();
+        log.info("Received request to update exchange rates");
+        // upsert по currency вместо deleteAll + saveAll: без пустой таблицы и мертвых строк на каждый тик
         List<ExchangeRate> ents = request.getRates().stream()
                 .filter(r -> !Currency.RUB.name().equals(r.getName()))
                 .map(fromDto)
                 .toList();
-        repo.saveAll(ents);
+        repo.upsertAll(ents);
+        rateHistoryService.append(ents, LocalDateTime.now());
+        // снимок этого пода меняется вместе с БД, только после коммита
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyRates(request);
+                }
+            });
+        } else {
+            applyRates(request);
+        }
         log.info("Successfully updated exchange rates");
     }
 }
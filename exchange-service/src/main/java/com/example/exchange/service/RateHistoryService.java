@@ -0,0 +1,105 @@
+package com.example.exchange.service;
+
+import com.example.clients.customer.Currency;
+import com.example.clients.exchange.ExchangeRateDto;
+import com.example.clients.exchange.ExchangeRateTable;
+import com.example.clients.exchange.RatePointDto;
+import com.example.exchange.model.ExchangeRate;
+import com.example.exchange.model.ExchangeRateHistory;
+import com.example.exchange.repository.ExchangeRateHistoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * История курсов. Пишется только слушателем, который сохраняет курсы в БД,
+ * горячий путь GET /api/rates её не касается.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RateHistoryService {
+    private final ExchangeRateHistoryRepository historyRepo;
+
+    @Value("${exchange.history.max-points:2000}")
+    private int maxPoints;
+
+    @Value("${exchange.history.retention:30d}")
+    private Duration retention;
+
+    @Value("${exchange.history.purge-batch:5000}")
+    private int purgeBatch;
+
+    public void append(List<ExchangeRate> rates, LocalDateTime recordedAt) {
+        var rows = rates.stream()
+                .map(r -> ExchangeRateHistory.builder()
+                        .currency(r.getCurrency())
+                        .value(r.getValue())
+                        .recordedAt(recordedAt)
+                        .build())
+                .toList();
+        historyRepo.saveAll(rows);
+        log.debug("Appended {} rates to history at {}", rows.size(), recordedAt);
+    }
+
+    @Transactional(readOnly = true)
+    public List<RatePointDto> getHistory(Currency currency, LocalDateTime from, LocalDateTime to, Duration step) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (step.toSeconds() < 1) {
+            throw new IllegalArgumentException("step must be at least 1 second");
+        }
+        if (Duration.between(from, to).toSeconds() / step.toSeconds() > maxPoints) {
+            throw new IllegalArgumentException("Too many points requested, max " + maxPoints + ". Increase step");
+        }
+        if (currency == Currency.RUB) {
+            // рубль базовая валюта, его курс всегда 1 и в истории не хранится
+            return List.of(new RatePointDto(from, 1.0, 1.0, 1.0));
+        }
+        return historyRepo.findDownsampled(currency.name(), from, to, step.toSeconds()).stream()
+                .map(p -> new RatePointDto(p.getTime(), p.getAvg(), p.getMin(), p.getMax()))
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public List<ExchangeRateDto> getRatesAt(LocalDateTime at) {
+        var rates = Arrays.stream(Currency.values())
+                .filter(c -> c != Currency.RUB)
+                .flatMap(c -> historyRepo.findFirstByCurrencyAndRecordedAtLessThanEqualOrderByRecordedAtDesc(c, at).stream())
+                .map(h -> new ExchangeRateDto(null, h.getCurrency().name(), h.getValue()))
+                .toList();
+        return ExchangeRateTable.of(rates).toDtoList();
+    }
+
+    /**
+     * Удаляет историю старше exchange.history.retention, чтобы таблица не росла бесконечно.
+     * Каждая пачка коммитится отдельно.
+     */
+    @Scheduled(fixedDelayString = "${exchange.history.purge-interval:3600000}")
+    public void purgeExpired() {
+        var cutoff = LocalDateTime.now().minus(retention);
+        long total = 0;
+        for (Currency currency : Currency.values()) {
+            if (currency == Currency.RUB) {
+                continue;
+            }
+            int deleted;
+            do {
+                deleted = historyRepo.deleteOlderThan(currency.name(), cutoff, purgeBatch);
+                total += deleted;
+            } while (deleted == purgeBatch);
+        }
+        if (total > 0) {
+            log.info("Purged {} history rows older than {}", total, cutoff);
+        }
+    }
+}
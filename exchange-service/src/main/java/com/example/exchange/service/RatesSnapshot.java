@@ -0,0 +1,14 @@
+package com.example.exchange.service;
+
+import com.example.clients.exchange.ExchangeRateTable;
+
+/**
+ * Неизменяемый снимок курсов: таблица, уже сериализованный JSON-ответ и его версия/ETag.
+ * Пересобирается только при получении новых курсов.
+ */
+public record RatesSnapshot(
+        long version,
+        String etag,
+        ExchangeRateTable table,
+        byte[] json
+) {}
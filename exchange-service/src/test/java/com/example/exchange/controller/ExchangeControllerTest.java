@@ -1,7 +1,12 @@
 package com.example.exchange.controller;
 
 import com.example.clients.exchange.ExchangeRateDto;
+import com.example.clients.customer.Currency;
+import com.example.clients.exchange.ExchangeRateTable;
+import com.example.clients.exchange.RatePointDto;
 import com.example.exchange.service.ExchangeService;
+import com.example.exchange.service.RateHistoryService;
+import com.example.exchange.service.RatesSnapshot;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,6 +16,8 @@ import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.mockito.Mockito.*;
@@ -32,17 +39,98 @@ class ExchangeControllerTest {
     @MockitoBean
     private ExchangeService exchangeService;
 
+    @MockitoBean
+    private RateHistoryService rateHistoryService;
+
     @Test
     void getRates() throws Exception {
         var list = List.of(
                 new ExchangeRateDto("Рубль","RUB",1.0),
                 new ExchangeRateDto("Доллар","USD",93.5)
         );
-        when(exchangeService.getAllRates()).thenReturn(list);
+        var snapshot = new RatesSnapshot(7L, "\"7\"", ExchangeRateTable.of(list),
+                objectMapper.writeValueAsBytes(list));
+        when(exchangeService.getSnapshot()).thenReturn(snapshot);
 
         mockMvc.perform(get("/api/rates").accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"7\""))
                 .andExpect(jsonPath("$.length()").value(2))
                 .andExpect(jsonPath("$[1].name").value("USD"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getRates_notModifiedForCurrentEtag() throws Exception {
+        when(exchangeService.getSnapshot()).thenReturn(snapshot(7L));
+
+        mockMvc.perform(get("/api/rates").header("If-None-Match", "\"7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void getRates_notModifiedForWeakTagListAndWildcard() throws Exception {
+        when(exchangeService.getSnapshot()).thenReturn(snapshot(7L));
+
+        mockMvc.perform(get("/api/rates").header("If-None-Match", "W/\"7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"7\""));
+        mockMvc.perform(get("/api/rates").header("If-None-Match", "\"5\", \"7\""))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/rates").header("If-None-Match", "*"))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/rates").header("If-None-Match", "\"5\", W/\"6\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getRates_sinceCurrentVersionReturnsNoContent() throws Exception {
+        when(exchangeService.getSnapshot()).thenReturn(snapshot(7L));
+
+        mockMvc.perform(get("/api/rates").param("since", "7"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string("X-Rates-Version", "7"));
+    }
+
+    @Test
+    void getRates_sinceOtherVersionReturnsBody() throws Exception {
+        when(exchangeService.getSnapshot()).thenReturn(snapshot(7L));
+
+        mockMvc.perform(get("/api/rates").param("since", "5"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Rates-Version", "7"))
+                .andExpect(jsonPath("$[0].name").value("RUB"));
+    }
+
+    @Test
+    void getRates_sinceVersionFromOtherReplicaReturnsBody() throws Exception {
+        // версия - хэш содержимого: "большая" версия другого пода не значит, что курсы те же
+        when(exchangeService.getSnapshot()).thenReturn(snapshot(7L));
+
+        mockMvc.perform(get("/api/rates").param("since", "9"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Rates-Version", "7"));
+    }
+
+    @Test
+    void getHistory() throws Exception {
+        var from = LocalDateTime.of(2025, 6, 1, 10, 0);
+        when(rateHistoryService.getHistory(Currency.USD, from, from.plusHours(1), Duration.ofMinutes(5)))
+                .thenReturn(List.of(new RatePointDto(from, 94.5, 94.0, 95.0)));
+
+        mockMvc.perform(get("/api/rates/history")
+                        .param("currency", "USD")
+                        .param("from", "2025-06-01T10:00:00")
+                        .param("to", "2025-06-01T11:00:00")
+                        .param("step", "PT5M"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].avg").value(94.5))
+                .andExpect(jsonPath("$[0].max").value(95.0));
+    }
+
+    private RatesSnapshot snapshot(long version) throws Exception {
+        var list = List.of(new ExchangeRateDto("Рубль", "RUB", 1.0));
+        return new RatesSnapshot(version, "\"" + version + "\"", ExchangeRateTable.of(list),
+                objectMapper.writeValueAsBytes(list));
+    }
+}
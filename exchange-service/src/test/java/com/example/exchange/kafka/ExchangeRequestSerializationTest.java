@@ -0,0 +1,94 @@
+package com.example.exchange.kafka;
+
+import com.example.clients.exchange.ExchangeRateDto;
+import com.example.clients.exchange.ExchangeRequest;
+import com.example.clients.exchange.ExchangeRequestDeserializer;
+import com.example.clients.exchange.ExchangeRequestSerializer;
+import com.example.clients.serialization.CompactFormat;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.io.EOFException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExchangeRequestSerializationTest {
+
+    private static final String TOPIC = "exchange-rates";
+
+    private final ExchangeRequestSerializer serializer = new ExchangeRequestSerializer();
+    private final ExchangeRequestDeserializer deserializer = new ExchangeRequestDeserializer();
+
+    private static ExchangeRequest request() {
+        return new ExchangeRequest(List.of(
+                new ExchangeRateDto("Рубль", "RUB", 1.0),
+                new ExchangeRateDto("Доллар", "USD", 92.15),
+                new ExchangeRateDto("Юань", "CNY", 12.7)
+        ));
+    }
+
+    @Test
+    void compactRoundTrip() {
+        var decoded = deserializer.deserialize(TOPIC, serializer.serialize(TOPIC, request()));
+
+        assertThat(decoded).isEqualTo(request());
+    }
+
+    @Test
+    void compactRoundTrip_unknownCurrencyKeepsNameAndTitle() {
+        var request = new ExchangeRequest(List.of(
+                new ExchangeRateDto("Евро", "EUR", 99.5),
+                new ExchangeRateDto("US Dollar", "USD", 92.15)
+        ));
+
+        assertThat(deserializer.deserialize(TOPIC, serializer.serialize(TOPIC, request))).isEqualTo(request);
+    }
+
+    @Test
+    void compactRoundTrip_nullRates() {
+        var decoded = deserializer.deserialize(TOPIC, serializer.serialize(TOPIC, new ExchangeRequest(null)));
+
+        assertThat(decoded.getRates()).isNull();
+    }
+
+    @Test
+    void compactIsSmallerThanJson() {
+        try (var json = new JsonSerializer<ExchangeRequest>()) {
+            byte[] jsonBytes = json.serialize(TOPIC, request());
+            byte[] compactBytes = serializer.serialize(TOPIC, request());
+
+            // 2 байта заголовка + 1 байт счетчика + 3 * (1 байт валюты + 8 байт курса)
+            assertThat(compactBytes).hasSize(30);
+            assertThat(compactBytes.length).isLessThan(jsonBytes.length / 3);
+        }
+    }
+
+    @Test
+    void readsLegacyJson() {
+        try (var json = new JsonSerializer<ExchangeRequest>()) {
+            assertThat(deserializer.deserialize(TOPIC, json.serialize(TOPIC, request()))).isEqualTo(request());
+        }
+    }
+
+    @Test
+    void rejectsRateCountLargerThanMessage() {
+        // заголовок + varint 0x7FFFFFFF: без проверки это ArrayList на 2^31 элементов
+        byte[] data = {CompactFormat.MAGIC, CompactFormat.VERSION, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+
+        assertThatThrownBy(() -> deserializer.deserialize(TOPIC, data))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void rejectsStringLengthLargerThanMessage() {
+        // один курс неизвестной валюты, имя с длиной ~2^31
+        byte[] data = {CompactFormat.MAGIC, CompactFormat.VERSION, 2, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+
+        assertThatThrownBy(() -> deserializer.deserialize(TOPIC, data))
+                .isInstanceOf(SerializationException.class)
+                .hasRootCauseInstanceOf(EOFException.class);
+    }
+}
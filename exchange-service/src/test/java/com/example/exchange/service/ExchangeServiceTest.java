@@ -7,6 +7,7 @@ import com.example.exchange.mapper.ExchangeRateFromDTOConverter;
 import com.example.exchange.mapper.ExchangeRateToDTOConverter;
 import com.example.exchange.model.ExchangeRate;
 import com.example.exchange.repository.ExchangeRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -14,9 +15,14 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -25,6 +31,9 @@ class ExchangeServiceTest {
     @Mock
     private ExchangeRepository repo;
 
+    @Mock
+    private RateHistoryService rateHistoryService;
+
     @InjectMocks
     private ExchangeService underTest;
 
@@ -34,7 +43,7 @@ class ExchangeServiceTest {
     @BeforeEach
     void init() {
         MockitoAnnotations.openMocks(this);
-        underTest = new ExchangeService(repo, toDto, fromDto);
+        underTest = new ExchangeService(repo, toDto, fromDto, new ObjectMapper(), rateHistoryService);
     }
 
     @Test
@@ -62,12 +71,76 @@ class ExchangeServiceTest {
         underTest.updateRates(request);
 
         ArgumentCaptor<List<ExchangeRate>> captor = ArgumentCaptor.forClass(List.class);
-        verify(repo).deleteAll();
-        verify(repo).saveAll(captor.capture());
+        verify(repo).upsertAll(captor.capture());
+        verify(repo, never()).deleteAll();
 
         var saved = captor.getValue();
         assertThat(saved).hasSize(2)
                 .extracting(ExchangeRate::getCurrency)
                 .containsExactly(Currency.USD, Currency.CNY);
+        verify(rateHistoryService).append(eq(saved), any(LocalDateTime.class));
+    }
+
+    @Test
+    void getAllRates_afterUpdateServedWithoutDatabase() {
+        var request = new ExchangeRequest(List.of(
+                new ExchangeRateDto("Юань", "CNY", 13.2),
+                new ExchangeRateDto("Доллар", "USD", 94.0)));
+
+        underTest.applyRates(request);
+        var rates = underTest.getAllRates();
+
+        assertThat(rates)
+                .extracting(ExchangeRateDto::getName, ExchangeRateDto::getValue)
+                .containsExactly(tuple("RUB", 1.0), tuple("USD", 94.0), tuple("CNY", 13.2));
+        verify(repo, never()).findAll();
+    }
+
+    @Test
+    void applyRates_changesVersionAndEtag() {
+        when(repo.findAll()).thenReturn(List.of());
+        underTest.warmUp();
+        var before = underTest.getSnapshot();
+
+        underTest.applyRates(new ExchangeRequest(List.of(new ExchangeRateDto("Доллар", "USD", 94.0))));
+        var after = underTest.getSnapshot();
+
+        assertThat(after.version()).isNotEqualTo(before.version()).isPositive();
+        assertThat(after.etag()).isEqualTo("\"" + after.version() + "\"");
+        assertThat(new String(after.json())).contains("\"USD\"");
+    }
+
+    @Test
+    void version_dependsOnlyOnContent() {
+        // другая реплика (или этот же под после рестарта) с теми же курсами
+        var otherReplica = new ExchangeService(repo, toDto, fromDto, new ObjectMapper(), rateHistoryService);
+        var rates = new ExchangeRequest(List.of(new ExchangeRateDto("Доллар", "USD", 94.0)));
+
+        underTest.applyRates(rates);
+        otherReplica.applyRates(rates);
+        assertThat(otherReplica.getSnapshot().version()).isEqualTo(underTest.getSnapshot().version());
+
+        otherReplica.applyRates(new ExchangeRequest(List.of(new ExchangeRateDto("Доллар", "USD", 94.5))));
+        assertThat(otherReplica.getSnapshot().version()).isNotEqualTo(underTest.getSnapshot().version());
+    }
+
+    @Test
+    void updateRates_refreshesSnapshot() {
+        underTest.updateRates(new ExchangeRequest(List.of(new ExchangeRateDto("Доллар", "USD", 94.0))));
+
+        assertThat(underTest.getAllRates())
+                .extracting(ExchangeRateDto::getName, ExchangeRateDto::getValue)
+                .containsExactly(tuple("RUB", 1.0), tuple("USD", 94.0));
+        verify(repo, never()).findAll();
+    }
+
+    @Test
+    void warmUp_doesNotOverwriteNewerSnapshot() {
+        underTest.applyRates(new ExchangeRequest(List.of(new ExchangeRateDto("Доллар", "USD", 94.0))));
+
+        underTest.warmUp();
+
+        verify(repo, never()).findAll();
+        assertThat(underTest.getAllRates()).hasSize(2);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,127 @@
+package com.example.exchange.service;
+
+import com.example.clients.customer.Currency;
+import com.example.clients.exchange.ExchangeRateDto;
+import com.example.exchange.model.ExchangeRate;
+import com.example.exchange.model.ExchangeRateHistory;
+import com.example.exchange.repository.ExchangeRateHistoryRepository;
+import com.example.exchange.repository.RatePointView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class RateHistoryServiceTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2025, 6, 1, 10, 0);
+
+    @Mock
+    private ExchangeRateHistoryRepository historyRepo;
+
+    private RateHistoryService underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new RateHistoryService(historyRepo);
+        ReflectionTestUtils.setField(underTest, "maxPoints", 100);
+        ReflectionTestUtils.setField(underTest, "retention", Duration.ofDays(30));
+        ReflectionTestUtils.setField(underTest, "purgeBatch", 2);
+    }
+
+    @Test
+    void append_writesRowPerCurrencyWithSameTimestamp() {
+        var rates = List.of(
+                ExchangeRate.builder().currency(Currency.USD).value(94.0).build(),
+                ExchangeRate.builder().currency(Currency.CNY).value(13.2).build());
+
+        underTest.append(rates, FROM);
+
+        ArgumentCaptor<List<ExchangeRateHistory>> captor = ArgumentCaptor.forClass(List.class);
+        verify(historyRepo).saveAll(captor.capture());
+        assertThat(captor.getValue())
+                .extracting(ExchangeRateHistory::getCurrency, ExchangeRateHistory::getValue, ExchangeRateHistory::getRecordedAt)
+                .containsExactly(tuple(Currency.USD, 94.0, FROM), tuple(Currency.CNY, 13.2, FROM));
+    }
+
+    @Test
+    void getHistory_mapsDownsampledPoints() {
+        var point = mock(RatePointView.class);
+        when(point.getTime()).thenReturn(FROM);
+        when(point.getAvg()).thenReturn(94.5);
+        when(point.getMin()).thenReturn(94.0);
+        when(point.getMax()).thenReturn(95.0);
+        when(historyRepo.findDownsampled("USD", FROM, FROM.plusHours(1), 300)).thenReturn(List.of(point));
+
+        var history = underTest.getHistory(Currency.USD, FROM, FROM.plusHours(1), Duration.ofMinutes(5));
+
+        assertThat(history).hasSize(1);
+        assertThat(history.get(0).avg()).isEqualTo(94.5);
+        assertThat(history.get(0).max()).isEqualTo(95.0);
+    }
+
+    @Test
+    void getHistory_rejectsTooManyPoints() {
+        assertThatThrownBy(() -> underTest.getHistory(Currency.USD, FROM, FROM.plusDays(1), Duration.ofMinutes(1)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Too many points");
+        verifyNoInteractions(historyRepo);
+    }
+
+    @Test
+    void getHistory_rejectsInvertedRange() {
+        assertThatThrownBy(() -> underTest.getHistory(Currency.USD, FROM, FROM, Duration.ofMinutes(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void getRatesAt_includesBaseRub() {
+        var usd = ExchangeRateHistory.builder().currency(Currency.USD).value(93.0).recordedAt(FROM).build();
+        when(historyRepo.findFirstByCurrencyAndRecordedAtLessThanEqualOrderByRecordedAtDesc(any(), any()))
+                .thenReturn(Optional.empty());
+        when(historyRepo.findFirstByCurrencyAndRecordedAtLessThanEqualOrderByRecordedAtDesc(Currency.USD, FROM.plusMinutes(1)))
+                .thenReturn(Optional.of(usd));
+
+        var rates = underTest.getRatesAt(FROM.plusMinutes(1));
+
+        assertThat(rates)
+                .extracting(ExchangeRateDto::getName, ExchangeRateDto::getValue)
+                .containsExactly(tuple("RUB", 1.0), tuple("USD", 93.0));
+    }
+
+    @Test
+    void getRatesAt_neverQueriesBaseRub() {
+        when(historyRepo.findFirstByCurrencyAndRecordedAtLessThanEqualOrderByRecordedAtDesc(any(), any()))
+                .thenReturn(Optional.empty());
+
+        underTest.getRatesAt(FROM);
+
+        verify(historyRepo, never()).findFirstByCurrencyAndRecordedAtLessThanEqualOrderByRecordedAtDesc(eq(Currency.RUB), any());
+    }
+
+    @Test
+    void purgeExpired_deletesInBatchesUntilShortBatch() {
+        when(historyRepo.deleteOlderThan(eq("USD"), any(), eq(2))).thenReturn(2, 2, 1);
+        when(historyRepo.deleteOlderThan(eq("CNY"), any(), eq(2))).thenReturn(0);
+
+        underTest.purgeExpired();
+
+        verify(historyRepo, times(3)).deleteOlderThan(eq("USD"), any(), eq(2));
+        verify(historyRepo, times(1)).deleteOlderThan(eq("CNY"), any(), eq(2));
+        verify(historyRepo, never()).deleteOlderThan(eq("RUB"), any(), anyInt());
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.fraud;
+
+import java.util.Arrays;
+
+/**
+ * Кольцевой буфер последних операций одного клиента на примитивных массивах.
+ * Запись и расчет признаков - под монитором объекта, без аллокаций кроме массива сумм.
+ * Операции приходят не строго по времени (разные продюсеры, перечитывание топика),
+ * поэтому окно проверяет возраст каждой записи, а не останавливается на первой старой.
+ */
+class CustomerActivityWindow {
+
+    static final long MINUTE_MILLIS = 60_000L;
+    static final long HOUR_MILLIS = 60 * MINUTE_MILLIS;
+
+    private final long[] at;
+    private final double[] amount;
+    private final byte[] currency;       // Currency.ordinal()
+    private final int[] recipient;       // 0 - не перевод
+    private final boolean[] crossCurrency;
+    private final int[] scratch;         // для подсчета уникальных получателей
+    private int head;                    // куда писать следующую операцию
+    private int size;
+    private long lastActivityMillis;
+
+    CustomerActivityWindow(int capacity) {
+        this.at = new long[capacity];
+        this.amount = new double[capacity];
+        this.currency = new byte[capacity];
+        this.recipient = new int[capacity];
+        this.crossCurrency = new boolean[capacity];
+        this.scratch = new int[capacity];
+    }
+
+    synchronized void add(long timestampMillis, double value, int currencyOrdinal, int recipientId, boolean cross) {
+        at[head] = timestampMillis;
+        amount[head] = value;
+        currency[head] = (byte) currencyOrdinal;
+        recipient[head] = recipientId;
+        crossCurrency[head] = cross;
+        head = (head + 1) % at.length;
+        if (size < at.length) {
+            size++;
+        }
+        lastActivityMillis = Math.max(lastActivityMillis, timestampMillis);
+    }
+
+    synchronized long lastActivityMillis() {
+        return lastActivityMillis;
+    }
+
+    /**
+     * Признаки на момент now по всем операциям буфера, попавшим в последний час.
+     * Буфер ограничен window-capacity, так что полный проход дешев.
+     */
+    synchronized ActivityFeatures features(long now, int currencyCount) {
+        int opsMinute = 0;
+        int opsHour = 0;
+        int transfers = 0;
+        int crossTransfers = 0;
+        int recipients = 0;
+        double[] sums = new double[currencyCount];
+
+        for (int i = 0; i < size; i++) {
+            int idx = (head - 1 - i + at.length) % at.length;
+            long age = now - at[idx];
+            if (age > HOUR_MILLIS || age < 0) {
+                continue;
+            }
+            opsHour++;
+            if (age <= MINUTE_MILLIS) {
+                opsMinute++;
+            }
+            sums[currency[idx]] += amount[idx];
+            if (recipient[idx] != 0) {
+                transfers++;
+                scratch[recipients++] = recipient[idx];
+                if (crossCurrency[idx]) {
+                    crossTransfers++;
+                }
+            }
+        }
+
+        return new ActivityFeatures(
+                opsMinute,
+                opsHour,
+                sums,
+                distinct(scratch, recipients),
+                transfers == 0 ? 0.0 : (double) crossTransfers / transfers,
+                transfers);
+    }
+
+    private static int distinct(int[] values, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        Arrays.sort(values, 0, length);
+        int distinct = 1;
+        for (int i = 1; i < length; i++) {
+            if (values[i] != values[i - 1]) {
+                distinct++;
+            }
+        }
+        return distinct;
+    }
+
+    record ActivityFeatures(
+            int opsLastMinute,
+            int opsLastHour,
+            double[] amountLastHourByCurrency,
+            int distinctRecipientsLastHour,
+            double crossCurrencyRatio,
+            int transfersLastHour
+    ) {}
+}
@@ -17,7 +17,8 @@ public class FraudCheckHistory {
     @Id
     @SequenceGenerator(
             name = "fraud_id_sequence",
-            sequenceName = "fraud_id_sequence"
+            sequenceName = "fraud_id_sequence",
+            allocationSize = 200 // один nextval на пачку фонового writer-а
     )
     @GeneratedValue(
             strategy = GenerationType.SEQUENCE,
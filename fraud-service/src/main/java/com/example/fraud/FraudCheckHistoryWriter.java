@@ -0,0 +1,220 @@
+package com.example.fraud;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Асинхронная запись истории проверок: запрос только кладет строку в ограниченную очередь,
+ * фоновый поток сохраняет их пачками (по batch-size или раз в flush-interval).
+ * Если очередь заполнена, запись пишется синхронно в потоке запроса (backpressure, без потерь).
+ * Упавшая пачка повторяется с нарастающей паузой, затем пишется по одной строке,
+ * чтобы одна плохая строка не уносила с собой всю пачку.
+ * Поток стартует и останавливается вместе с контекстом (SmartLifecycle); до старта и после
+ * остановки запись синхронная. При остановке очередь дописывается до конца.
+ */
+@Component
+@Slf4j
+public class FraudCheckHistoryWriter implements SmartLifecycle {
+
+    private final FraudCheckHistoryRepository repository;
+    private final BlockingQueue<FraudCheckHistory> queue;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final Counter droppedToSync;
+    private final Counter written;
+    private final Counter failed;
+    private final int maxRetries;
+    private final Duration retryBackoff;
+
+    private volatile Thread worker;
+    private volatile boolean running;
+
+    public FraudCheckHistoryWriter(
+            FraudCheckHistoryRepository repository,
+            MeterRegistry meterRegistry,
+            @Value("${fraud.history.queue-capacity:10000}") int queueCapacity,
+            @Value("${fraud.history.batch-size:200}") int batchSize,
+            @Value("${fraud.history.flush-interval:500ms}") Duration flushInterval,
+            @Value("${fraud.history.max-retries:3}") int maxRetries,
+            @Value("${fraud.history.retry-backoff:200ms}") Duration retryBackoff) {
+        this.repository = repository;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushInterval.toMillis();
+        this.maxRetries = maxRetries;
+        this.retryBackoff = retryBackoff;
+
+        Gauge.builder("fraud_history_queue_size", queue, BlockingQueue::size)
+                .description("Fraud check history rows waiting to be written")
+                .register(meterRegistry);
+        this.droppedToSync = Counter.builder("fraud_history_queue_full_total")
+                .description("History rows written synchronously because the queue was full")
+                .register(meterRegistry);
+        this.written = Counter.builder("fraud_history_written_total")
+                .description("History rows written by the background writer")
+                .register(meterRegistry);
+        this.failed = Counter.builder("fraud_history_failed_total")
+                .description("History rows that could not be written even one by one")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = Thread.ofPlatform()
+                .name("fraud-history-writer")
+                .daemon(true)
+                .start(this::run);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        var current = worker;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.join(Duration.ofSeconds(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (current.isAlive()) {
+            log.warn("Fraud history writer did not finish in time, {} rows left", queue.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Стартует раньше и останавливается позже веб-сервера и Kafka-слушателей, которые в него пишут */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    public void write(FraudCheckHistory row) {
+        if (!running || !queue.offer(row)) {
+            droppedToSync.increment();
+            repository.save(row);
+        }
+    }
+
+    /**
+     * Пачка целиком: сколько влезло - в очередь, остаток одним saveAll в потоке запроса,
+     * а не отдельным save на каждую строку.
+     */
+    public void writeAll(List<FraudCheckHistory> rows) {
+        int queued = 0;
+        if (running) {
+            while (queued < rows.size() && queue.offer(rows.get(queued))) {
+                queued++;
+            }
+        }
+        if (queued < rows.size()) {
+            var rest = rows.subList(queued, rows.size());
+            droppedToSync.increment(rest.size());
+            repository.saveAll(rest);
+        }
+    }
+
+    private void run() {
+        List<FraudCheckHistory> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                var first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // добираем пачку, пока не истек интервал
+                long deadline = System.currentTimeMillis() + flushIntervalMillis;
+                while (batch.size() < batchSize) {
+                    long left = deadline - System.currentTimeMillis();
+                    var next = left > 0 ? queue.poll(left, TimeUnit.MILLISECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // остановка: дописываем остаток очереди ниже
+                running = false;
+            }
+            flush(batch);
+        }
+        log.info("Fraud history writer stopped");
+    }
+
+    private void flush(List<FraudCheckHistory> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            if (saveWithRetry(batch)) {
+                written.increment(batch.size());
+            } else {
+                saveOneByOne(batch);
+            }
+        } finally {
+            batch.clear();
+        }
+    }
+
+    private boolean saveWithRetry(List<FraudCheckHistory> batch) {
+        long backoffMillis = retryBackoff.toMillis();
+        for (int attempt = 0; ; attempt++) {
+            try {
+                if (attempt > 0) {
+                    // id, выданные упавшей попытке, не закоммичены - строки снова новые
+                    batch.forEach(row -> row.setId(null));
+                }
+                repository.saveAll(batch);
+                return true;
+            } catch (Exception e) {
+                if (attempt >= maxRetries) {
+                    log.error("Failed to write {} fraud history rows after {} retries, writing one by one: {}",
+                            batch.size(), maxRetries, e.getMessage(), e);
+                    return false;
+                }
+                log.warn("Failed to write {} fraud history rows, retry {} in {} ms: {}",
+                        batch.size(), attempt + 1, backoffMillis, e.getMessage());
+            }
+            try {
+                Thread.sleep(backoffMillis);
+            } catch (InterruptedException e) {
+                // остановка: без пауз сразу к записи по одной
+                running = false;
+                return false;
+            }
+            backoffMillis *= 2;
+        }
+    }
+
+    private void saveOneByOne(List<FraudCheckHistory> batch) {
+        for (var row : batch) {
+            try {
+                row.setId(null);
+                repository.save(row);
+                written.increment();
+            } catch (Exception e) {
+                failed.increment();
+                log.error("Failed to write fraud history row for customer {}: {}", row.getCustomerId(), e.getMessage(), e);
+            }
+        }
+    }
+}
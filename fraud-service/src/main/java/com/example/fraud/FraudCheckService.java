@@ -1,35 +1,97 @@
 package com.example.fraud;
 
+import com.example.clients.fraud.FraudVerdict;
+import com.example.clients.fraud.FraudVerdictCache;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
-import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Service
-@AllArgsConstructor
 public class FraudCheckService {
 
-    private final FraudCheckHistoryRepository fraudCheckHistoryRepository;
+    private final FraudCheckHistoryWriter historyWriter;
     private final MeterRegistry meterRegistry;
+    // вердикт по клиенту меняется редко, а проверка идет на каждый перевод
+    private final FraudVerdictCache verdictCache;
+    private final FraudEngine fraudEngine;
+
+    public FraudCheckService(
+            FraudCheckHistoryWriter historyWriter,
+            MeterRegistry meterRegistry,
+            FraudEngine fraudEngine,
+            @Value("${fraud.verdict-cache.max-size:10000}") int cacheMaxSize,
+            @Value("${fraud.verdict-cache.ttl:60s}") Duration cacheTtl) {
+        this.historyWriter = historyWriter;
+        this.meterRegistry = meterRegistry;
+        this.fraudEngine = fraudEngine;
+        this.verdictCache = new FraudVerdictCache(cacheMaxSize, cacheTtl);
+
+        Gauge.builder("fraud_verdict_cache_size", verdictCache, FraudVerdictCache::size)
+                .description("Number of cached fraud verdicts")
+                .register(meterRegistry);
+    }
 
     public boolean isFraudulentCustomer(Integer customerId) {
-        // feel free to use 3d party system
-        // that checks whether a customer is fraudster or not
-        boolean isFraud = false; //todo: implement actual fraud check logic
-
-        fraudCheckHistoryRepository.save(
-                FraudCheckHistory.builder()
-                        .customerId(customerId)
-                        .isFraudster(isFraud)
-                        .createdAt(LocalDateTime.now())
-                        .build()
-        );
+        boolean isFraud = verdict(customerId);
+
+        // запись истории уходит в фоновый writer, запрос ее не ждет
+        historyWriter.write(historyRow(customerId, isFraud, LocalDateTime.now()));
+
+        return isFraud;
+    }
+
+    /**
+     * Вердикты по списку клиентов; строки истории передаются writer-у одной пачкой.
+     */
+    public List<FraudVerdict> checkAll(List<Integer> customerIds) {
+        var now = LocalDateTime.now();
+        List<FraudVerdict> verdicts = new ArrayList<>(customerIds.size());
+        List<FraudCheckHistory> history = new ArrayList<>(customerIds.size());
+        for (Integer customerId : customerIds) {
+            boolean isFraud = verdict(customerId);
+            verdicts.add(new FraudVerdict(customerId, isFraud));
+            history.add(historyRow(customerId, isFraud, now));
+        }
+        historyWriter.writeAll(history);
+        return verdicts;
+    }
+
+    private boolean verdict(Integer customerId) {
+        Boolean cached = verdictCache.get(customerId);
+        meterRegistry.counter("fraud_verdict_cache_total", "result", cached != null ? "hit" : "miss").increment();
+
+        boolean isFraud = cached != null ? cached : evaluate(customerId);
 
         // metric for fraud checks
         String result = isFraud ? "fraud" : "clean";
         meterRegistry.counter("fraud_checks_total", "result", result).increment();
+        return isFraud;
+    }
+
+    private static FraudCheckHistory historyRow(Integer customerId, boolean isFraud, LocalDateTime at) {
+        return FraudCheckHistory.builder()
+                .customerId(customerId)
+                .isFraudster(isFraud)
+                .createdAt(at)
+                .build();
+    }
+
+    /** Новая операция клиента - кэшированный вердикт больше не актуален */
+    public void invalidate(Integer customerId) {
+        verdictCache.invalidate(customerId);
+    }
+
+    private boolean evaluate(Integer customerId) {
+        // правила считаются по окну активности в памяти, см. FraudEngine
+        boolean isFraud = fraudEngine.isFraudster(customerId);
 
+        verdictCache.put(customerId, isFraud);
         return isFraud;
     }
 }
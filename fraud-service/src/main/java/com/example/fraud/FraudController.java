@@ -1,19 +1,27 @@
 package com.example.fraud;
 
 import com.example.clients.fraud.FraudCheckResponse;
+import com.example.clients.fraud.FraudVerdict;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/v1/fraud-check")
 @AllArgsConstructor
 @Slf4j
 public class FraudController {
 
+    private static final int MAX_BULK_SIZE = 1000;
+
     private final FraudCheckService fraudCheckService;
 
     @GetMapping(path = "{customerId}")
@@ -25,4 +33,13 @@ public class FraudController {
 
         return new FraudCheckResponse(isFraudulentCustomer);
     }
+
+    @PostMapping(path = "bulk")
+    public ResponseEntity<List<FraudVerdict>> checkAll(@RequestBody List<Integer> customerIds) {
+        if (customerIds.size() > MAX_BULK_SIZE || customerIds.contains(null)) {
+            return ResponseEntity.badRequest().build();
+        }
+        log.info("bulk fraud check request for {} customers", customerIds.size());
+        return ResponseEntity.ok(fraudCheckService.checkAll(customerIds));
+    }
 }
@@ -0,0 +1,137 @@
+package com.example.fraud;
+
+import com.example.clients.customer.Currency;
+import com.example.clients.fraud.OperationEvent;
+import com.example.clients.fraud.OperationType;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Потоковый движок правил: окна активности клиентов обновляются из топика operation-events,
+ * а проверка считает признаки по окну в памяти, без обращения к БД или другим сервисам.
+ */
+@Component
+@Slf4j
+public class FraudEngine {
+
+    private static final Currency[] CURRENCIES = Currency.values();
+
+    private final FraudRulesProps rules;
+    private final MeterRegistry meterRegistry;
+    private final Map<Integer, CustomerActivityWindow> windows = new ConcurrentHashMap<>();
+    private final double[] maxAmountPerHour;   // по Currency.ordinal(), +Inf - без лимита
+    private final int windowCapacity;
+
+    public FraudEngine(FraudRulesProps rules, MeterRegistry meterRegistry) {
+        this.rules = rules;
+        this.meterRegistry = meterRegistry;
+        this.windowCapacity = Math.max(rules.getWindowCapacity(), rules.getMaxOpsPerHour() + 1);
+        this.maxAmountPerHour = new double[CURRENCIES.length];
+        Arrays.fill(maxAmountPerHour, Double.POSITIVE_INFINITY);
+        rules.getMaxAmountPerHour().forEach((code, limit) ->
+                maxAmountPerHour[Currency.valueOf(code).ordinal()] = limit.doubleValue());
+
+        Gauge.builder("fraud_engine_tracked_customers", windows, Map::size)
+                .description("Customers with operations inside the fraud engine window")
+                .register(meterRegistry);
+    }
+
+    public void record(OperationEvent event) {
+        if (event.customerId() == null || event.amount() == null || event.currency() == null) {
+            log.warn("Skipping incomplete operation event: {}", event);
+            return;
+        }
+        var operationCurrency = currencyOf(event.currency());
+        if (operationCurrency == null) {
+            log.warn("Skipping operation event with unknown currency: {}", event);
+            return;
+        }
+        boolean transfer = event.type() == OperationType.TRANSFER && event.toCustomerId() != null;
+        // перевод самому себе между счетами не считаем получателем
+        int recipient = transfer && !event.toCustomerId().equals(event.customerId()) ? event.toCustomerId() : 0;
+        boolean cross = transfer && event.toCurrency() != null && !event.toCurrency().equalsIgnoreCase(event.currency());
+
+        int currency = operationCurrency.ordinal();
+        // запись внутри compute: evictIdle не может убрать окно между поиском и add
+        windows.compute(event.customerId(), (id, window) -> {
+            var target = window != null ? window : new CustomerActivityWindow(windowCapacity);
+            target.add(event.timestampMillis(), event.amount().doubleValue(), currency, recipient, cross);
+            return target;
+        });
+    }
+
+    /** Регистр не важен, как и в проверке валюты cash-service; неизвестная - null */
+    private static Currency currencyOf(String code) {
+        try {
+            return Currency.valueOf(code.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public boolean isFraudster(Integer customerId) {
+        var violations = violations(customerId, System.currentTimeMillis());
+        if (!violations.isEmpty()) {
+            log.info("Customer {} flagged by rules {}", customerId, violations);
+            violations.forEach(rule -> meterRegistry.counter("fraud_rule_hits_total", "rule", rule).increment());
+        }
+        return !violations.isEmpty();
+    }
+
+    List<String> violations(Integer customerId, long now) {
+        var window = windows.get(customerId);
+        if (window == null) {
+            return List.of();
+        }
+        var f = window.features(now, CURRENCIES.length);
+        List<String> violated = new ArrayList<>(2);
+
+        if (f.opsLastMinute() > rules.getMaxOpsPerMinute()) {
+            violated.add("ops_per_minute");
+        }
+        if (f.opsLastHour() > rules.getMaxOpsPerHour()) {
+            violated.add("ops_per_hour");
+        }
+        if (f.distinctRecipientsLastHour() > rules.getMaxDistinctRecipientsPerHour()) {
+            violated.add("distinct_recipients");
+        }
+        if (f.transfersLastHour() >= rules.getCrossCurrencyMinOps()
+                && f.crossCurrencyRatio() > rules.getMaxCrossCurrencyRatio()) {
+            violated.add("cross_currency_ratio");
+        }
+        for (int i = 0; i < CURRENCIES.length; i++) {
+            if (f.amountLastHourByCurrency()[i] > maxAmountPerHour[i]) {
+                violated.add("amount_per_hour");
+                break;
+            }
+        }
+        return violated;
+    }
+
+    /** Убираем клиентов без операций за последний час, чтобы карта не росла бесконечно */
+    @Scheduled(fixedDelayString = "${fraud.engine.cleanup-interval:60000}")
+    public void evictIdle() {
+        evictIdle(System.currentTimeMillis());
+    }
+
+    void evictIdle(long now) {
+        long threshold = now - CustomerActivityWindow.HOUR_MILLIS;
+        // проверка и удаление атомарны относительно record() по тому же клиенту
+        windows.keySet().forEach(id -> windows.computeIfPresent(id,
+                (key, window) -> window.lastActivityMillis() < threshold ? null : window));
+    }
+
+    int trackedCustomers() {
+        return windows.size();
+    }
+}
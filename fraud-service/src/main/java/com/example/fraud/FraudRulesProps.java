@@ -0,0 +1,32 @@
+package com.example.fraud;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Пороги правил антифрода. Все окна скользящие и считаются от текущего момента.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "fraud.rules")
+public class FraudRulesProps {
+
+    private int maxOpsPerMinute = 10;
+    private int maxOpsPerHour = 100;
+    private int maxDistinctRecipientsPerHour = 10;
+
+    // доля переводов с конвертацией валюты за час; проверяется, если операций не меньше crossCurrencyMinOps
+    private double maxCrossCurrencyRatio = 0.9;
+    private int crossCurrencyMinOps = 5;
+
+    // лимит суммы операций за час по коду валюты
+    private Map<String, BigDecimal> maxAmountPerHour = new HashMap<>();
+
+    // сколько последних операций клиента хранить; должно быть больше maxOpsPerHour
+    private int windowCapacity = 256;
+}
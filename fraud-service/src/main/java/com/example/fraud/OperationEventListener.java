@@ -0,0 +1,71 @@
+package com.example.fraud;
+
+import com.example.clients.fraud.OperationEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.AbstractConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Состояние движка в памяти каждого экземпляра, поэтому у каждого своя группа,
+ * а при первом назначении партиции перечитываем последний час, чтобы восстановить окна после рестарта.
+ * При повторном назначении (ребаланс) окна уже в памяти: чтение продолжается с закоммиченного
+ * offset-а, а записи не дальше последнего примененного offset-а партиции пропускаются.
+ * Нечитаемая запись приходит null (ErrorHandlingDeserializer) и пропускается, чтобы не застрять на ее offset-е.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OperationEventListener extends AbstractConsumerSeekAware {
+
+    private final FraudEngine fraudEngine;
+    private final FraudCheckService fraudCheckService;
+
+    // последний offset, примененный к окнам, по партиции
+    private final Map<TopicPartition, Long> appliedOffsets = new ConcurrentHashMap<>();
+
+    @KafkaListener(
+            topics = "${spring.kafka.topics.operation-events}",
+            groupId = "fraud-service-engine-${random.uuid}"
+    )
+    public void onOperation(ConsumerRecord<String, OperationEvent> record) {
+        var partition = new TopicPartition(record.topic(), record.partition());
+        Long applied = appliedOffsets.get(partition);
+        if (applied != null && record.offset() <= applied) {
+            return;
+        }
+        var event = record.value();
+        if (event == null) {
+            log.warn("Skipping unreadable operation event at {}-{}@{}", record.topic(), record.partition(), record.offset());
+            appliedOffsets.put(partition, record.offset());
+            return;
+        }
+        fraudEngine.record(event);
+        appliedOffsets.put(partition, record.offset());
+        // вердикт по клиенту мог измениться
+        fraudCheckService.invalidate(event.customerId());
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        super.onPartitionsAssigned(assignments, callback);
+        List<TopicPartition> fresh = assignments.keySet().stream()
+                .filter(partition -> !appliedOffsets.containsKey(partition))
+                .toList();
+        if (fresh.isEmpty()) {
+            return;
+        }
+        // метка "уже перечитана", даже если в партиции за час ничего не было
+        fresh.forEach(partition -> appliedOffsets.putIfAbsent(partition, -1L));
+        long from = System.currentTimeMillis() - CustomerActivityWindow.HOUR_MILLIS;
+        callback.seekToTimestamp(fresh, from);
+        log.info("Replaying operation events since {} for {}", from, fresh);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.fraud;
+
+import org.junit.jupiter.api.Test;
+
+import static com.example.fraud.CustomerActivityWindow.HOUR_MILLIS;
+import static com.example.fraud.CustomerActivityWindow.MINUTE_MILLIS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerActivityWindowTest {
+
+    private static final long NOW = 10 * HOUR_MILLIS;
+
+    @Test
+    void features_countsMinuteAndHourWindows() {
+        var window = new CustomerActivityWindow(8);
+        window.add(NOW - 2 * HOUR_MILLIS, 500, 0, 0, false);   // вне часа
+        window.add(NOW - 30 * MINUTE_MILLIS, 100, 0, 7, false);
+        window.add(NOW - 10_000, 50, 1, 8, true);
+        window.add(NOW, 25, 1, 7, true);
+
+        var f = window.features(NOW, 3);
+
+        assertThat(f.opsLastMinute()).isEqualTo(2);
+        assertThat(f.opsLastHour()).isEqualTo(3);
+        assertThat(f.amountLastHourByCurrency()).containsExactly(100.0, 75.0, 0.0);
+        assertThat(f.distinctRecipientsLastHour()).isEqualTo(2);
+        assertThat(f.transfersLastHour()).isEqualTo(3);
+        assertThat(f.crossCurrencyRatio()).isEqualTo(2.0 / 3);
+    }
+
+    @Test
+    void features_outOfOrderEventsBehindOldOneAreCounted() {
+        var window = new CustomerActivityWindow(8);
+        window.add(NOW - 5 * MINUTE_MILLIS, 10, 0, 0, false);
+        // запоздавшее старое событие записано последним
+        window.add(NOW - 3 * HOUR_MILLIS, 1000, 0, 0, false);
+
+        var f = window.features(NOW, 3);
+
+        assertThat(f.opsLastHour()).isEqualTo(1);
+        assertThat(f.amountLastHourByCurrency()[0]).isEqualTo(10.0);
+        assertThat(window.lastActivityMillis()).isEqualTo(NOW - 5 * MINUTE_MILLIS);
+    }
+
+    @Test
+    void features_ringBufferKeepsLastCapacityOperations() {
+        var window = new CustomerActivityWindow(3);
+        for (int i = 0; i < 5; i++) {
+            window.add(NOW - i, 1, 0, 0, false);
+        }
+
+        assertThat(window.features(NOW, 3).opsLastHour()).isEqualTo(3);
+    }
+}
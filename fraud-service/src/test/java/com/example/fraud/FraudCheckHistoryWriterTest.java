@@ -0,0 +1,134 @@
+package com.example.fraud;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class FraudCheckHistoryWriterTest {
+
+    @Mock
+    private FraudCheckHistoryRepository repository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private FraudCheckHistoryWriter underTest;
+
+    private FraudCheckHistoryWriter writer(int queueCapacity) {
+        underTest = new FraudCheckHistoryWriter(repository, meterRegistry, queueCapacity, 10,
+                Duration.ofMillis(200), 2, Duration.ofMillis(1));
+        return underTest;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (underTest != null) {
+            underTest.stop();
+        }
+    }
+
+    private static FraudCheckHistory row(int customerId) {
+        return FraudCheckHistory.builder()
+                .customerId(customerId)
+                .isFraudster(false)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    void write_beforeStartSavesSynchronously() {
+        var writer = writer(10);
+
+        writer.write(row(1));
+
+        assertThat(writer.isRunning()).isFalse();
+        verify(repository).save(any());
+    }
+
+    @Test
+    void stop_drainsQueuedRowsInBatch() {
+        var writer = writer(10);
+        writer.start();
+
+        writer.write(row(1));
+        writer.write(row(2));
+        writer.stop();
+
+        verify(repository, atLeastOnce()).saveAll(anyList());
+        verify(repository, never()).save(any());
+        assertThat(meterRegistry.get("fraud_history_written_total").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void flush_retriesThenFallsBackToRowByRow() {
+        when(repository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("db"));
+        when(repository.save(argThat(r -> r != null && r.getCustomerId() == 2)))
+                .thenThrow(new DataIntegrityViolationException("bad row"));
+        var writer = writer(10);
+        writer.start();
+
+        writer.write(row(1));
+        writer.write(row(2));
+        writer.stop();
+
+        // первая попытка + 2 повтора, затем по одной - плохая строка не уносит соседнюю
+        verify(repository, times(3)).saveAll(anyList());
+        verify(repository, times(2)).save(any());
+        assertThat(meterRegistry.get("fraud_history_written_total").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("fraud_history_failed_total").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void flush_transientFailureIsRetriedAsBatch() {
+        when(repository.saveAll(anyList()))
+                .thenThrow(new DataIntegrityViolationException("db"))
+                .thenReturn(List.of());
+        var writer = writer(10);
+        writer.start();
+
+        writer.write(row(1));
+        writer.stop();
+
+        verify(repository, times(2)).saveAll(anyList());
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void writeAll_synchronousPathSavesOneBatch() {
+        var writer = writer(2);
+
+        writer.writeAll(List.of(row(1), row(2), row(3)));
+
+        verify(repository).saveAll(argThat(rows -> rows instanceof List<?> list && list.size() == 3));
+        assertThat(meterRegistry.get("fraud_history_queue_full_total").counter().count()).isEqualTo(3);
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void writeAll_queuesRowsForBackgroundBatch() {
+        var writer = writer(10);
+        writer.start();
+
+        writer.writeAll(List.of(row(1), row(2), row(3)));
+        writer.stop();
+
+        verify(repository, never()).save(any());
+        assertThat(meterRegistry.get("fraud_history_written_total").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("fraud_history_queue_full_total").counter().count()).isZero();
+    }
+}
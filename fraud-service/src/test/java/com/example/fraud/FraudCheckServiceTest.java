@@ -0,0 +1,76 @@
+package com.example.fraud;
+
+import com.example.clients.fraud.FraudVerdict;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class FraudCheckServiceTest {
+
+    @Mock
+    private FraudCheckHistoryWriter historyWriter;
+    @Mock
+    private FraudEngine fraudEngine;
+    @Captor
+    private ArgumentCaptor<List<FraudCheckHistory>> written;
+
+    private FraudCheckService underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new FraudCheckService(historyWriter, new SimpleMeterRegistry(), fraudEngine, 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void checkAll_returnsVerdictsAndWritesHistoryOnce() {
+        when(fraudEngine.isFraudster(1)).thenReturn(false);
+        when(fraudEngine.isFraudster(2)).thenReturn(true);
+
+        var verdicts = underTest.checkAll(List.of(1, 2));
+
+        assertThat(verdicts).containsExactly(new FraudVerdict(1, false), new FraudVerdict(2, true));
+        verify(historyWriter).writeAll(written.capture());
+        verify(historyWriter, never()).write(any());
+        assertThat(written.getValue())
+                .extracting(FraudCheckHistory::getCustomerId, FraudCheckHistory::getIsFraudster)
+                .containsExactly(tuple(1, false), tuple(2, true));
+    }
+
+    @Test
+    void isFraudulentCustomer_cachedVerdictSkipsEngine() {
+        when(fraudEngine.isFraudster(1)).thenReturn(true);
+
+        assertThat(underTest.isFraudulentCustomer(1)).isTrue();
+        assertThat(underTest.isFraudulentCustomer(1)).isTrue();
+
+        verify(fraudEngine, times(1)).isFraudster(1);
+        verify(historyWriter, times(2)).write(any());
+    }
+
+    @Test
+    void invalidate_forcesReevaluation() {
+        when(fraudEngine.isFraudster(1)).thenReturn(false, true);
+
+        assertThat(underTest.isFraudulentCustomer(1)).isFalse();
+        underTest.invalidate(1);
+
+        assertThat(underTest.isFraudulentCustomer(1)).isTrue();
+    }
+}
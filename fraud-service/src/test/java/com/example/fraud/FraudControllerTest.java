@@ -0,0 +1,74 @@
+package com.example.fraud;
+
+import com.example.clients.fraud.FraudVerdict;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(FraudController.class)
+@TestPropertySource(properties = {
+        "spring.profiles.active=default"
+})
+class FraudControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private FraudCheckService fraudCheckService;
+
+    @Test
+    void isFraudster() throws Exception {
+        when(fraudCheckService.isFraudulentCustomer(7)).thenReturn(true);
+
+        mockMvc.perform(get("/api/v1/fraud-check/7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.isFraudster").value(true));
+    }
+
+    @Test
+    void checkAll() throws Exception {
+        when(fraudCheckService.checkAll(List.of(1, 2)))
+                .thenReturn(List.of(new FraudVerdict(1, false), new FraudVerdict(2, true)));
+
+        mockMvc.perform(post("/api/v1/fraud-check/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, 2]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[1].customerId").value(2))
+                .andExpect(jsonPath("$[1].isFraudster").value(true));
+    }
+
+    @Test
+    void checkAll_rejectsNullIds() throws Exception {
+        mockMvc.perform(post("/api/v1/fraud-check/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, null]"))
+                .andExpect(status().isBadRequest());
+        verify(fraudCheckService, never()).checkAll(any());
+    }
+
+    @Test
+    void checkAll_rejectsTooManyIds() throws Exception {
+        var ids = IntStream.rangeClosed(1, 1001).mapToObj(String::valueOf).collect(Collectors.joining(",", "[", "]"));
+
+        mockMvc.perform(post("/api/v1/fraud-check/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(ids))
+                .andExpect(status().isBadRequest());
+        verify(fraudCheckService, never()).checkAll(any());
+    }
+}
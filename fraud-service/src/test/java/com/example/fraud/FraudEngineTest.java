@@ -0,0 +1,145 @@
+package com.example.fraud;
+
+import com.example.clients.fraud.OperationEvent;
+import com.example.clients.fraud.OperationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static com.example.fraud.CustomerActivityWindow.HOUR_MILLIS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FraudEngineTest {
+
+    private static final long NOW = 10 * HOUR_MILLIS;
+
+    private FraudRulesProps rules;
+
+    @BeforeEach
+    void setUp() {
+        rules = new FraudRulesProps();
+        rules.setMaxOpsPerMinute(2);
+        rules.setMaxOpsPerHour(5);
+        rules.setMaxDistinctRecipientsPerHour(2);
+        rules.setMaxCrossCurrencyRatio(0.5);
+        rules.setCrossCurrencyMinOps(3);
+        rules.setMaxAmountPerHour(Map.of("USD", BigDecimal.valueOf(1000)));
+        rules.setWindowCapacity(16);
+    }
+
+    private static OperationEvent deposit(int customerId, long amount, String currency, long at) {
+        return new OperationEvent(customerId, OperationType.DEPOSIT, BigDecimal.valueOf(amount), currency, null, null, at);
+    }
+
+    private static OperationEvent transfer(int customerId, int to, String from, String toCurrency, long at) {
+        return new OperationEvent(customerId, OperationType.TRANSFER, BigDecimal.ONE, from, to, toCurrency, at);
+    }
+
+    @Test
+    void violations_atThresholdIsClean() {
+        var engine = new FraudEngine(rules, new SimpleMeterRegistry());
+        engine.record(deposit(1, 1000, "USD", NOW - 10_000));
+        engine.record(deposit(1, 1, "RUB", NOW - 20 * 60_000));
+
+        assertThat(engine.violations(1, NOW)).isEmpty();
+    }
+
+    @Test
+    void record_skipsUnknownCurrencyAndAcceptsLowercase() {
+        var engine = new FraudEngine(rules, new SimpleMeterRegistry());
+        engine.record(deposit(1, 600, "XYZ", NOW - 3_000));
+        engine.record(deposit(1, 600, "usd", NOW - 2_000));
+
+        assertThat(engine.violations(1, NOW)).isEmpty();
+
+        engine.record(deposit(1, 600, "USD", NOW - 1_000));
+        assertThat(engine.violations(1, NOW)).contains("amount_per_hour");
+    }
+
+    @Test
+    void violations_aboveThresholds() {
+        var engine = new FraudEngine(rules, new SimpleMeterRegistry());
+        engine.record(deposit(1, 600, "USD", NOW - 3_000));
+        engine.record(deposit(1, 600, "USD", NOW - 2_000));
+        engine.record(deposit(1, 1, "RUB", NOW - 1_000));
+
+        assertThat(engine.violations(1, NOW)).containsExactly("ops_per_minute", "amount_per_hour");
+    }
+
+    @Test
+    void violations_recipientsAndCrossCurrency() {
+        var engine = new FraudEngine(rules, new SimpleMeterRegistry());
+        engine.record(transfer(1, 2, "RUB", "USD", NOW - 30 * 60_000));
+        engine.record(transfer(1, 3, "RUB", "CNY", NOW - 20 * 60_000));
+        engine.record(transfer(1, 4, "RUB", "RUB", NOW - 10 * 60_000));
+
+        assertThat(engine.violations(1, NOW)).containsExactly("distinct_recipients", "cross_currency_ratio");
+    }
+
+    @Test
+    void violations_transferToSelfIsNotRecipient() {
+        var engine = new FraudEngine(rules, new SimpleMeterRegistry());
+        for (int i = 0; i < 3; i++) {
+            engine.record(transfer(1, 1, "RUB", "RUB", NOW - (i + 1) * 10 * 60_000L));
+        }
+
+        assertThat(engine.violations(1, NOW)).isEmpty();
+    }
+
+    @Test
+    void evictIdle_removesOnlyIdleCustomers() {
+        var engine = new FraudEngine(rules, new SimpleMeterRegistry());
+        engine.record(deposit(1, 1, "RUB", NOW - 2 * HOUR_MILLIS));
+        engine.record(deposit(2, 1, "RUB", NOW - 1_000));
+
+        engine.evictIdle(NOW);
+
+        assertThat(engine.trackedCustomers()).isEqualTo(1);
+        assertThat(engine.violations(1, NOW)).isEmpty();
+    }
+
+    @Test
+    void evictIdle_concurrentRecordIsNotLost() throws InterruptedException {
+        rules.setMaxOpsPerHour(0);
+        var engine = new FraudEngine(rules, new SimpleMeterRegistry());
+        int customers = 2_000;
+        long now = System.currentTimeMillis();
+        for (int id = 1; id <= customers; id++) {
+            engine.record(deposit(id, 1, "RUB", now - 2 * HOUR_MILLIS));
+        }
+
+        var start = new CountDownLatch(1);
+        var evictor = Thread.ofPlatform().start(() -> {
+            await(start);
+            for (int i = 0; i < 50; i++) {
+                engine.evictIdle(now);
+            }
+        });
+        var recorder = Thread.ofPlatform().start(() -> {
+            await(start);
+            for (int id = 1; id <= customers; id++) {
+                engine.record(deposit(id, 1, "RUB", now));
+            }
+        });
+        start.countDown();
+        evictor.join();
+        recorder.join();
+
+        // свежая операция каждого клиента должна остаться в окне
+        for (int id = 1; id <= customers; id++) {
+            assertThat(engine.violations(id, now)).as("customer %d", id).contains("ops_per_hour");
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
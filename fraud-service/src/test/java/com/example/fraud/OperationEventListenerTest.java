@@ -0,0 +1,91 @@
+package com.example.fraud;
+
+import com.example.clients.fraud.OperationEvent;
+import com.example.clients.fraud.OperationType;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.kafka.listener.ConsumerSeekAware.ConsumerSeekCallback;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class OperationEventListenerTest {
+
+    private static final String TOPIC = "operation-events";
+    private static final TopicPartition P0 = new TopicPartition(TOPIC, 0);
+    private static final TopicPartition P1 = new TopicPartition(TOPIC, 1);
+
+    @Mock
+    private FraudEngine fraudEngine;
+    @Mock
+    private FraudCheckService fraudCheckService;
+    @Mock
+    private ConsumerSeekCallback callback;
+
+    private OperationEventListener underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new OperationEventListener(fraudEngine, fraudCheckService);
+    }
+
+    private static ConsumerRecord<String, OperationEvent> record(int partition, long offset) {
+        var event = OperationEvent.cash(1, OperationType.DEPOSIT, BigDecimal.TEN, "RUB");
+        return new ConsumerRecord<>(TOPIC, partition, offset, "1", event);
+    }
+
+    @Test
+    void onPartitionsAssigned_replaysHourOnlyOnFirstAssignment() {
+        underTest.onPartitionsAssigned(Map.of(P0, 0L), callback);
+        underTest.onPartitionsAssigned(Map.of(P0, 5L, P1, 0L), callback);
+
+        verify(callback).seekToTimestamp(eq(List.of(P0)), anyLong());
+        verify(callback).seekToTimestamp(eq(List.of(P1)), anyLong());
+        verifyNoMoreInteractions(callback);
+    }
+
+    @Test
+    void onOperation_redeliveredOffsetsAreSkipped() {
+        underTest.onPartitionsAssigned(Map.of(P0, 0L), callback);
+        underTest.onOperation(record(0, 10));
+        underTest.onOperation(record(0, 11));
+
+        // ребаланс: закоммичен был только offset 10, 11 приходит повторно
+        underTest.onPartitionsAssigned(Map.of(P0, 11L), callback);
+        underTest.onOperation(record(0, 11));
+        underTest.onOperation(record(0, 12));
+
+        verify(fraudEngine, times(3)).record(any());
+        verify(fraudCheckService, times(3)).invalidate(1);
+    }
+
+    @Test
+    void onOperation_offsetsTrackedPerPartition() {
+        underTest.onOperation(record(0, 7));
+        underTest.onOperation(record(1, 3));
+
+        verify(fraudEngine, times(2)).record(any());
+    }
+
+    @Test
+    void onOperation_skipsUnreadableRecord() {
+        underTest.onOperation(new ConsumerRecord<>(TOPIC, 0, 4L, "1", null));
+        underTest.onOperation(record(0, 5));
+
+        verify(fraudEngine).record(any());
+        verify(fraudCheckService).invalidate(1);
+    }
+}
@@ -6,18 +6,22 @@ import com.example.clients.cash.CashOperationRequest;
 import com.example.clients.customer.*;
 import com.example.clients.exchange.ExchangeClient;
 import com.example.clients.exchange.ExchangeRateDto;
+import com.example.clients.notification.NotificationClient;
+import com.example.clients.notification.NotificationPage;
 import com.example.clients.transfer.TransferClient;
 import com.example.clients.transfer.TransferRequest;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 @Slf4j
@@ -28,6 +32,14 @@ public class FrontUiService {
     private final ExchangeClient exchangeClient;
     private final CashClient cashClient;
     private final TransferClient transferClient;
+    private final NotificationClient notificationClient;
+
+    // последний полученный набор курсов и его версия в exchange-service
+    private final AtomicReference<VersionedRates> lastRates = new AtomicReference<>();
+
+    private record VersionedRates(List<ExchangeRateDto> rates, long version) {}
+
+    private static final int INBOX_PAGE_SIZE = 20;
 
     @CircuitBreaker(name = "customer-client", fallbackMethod = "getMainPageDataFallback")
     @Retry(name = "customer-client")
@@ -50,10 +62,22 @@ public class FrontUiService {
             null,
             null,
             null,
+            null,
             null
         );
     }
 
+    @CircuitBreaker(name = "customer-client", fallbackMethod = "searchUsersFallback")
+    @Retry(name = "customer-client")
+    public UserDirectoryPage searchUsers(String query, int page, int size) {
+        return customerClient.searchUsers(query, page, size);
+    }
+
+    public UserDirectoryPage searchUsersFallback(String query, int page, int size, Exception ex) {
+        log.error("Customer directory unavailable for query '{}'. Error: {}", query, ex.getMessage());
+        return new UserDirectoryPage(List.of(), page, size, false);
+    }
+
     public List<String> changePassword(String login, String password, String confirmPassword) {
         return customerClient.editPassword(login, new EditPasswordRequest(password, confirmPassword));
     }
@@ -107,14 +131,51 @@ public class FrontUiService {
         return List.of("Сервис редактирования профиля временно недоступен. Попробуйте позже.");
     }
 
+    /**
+     * Inbox текущего пользователя: notification-service определяет клиента по токену,
+     * который Feign передает из сессии; login - только для логов.
+     */
+    @CircuitBreaker(name = "notification-client", fallbackMethod = "getInboxFallback")
+    @Retry(name = "notification-client")
+    public NotificationPage getInbox(String login, Integer before) {
+        return notificationClient.getInbox(before, INBOX_PAGE_SIZE);
+    }
+
+    public NotificationPage getInboxFallback(String login, Integer before, Exception ex) {
+        // без уведомлений главная страница все равно должна открыться
+        log.warn("Notification service unavailable for user {}. Error: {}", login, ex.getMessage());
+        return new NotificationPage(List.of(), null, 0);
+    }
+
+    @CircuitBreaker(name = "notification-client", fallbackMethod = "markNotificationsReadFallback")
+    public void markNotificationsRead(String login, List<Integer> ids) {
+        notificationClient.markRead(ids);
+    }
+
+    public void markNotificationsReadFallback(String login, List<Integer> ids, Exception ex) {
+        log.warn("Could not mark notifications read for user {}. Error: {}", login, ex.getMessage());
+    }
+
     @CircuitBreaker(name = "exchange-client", fallbackMethod = "getExchangeRatesFallback")
     @Retry(name = "exchange-client")
     public List<ExchangeRateDto> getExchangeRates() {
         log.debug("Fetching exchange rates");
-        return exchangeClient.getRates();
+        var cached = lastRates.get();
+        var response = exchangeClient.getRatesSince(cached == null ? 0L : cached.version());
+        if (cached != null && response.getStatusCode().isSameCodeAs(HttpStatus.NO_CONTENT)) {
+            return cached.rates();
+        }
+        var rates = response.getBody() == null ? List.<ExchangeRateDto>of() : response.getBody();
+        lastRates.set(new VersionedRates(rates, ExchangeClient.versionOf(response)));
+        return rates;
     }
 
     public List<ExchangeRateDto> getExchangeRatesFallback(Exception ex) {
+        var cached = lastRates.get();
+        if (cached != null) {
+            log.warn("Exchange service unavailable. Using last known rates. Error: {}", ex.getMessage());
+            return cached.rates();
+        }
         log.error("Exchange service unavailable. Using default rates. Error: {}", ex.getMessage());
 
         return List.of(
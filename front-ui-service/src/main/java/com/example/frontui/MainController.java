@@ -1,10 +1,18 @@
 package com.example.frontui;
 
+import com.example.clients.customer.AccountDto;
+import com.example.clients.customer.UserDirectoryPage;
+import com.example.clients.notification.NotificationPage;
 import com.example.frontui.service.KeycloakAdminClientService;
+import com.example.frontui.service.NotificationStreamClient;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.annotation.RegisteredOAuth2AuthorizedClient;
 import org.springframework.security.oauth2.core.oidc.user.OidcUser;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -12,6 +20,8 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import reactor.core.publisher.Flux;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -25,6 +35,7 @@ public class MainController {
 
     private final FrontUiService frontUiService;
     private final KeycloakAdminClientService keycloakAdminClientService;
+    private final NotificationStreamClient notificationStreamClient;
 
     @GetMapping("/")
     public String index() {
@@ -33,13 +44,7 @@ public class MainController {
 
     @GetMapping("/main")
     public String main(Authentication authentication, Model model) {
-        String login;
-        if (authentication != null && authentication.getPrincipal() instanceof OidcUser oidcUser) {
-            login = oidcUser.getPreferredUsername();
-        } else {
-            // todo: fallback на пустую строку или прямая ошибка
-            login = "";
-        }
+        String login = loginOf(authentication);
 
         log.info("Main page requested for user: {}", login);
 
@@ -59,6 +64,7 @@ public class MainController {
             model.addAttribute("cashErrors", mainData.cashErrors());
             model.addAttribute("transferErrors", mainData.transferErrors());
             model.addAttribute("transferOtherErrors", mainData.transferOtherErrors());
+            addInbox(model, mainData.login(), mainData.customerId());
 
             return "main";
         } catch (Exception e) {
@@ -69,6 +75,66 @@ public class MainController {
         }
     }
 
+    /**
+     * Поиск получателя перевода (подгружается со страницы main по мере ввода)
+     */
+    @GetMapping("/users")
+    @ResponseBody
+    public UserDirectoryPage searchUsers(
+            @RequestParam(value = "query", defaultValue = "") String query,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        return frontUiService.searchUsers(query, page, size);
+    }
+
+    /**
+     * Следующая страница уведомлений (кнопка "Показать еще" на main)
+     */
+    @GetMapping("/notifications")
+    @ResponseBody
+    public NotificationPage notifications(
+            Authentication authentication,
+            @RequestParam(value = "before", required = false) Integer before) {
+        return frontUiService.getInbox(loginOf(authentication), before);
+    }
+
+    /**
+     * Текущие балансы счетов: main перечитывает их по событию "balance" из потока уведомлений
+     */
+    @GetMapping("/accounts")
+    @ResponseBody
+    public List<AccountDto> accounts(Authentication authentication) {
+        return frontUiService.getMainPageData(loginOf(authentication)).accounts();
+    }
+
+    /**
+     * Новые уведомления и изменения балансов без перезагрузки main (EventSource на странице).
+     * Поток открывается с токеном сессии - подписаться на чужие уведомления нельзя.
+     */
+    @GetMapping(path = "/notifications/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public Flux<ServerSentEvent<String>> notificationStream(
+            Authentication authentication,
+            @RegisteredOAuth2AuthorizedClient("keycloak") OAuth2AuthorizedClient authorizedClient) {
+        return notificationStreamClient.stream(loginOf(authentication), authorizedClient.getAccessToken().getTokenValue());
+    }
+
+    /**
+     * Отмечает прочитанными уведомления, показанные на странице (ids из формы).
+     * Чьи уведомления отмечать, notification-service берет из токена сессии, а не из формы
+     */
+    @PostMapping("/user/{login}/notifications/read")
+    public String markNotificationsRead(
+            @PathVariable("login") String login,
+            @RequestParam(value = "ids", required = false) List<Integer> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return "redirect:/main";
+        }
+        log.info("Mark {} notifications read for user {}", ids.size(), login);
+        frontUiService.markNotificationsRead(login, ids);
+        return "redirect:/main";
+    }
+
     @PostMapping("/user/{login}/editPassword")
     public String editPassword(
             @PathVariable("login") String login,
@@ -95,9 +161,26 @@ public class MainController {
                 "users", mainData.users(),
                 field, errors
         ));
+        addInbox(model, mainData.login(), mainData.customerId());
         return "main";
     }
 
+    private void addInbox(Model model, String login, Integer customerId) {
+        // customerId нет, если customer-service ответил fallback-ом
+        if (customerId == null) {
+            return;
+        }
+        model.addAttribute("inbox", frontUiService.getInbox(login, null));
+    }
+
+    private static String loginOf(Authentication authentication) {
+        if (authentication != null && authentication.getPrincipal() instanceof OidcUser oidcUser) {
+            return oidcUser.getPreferredUsername();
+        }
+        // todo: fallback на пустую строку или прямая ошибка
+        return "";
+    }
+
     @GetMapping("/signup")
     public String signup() {
         return "signup";
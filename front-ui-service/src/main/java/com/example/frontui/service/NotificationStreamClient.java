@@ -0,0 +1,48 @@
+package com.example.frontui.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+/**
+ * SSE-поток уведомлений из notification-service. Feign занял бы поток на все время ответа,
+ * поэтому здесь WebClient: соединение обслуживается event loop-ом Netty, а не потоком запроса.
+ */
+@Slf4j
+@Service
+public class NotificationStreamClient {
+
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> EVENT_TYPE =
+            new ParameterizedTypeReference<>() {};
+
+    private final WebClient webClient;
+
+    public NotificationStreamClient(
+            WebClient.Builder webClientBuilder,
+            @Value("${clients.notification.url}") String notificationUrl) {
+        this.webClient = webClientBuilder.baseUrl(notificationUrl).build();
+    }
+
+    /**
+     * События отдаются браузеру как есть (data - JSON строкой). Ошибка upstream просто
+     * закрывает поток: EventSource в браузере переподключится сам.
+     * Чей поток открыть, notification-service определяет по токену пользователя; login - для логов.
+     */
+    public Flux<ServerSentEvent<String>> stream(String login, String accessToken) {
+        return webClient.get()
+                .uri("/api/v1/notifications/stream")
+                .headers(headers -> headers.setBearerAuth(accessToken))
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .retrieve()
+                .bodyToFlux(EVENT_TYPE)
+                .onErrorResume(e -> {
+                    log.warn("Notification stream for user {} closed: {}", login, e.getMessage());
+                    return Flux.empty();
+                });
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.notification.config;
+
+import feign.RequestInterceptor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+@Configuration
+public class FeignConfig {
+
+    /** Запрос в customer-service идет с токеном клиента, который открыл inbox */
+    @Bean
+    public RequestInterceptor relayJwt() {
+        return template -> {
+            var auth = SecurityContextHolder.getContext().getAuthentication();
+            if (auth instanceof JwtAuthenticationToken jwtAuth) {
+                template.header(
+                        "Authorization",
+                        "Bearer " + jwtAuth.getToken().getTokenValue()
+                );
+            }
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.notification.controller;
+
+import com.example.notification.service.DeadLetterReplayService;
+import com.example.notification.service.DeadLetterReplayService.ReplayFilter;
+import com.example.notification.service.DeadLetterReplayService.ReplayJob;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Админский запуск replay dead_letter_queue. Все поля фильтра необязательны:
+ * пустой фильтр прогоняет все записи в статусе NEW.
+ */
+@RestController
+@RequestMapping("/api/v1/admin/dlq/replay")
+@AllArgsConstructor
+@Slf4j
+public class DeadLetterQueueController {
+
+    private final DeadLetterReplayService replayService;
+
+    @PostMapping
+    public ResponseEntity<ReplayJob> start(@RequestBody ReplayFilter filter) {
+        if (filter.from() != null && filter.to() != null && !filter.from().isBefore(filter.to())) {
+            return ResponseEntity.badRequest().build();
+        }
+        log.info("DLQ replay requested with {}", filter);
+        return replayService.start(filter)
+                .map(job -> ResponseEntity.status(HttpStatus.ACCEPTED).body(job))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+
+    @GetMapping
+    public ResponseEntity<ReplayJob> current() {
+        return ResponseEntity.of(replayService.current());
+    }
+
+    @DeleteMapping
+    public ResponseEntity<ReplayJob> cancel() {
+        return ResponseEntity.of(replayService.cancel());
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.notification.controller;
+
+import com.example.clients.notification.NotificationPage;
+import com.example.notification.delivery.PushConnections;
+import com.example.notification.service.CustomerIdResolver;
+import com.example.notification.service.NotificationInboxService;
+import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/notifications")
+@AllArgsConstructor
+public class NotificationController {
+
+    private static final int MAX_MARK_READ = 1000;
+
+    private final NotificationInboxService inboxService;
+    private final PushConnections pushConnections;
+    private final CustomerIdResolver customerIdResolver;
+
+    /**
+     * Последние уведомления клиента из токена; следующая страница - before = nextBefore из ответа.
+     */
+    @GetMapping
+    public NotificationPage getInbox(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestParam(value = "before", required = false) Integer before,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        return inboxService.getInbox(customerIdResolver.resolve(jwt), before, size);
+    }
+
+    @GetMapping("/unread")
+    public long getUnreadCount(@AuthenticationPrincipal Jwt jwt) {
+        return inboxService.getUnreadCount(customerIdResolver.resolve(jwt));
+    }
+
+    /**
+     * Отмечает прочитанными показанные клиенту уведомления, возвращает оставшееся число непрочитанных
+     */
+    @PostMapping("/read")
+    public ResponseEntity<Long> markRead(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestParam(value = "ids", required = false) List<Integer> ids) {
+        if (ids != null && ids.size() > MAX_MARK_READ) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(inboxService.markRead(customerIdResolver.resolve(jwt), ids == null ? List.of() : ids));
+    }
+
+    /**
+     * SSE-поток новых уведомлений клиента из токена. Первым событием приходит текущее число непрочитанных,
+     * дальше - события "notification" по мере чтения из Kafka и "balance" после операций по счетам.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@AuthenticationPrincipal Jwt jwt) throws IOException {
+        var customerId = customerIdResolver.resolve(jwt);
+        var emitter = pushConnections.subscribe(customerId);
+        emitter.send(SseEmitter.event()
+                .name("unread")
+                .data(inboxService.getUnreadCount(customerId)));
+        return emitter;
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.notification.delivery;
+
+import com.example.notification.model.Notification;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.retry.Retry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Очередь и рабочие потоки одного канала. Каждый канал изолирован: медленный webhook
+ * не задерживает email и наоборот.
+ * Пачка (до batch-size, но не больше лимита rate limiter-а за период) берет разрешения
+ * rate limiter-а по числу уведомлений и повторяется по политике retry канала; если канал
+ * сообщил о частичной доставке ({@link PartialDeliveryException}), повторяются только неудавшиеся.
+ * Недоставленное (повторы исчерпаны, остаток очереди при остановке) durable-канал записывает
+ * в {@link PendingDeliveries}, откуда оно снова попадет в очередь.
+ */
+@Slf4j
+class ChannelWorker {
+
+    private static final long POLL_MILLIS = 200;
+
+    /** pendingId - строка PendingDelivery, если это повторная попытка */
+    record Delivery(Notification notification, Long pendingId) {}
+
+    private final NotificationChannel channel;
+    private final PendingDeliveries pendingDeliveries;
+    private final BlockingQueue<Delivery> queue;
+    private final RateLimiter rateLimiter;
+    private final Retry retry;
+    private final int batchSize;
+    private final Counter delivered;
+    private final Counter failed;
+    private final Counter dropped;
+    private final List<Thread> workers;
+
+    private volatile boolean running = true;
+
+    ChannelWorker(NotificationChannel channel, PendingDeliveries pendingDeliveries, RateLimiter rateLimiter, Retry retry,
+                  MeterRegistry meterRegistry, int queueCapacity, int batchSize, int threads) {
+        this.channel = channel;
+        this.pendingDeliveries = pendingDeliveries;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.rateLimiter = rateLimiter;
+        this.retry = retry;
+        this.batchSize = Math.min(batchSize, rateLimiter.getRateLimiterConfig().getLimitForPeriod());
+
+        Gauge.builder("notification_delivery_queue_size", queue, BlockingQueue::size)
+                .description("Notifications waiting for delivery")
+                .tag("channel", channel.name())
+                .register(meterRegistry);
+        this.delivered = counter(meterRegistry, "delivered");
+        this.failed = counter(meterRegistry, "failed");
+        this.dropped = counter(meterRegistry, "dropped");
+
+        this.workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            workers.add(Thread.ofPlatform()
+                    .name("notification-" + channel.name() + "-" + i)
+                    .daemon(true)
+                    .start(this::run));
+        }
+    }
+
+    private Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("notification_delivery_total")
+                .description("Notifications processed by delivery channels")
+                .tag("channel", channel.name())
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    String name() {
+        return channel.name();
+    }
+
+    boolean supports(Notification notification) {
+        return channel.supports(notification);
+    }
+
+    boolean durable() {
+        return channel.durable();
+    }
+
+    /**
+     * Не блокирует: при полной очереди возвращает false и счетчик dropped растет;
+     * что делать с непринятым уведомлением, решает вызывающий.
+     */
+    boolean offer(Delivery delivery) {
+        if (!running || !queue.offer(delivery)) {
+            dropped.increment();
+            return false;
+        }
+        return true;
+    }
+
+    private void run() {
+        List<Delivery> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                var first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                deliver(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void deliver(List<Delivery> batch) {
+        // то, что еще не доставлено; после частичной доставки повторяется только остаток
+        List<Delivery> remaining = new ArrayList<>(batch);
+        Throwable error = null;
+        try {
+            retry.executeCheckedSupplier(() -> {
+                RateLimiter.waitForPermission(rateLimiter, remaining.size());
+                try {
+                    channel.deliver(remaining.stream().map(Delivery::notification).toList());
+                } catch (PartialDeliveryException e) {
+                    Set<Notification> failedNotifications = Collections.newSetFromMap(new IdentityHashMap<>());
+                    failedNotifications.addAll(e.getFailed());
+                    remaining.removeIf(delivery -> !failedNotifications.contains(delivery.notification()));
+                    throw e;
+                }
+                remaining.clear();
+                return null;
+            });
+        } catch (Throwable e) {
+            error = e;
+        }
+        delivered.increment(batch.size() - remaining.size());
+        if (!durable()) {
+            if (error != null) {
+                failed.increment(remaining.size());
+                log.warn("Channel {} failed to deliver {} notifications: {}", channel.name(), remaining.size(), error.getMessage());
+            }
+            return;
+        }
+        pendingDeliveries.resolve(batch.stream()
+                .filter(delivery -> delivery.pendingId() != null && !remaining.contains(delivery))
+                .map(Delivery::pendingId)
+                .toList());
+        if (error != null) {
+            failed.increment(remaining.size());
+            log.warn("Channel {} failed to deliver {} notifications, will retry later: {}",
+                    channel.name(), remaining.size(), error.getMessage());
+            // у повторных попыток строка уже есть и сдвинута на следующую попытку
+            recordNew(remaining, error.getMessage());
+        }
+    }
+
+    private void recordNew(List<Delivery> deliveries, String error) {
+        pendingDeliveries.record(channel.name(), deliveries.stream()
+                .filter(delivery -> delivery.pendingId() == null)
+                .map(Delivery::notification)
+                .toList(), error);
+    }
+
+    void shutdown(Duration timeout) throws InterruptedException {
+        running = false;
+        long deadline = System.nanoTime() + timeout.toNanos();
+        for (Thread worker : workers) {
+            worker.join(Duration.ofNanos(Math.max(0, deadline - System.nanoTime())));
+        }
+        workers.forEach(Thread::interrupt);
+        if (!queue.isEmpty()) {
+            List<Delivery> left = new ArrayList<>(queue.size());
+            queue.drainTo(left);
+            log.warn("Channel {} stopped with {} undelivered notifications", channel.name(), left.size());
+            if (durable()) {
+                recordNew(left, "service stopped");
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.notification.delivery;
+
+import com.example.notification.model.Notification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Email по SMTP. Пачка уходит одной SMTP-сессией (JavaMailSender.send(messages...)).
+ * Если часть писем не ушла, JavaMailSender сообщает какие (MailSendException.getFailedMessages()) -
+ * повторяются только они, остальные получатели второе письмо не получат.
+ * Локально - любой SMTP stand-in, например mailpit из docker-compose.
+ */
+@Component
+@ConditionalOnProperty(name = "notification.delivery.email.enabled", havingValue = "true")
+public class EmailChannel implements NotificationChannel {
+
+    private final JavaMailSender mailSender;
+    private final String from;
+    private final String subject;
+
+    public EmailChannel(
+            JavaMailSender mailSender,
+            @Value("${notification.delivery.email.from}") String from,
+            @Value("${notification.delivery.email.subject}") String subject) {
+        this.mailSender = mailSender;
+        this.from = from;
+        this.subject = subject;
+    }
+
+    @Override
+    public String name() {
+        return "email";
+    }
+
+    @Override
+    public boolean supports(Notification notification) {
+        // transfer-service кладет в получателя имя, а не адрес
+        var to = notification.getToCustomerEmail();
+        return to != null && to.contains("@");
+    }
+
+    @Override
+    public void deliver(List<Notification> batch) throws PartialDeliveryException {
+        var messages = batch.stream()
+                .map(this::toMessage)
+                .toArray(SimpleMailMessage[]::new);
+        try {
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            var failedMessages = e.getFailedMessages();
+            if (failedMessages.isEmpty()) {
+                // соединение/аутентификация: не ушло ничего
+                throw e;
+            }
+            // ключи - исходные объекты сообщений; сравниваем по ссылке, одинаковые письма разным строкам не путаем
+            Set<Object> failedKeys = Collections.newSetFromMap(new IdentityHashMap<>());
+            failedKeys.addAll(failedMessages.keySet());
+            List<Notification> failed = new ArrayList<>(failedKeys.size());
+            for (int i = 0; i < messages.length; i++) {
+                if (failedKeys.contains(messages[i])) {
+                    failed.add(batch.get(i));
+                }
+            }
+            throw new PartialDeliveryException(failed, e);
+        }
+    }
+
+    private SimpleMailMessage toMessage(Notification notification) {
+        var message = new SimpleMailMessage();
+        message.setFrom(from);
+        message.setTo(notification.getToCustomerEmail());
+        message.setSubject(subject);
+        message.setText(notification.getMessage());
+        return message;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.notification.delivery;
+
+import com.example.notification.model.Notification;
+
+import java.util.List;
+
+/**
+ * Канал доставки уведомлений (email, webhook, ...). Реализации - Spring-бины,
+ * {@link NotificationDeliveryService} подхватывает все включенные каналы.
+ */
+public interface NotificationChannel {
+
+    /** Имя канала: используется в метриках и как имя инстанса resilience4j retry/ratelimiter */
+    String name();
+
+    /** Можно ли доставить уведомление этим каналом (например, есть ли у получателя email) */
+    default boolean supports(Notification notification) {
+        return true;
+    }
+
+    /**
+     * Недоставленное записывается в БД и позже снова ставится в очередь. Для канала, где
+     * повтор бессмысленен (push в уже закрытое соединение), - false.
+     */
+    default boolean durable() {
+        return true;
+    }
+
+    /**
+     * Доставляет пачку; исключение означает, что пачка будет повторена целиком.
+     * Если часть пачки уже доставлена, канал бросает {@link PartialDeliveryException}
+     * с недоставленными - повторяются только они.
+     * Вызывается только из рабочих потоков канала, поэтому может блокироваться.
+     */
+    void deliver(List<Notification> batch) throws Exception;
+}
@@ -0,0 +1,118 @@
+package com.example.notification.delivery;
+
+import com.example.notification.model.Notification;
+import com.example.notification.model.PendingDelivery;
+import com.example.notification.repository.NotificationRepository;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Доставка сохраненных уведомлений по всем включенным каналам.
+ * {@link #dispatch} только раскладывает уведомления по ограниченным очередям каналов и сразу возвращается,
+ * поэтому поток Kafka listener-а не ждет ни SMTP, ни webhook и lag консьюмера от них не зависит.
+ * Лимиты и retry задаются в resilience4j.ratelimiter/retry.instances.&lt;имя канала&gt;.
+ * Не принятое durable-каналом (очередь полна) и недоставленное записывается в {@link PendingDeliveries},
+ * {@link #redeliver()} по расписанию возвращает созревшие записи в очереди каналов.
+ */
+@Service
+@Slf4j
+public class NotificationDeliveryService {
+
+    private final List<ChannelWorker> workers;
+    private final PendingDeliveries pendingDeliveries;
+    private final NotificationRepository notificationRepository;
+    private final Duration shutdownTimeout;
+    private final int redeliveryBatchSize;
+
+    public NotificationDeliveryService(
+            List<NotificationChannel> channels,
+            PendingDeliveries pendingDeliveries,
+            NotificationRepository notificationRepository,
+            RateLimiterRegistry rateLimiterRegistry,
+            RetryRegistry retryRegistry,
+            MeterRegistry meterRegistry,
+            @Value("${notification.delivery.queue-capacity:10000}") int queueCapacity,
+            @Value("${notification.delivery.batch-size:50}") int batchSize,
+            @Value("${notification.delivery.workers:2}") int workersPerChannel,
+            @Value("${notification.delivery.shutdown-timeout:10s}") Duration shutdownTimeout,
+            @Value("${notification.delivery.redelivery.batch-size:100}") int redeliveryBatchSize) {
+        this.workers = channels.stream()
+                .map(channel -> new ChannelWorker(
+                        channel,
+                        pendingDeliveries,
+                        rateLimiterRegistry.rateLimiter(channel.name()),
+                        retryRegistry.retry(channel.name()),
+                        meterRegistry,
+                        queueCapacity,
+                        batchSize,
+                        workersPerChannel))
+                .toList();
+        this.pendingDeliveries = pendingDeliveries;
+        this.notificationRepository = notificationRepository;
+        this.shutdownTimeout = shutdownTimeout;
+        this.redeliveryBatchSize = redeliveryBatchSize;
+        log.info("Notification delivery channels: {}", workers.stream().map(ChannelWorker::name).toList());
+    }
+
+    public void dispatch(List<Notification> notifications) {
+        for (ChannelWorker worker : workers) {
+            List<Notification> rejected = new ArrayList<>();
+            for (Notification notification : notifications) {
+                if (worker.supports(notification) && !worker.offer(new ChannelWorker.Delivery(notification, null))) {
+                    rejected.add(notification);
+                }
+            }
+            if (!rejected.isEmpty() && worker.durable()) {
+                pendingDeliveries.record(worker.name(), rejected, "delivery queue full");
+            }
+        }
+    }
+
+    /**
+     * Возвращает созревшие недоставленные уведомления в очереди их каналов. Если очередь снова
+     * полна, строка остается и придет после следующей паузы.
+     */
+    @Scheduled(fixedDelayString = "${notification.delivery.redelivery.interval:10000}")
+    public void redeliver() {
+        var due = pendingDeliveries.claimDue(redeliveryBatchSize);
+        if (due.isEmpty()) {
+            return;
+        }
+        Map<Integer, Notification> notifications = notificationRepository
+                .findAllById(due.stream().map(PendingDelivery::getNotificationId).distinct().toList()).stream()
+                .collect(Collectors.toMap(Notification::getNotificationId, Function.identity()));
+        List<Long> orphaned = new ArrayList<>();
+        for (PendingDelivery pending : due) {
+            var notification = notifications.get(pending.getNotificationId());
+            var worker = workers.stream().filter(w -> w.name().equals(pending.getChannel())).findFirst();
+            if (notification == null || worker.isEmpty()) {
+                // уведомление удалено или канал выключен - доставлять некуда
+                orphaned.add(pending.getId());
+                continue;
+            }
+            worker.get().offer(new ChannelWorker.Delivery(notification, pending.getId()));
+        }
+        pendingDeliveries.resolve(orphaned);
+        log.info("Re-queued {} undelivered notifications", due.size() - orphaned.size());
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (ChannelWorker worker : workers) {
+            worker.shutdown(shutdownTimeout);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.notification.delivery;
+
+import com.example.notification.model.Notification;
+
+import java.util.List;
+
+/**
+ * Часть пачки доставлена, часть нет. Повторяются только {@link #getFailed()},
+ * уже доставленные повторно не отправляются.
+ */
+public class PartialDeliveryException extends Exception {
+
+    private final transient List<Notification> failed;
+
+    public PartialDeliveryException(List<Notification> failed, Throwable cause) {
+        super("Failed to deliver " + failed.size() + " notifications: " + cause.getMessage(), cause);
+        this.failed = failed;
+    }
+
+    public List<Notification> getFailed() {
+        return failed;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.notification.delivery;
+
+import com.example.notification.model.DeliveryStatus;
+import com.example.notification.model.Notification;
+import com.example.notification.model.PendingDelivery;
+import com.example.notification.repository.PendingDeliveryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Статус недоставленных уведомлений в БД. Каналы записывают сюда то, что не смогли доставить,
+ * {@link NotificationDeliveryService#redeliver()} забирает созревшие строки и снова ставит их в очередь.
+ * Пауза между попытками удваивается от initial-backoff до max-backoff; после max-attempts - FAILED.
+ */
+@Component
+@Slf4j
+public class PendingDeliveries {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final PendingDeliveryRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+
+    public PendingDeliveries(
+            PendingDeliveryRepository repository,
+            TransactionTemplate transactionTemplate,
+            @Value("${notification.delivery.redelivery.max-attempts:10}") int maxAttempts,
+            @Value("${notification.delivery.redelivery.initial-backoff:30s}") Duration initialBackoff,
+            @Value("${notification.delivery.redelivery.max-backoff:30m}") Duration maxBackoff) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    /**
+     * Вызывается из потока listener-а и рабочих потоков каналов: ошибка БД только логируется,
+     * уведомление при этом остается в inbox.
+     */
+    public void record(String channel, List<Notification> notifications, String error) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        var next = LocalDateTime.now().plus(initialBackoff);
+        var lastError = error == null || error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+        try {
+            repository.saveAll(notifications.stream()
+                    .map(notification -> PendingDelivery.builder()
+                            .notificationId(notification.getNotificationId())
+                            .channel(channel)
+                            .nextAttemptAt(next)
+                            .lastError(lastError)
+                            .build())
+                    .toList());
+        } catch (RuntimeException e) {
+            log.error("Failed to record {} undelivered notifications of channel {}: {}",
+                    notifications.size(), channel, e.getMessage(), e);
+        }
+    }
+
+    /** Доставлено - строки больше не нужны */
+    public void resolve(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            repository.deleteAllByIdInBatch(ids);
+        } catch (RuntimeException e) {
+            // строка придет еще раз - повторная доставка лучше потерянной
+            log.error("Failed to resolve {} pending deliveries: {}", ids.size(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Забирает созревшие строки и сразу сдвигает их следующую попытку, поэтому строку не возьмут
+     * ни параллельный инстанс, ни следующий опрос, пока идет доставка.
+     */
+    public List<PendingDelivery> claimDue(int limit) {
+        return transactionTemplate.execute(status -> {
+            var now = LocalDateTime.now();
+            var due = repository.findDueForUpdate(now, limit);
+            for (PendingDelivery delivery : due) {
+                int attempts = delivery.getAttempts() + 1;
+                delivery.setAttempts(attempts);
+                delivery.setNextAttemptAt(now.plus(backoff(attempts)));
+                if (attempts >= maxAttempts) {
+                    // последняя попытка: не доставится - так и останется FAILED
+                    delivery.setStatus(DeliveryStatus.FAILED);
+                }
+            }
+            return due;
+        });
+    }
+
+    Duration backoff(int attempts) {
+        long factor = 1L << Math.min(attempts, 20);
+        var backoff = initialBackoff.multipliedBy(factor);
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.notification.delivery;
+
+import com.example.clients.notification.NotificationDto;
+import com.example.notification.model.Notification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Push новых уведомлений в браузер. Уведомления из общего consumer-а достаются инстансу только
+ * с его партиций, а SSE-соединение клиента может быть открыто на другом инстансе, поэтому канал
+ * не пишет в соединения сам, а публикует пачку в топик рассылки. Его читает {@link PushEventListener}
+ * каждого инстанса и отдает в свои соединения ({@link PushConnections}).
+ */
+@Component
+public class PushChannel implements NotificationChannel {
+
+    private final KafkaTemplate<String, PushedNotification> kafkaTemplate;
+    private final String topic;
+    private final long sendTimeoutMillis;
+
+    public PushChannel(
+            KafkaTemplate<String, PushedNotification> kafkaTemplate,
+            @Value("${notification.delivery.push.topic:notification-push}") String topic,
+            @Value("${notification.delivery.push.send-timeout:10s}") Duration sendTimeout) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.topic = topic;
+        this.sendTimeoutMillis = sendTimeout.toMillis();
+    }
+
+    @Override
+    public String name() {
+        return "push";
+    }
+
+    /** Уведомление в любом случае есть в inbox, повторять push позже незачем */
+    @Override
+    public boolean durable() {
+        return false;
+    }
+
+    /** Открыто ли у клиента соединение, знает только его инстанс - рассылаем всем с получателем */
+    @Override
+    public boolean supports(Notification notification) {
+        return notification.getToCustomerId() != null;
+    }
+
+    /**
+     * Отправляет пачку целиком и ждет подтверждения Kafka; ошибка отправки - повтор по resilience4j.retry.push.
+     */
+    @Override
+    public void deliver(List<Notification> batch) throws Exception {
+        List<CompletableFuture<SendResult<String, PushedNotification>>> sent = batch.stream()
+                .map(notification -> kafkaTemplate.send(topic, String.valueOf(notification.getToCustomerId()),
+                        new PushedNotification(notification.getToCustomerId(), toDto(notification))))
+                .toList();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        for (var future : sent) {
+            future.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static NotificationDto toDto(Notification notification) {
+        return new NotificationDto(
+                notification.getNotificationId(),
+                notification.getSender(),
+                notification.getMessage(),
+                notification.getSentAt(),
+                false);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.notification.delivery;
+
+import com.example.clients.notification.NotificationDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Открытые SSE-соединения браузеров (через front-ui) этого инстанса.
+ * События в них кладет {@link PushEventListener}: он читает все партиции на каждом инстансе,
+ * поэтому клиент получает push, к какому бы инстансу ни было открыто его соединение.
+ * Соединение держится асинхронно и поток запроса не занимает.
+ */
+@Component
+@Slf4j
+public class PushConnections {
+
+    public static final String NOTIFICATION_EVENT = "notification";
+    public static final String BALANCE_EVENT = "balance";
+
+    private final Map<Integer, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final long timeoutMillis;
+
+    public PushConnections(
+            MeterRegistry meterRegistry,
+            @Value("${notification.delivery.push.timeout:30m}") Duration timeout) {
+        this.timeoutMillis = timeout.toMillis();
+        Gauge.builder("notification_push_connections", subscribers,
+                        map -> map.values().stream().mapToInt(Set::size).sum())
+                .description("Open SSE connections waiting for notifications")
+                .register(meterRegistry);
+    }
+
+    /**
+     * По истечении таймаута соединение закрывается, EventSource в браузере переподключается сам.
+     */
+    public SseEmitter subscribe(Integer customerId) {
+        var emitter = new SseEmitter(timeoutMillis);
+        register(customerId, emitter);
+        return emitter;
+    }
+
+    public boolean isSubscribed(Integer customerId) {
+        return customerId != null && subscribers.containsKey(customerId);
+    }
+
+    void register(Integer customerId, SseEmitter emitter) {
+        // добавляем внутри compute: иначе параллельный unregister последнего соединения клиента
+        // может удалить из map набор, в который только что добавлено новое
+        subscribers.compute(customerId, (id, emitters) -> {
+            var registered = emitters == null ? ConcurrentHashMap.<SseEmitter>newKeySet() : emitters;
+            registered.add(emitter);
+            return registered;
+        });
+        emitter.onCompletion(() -> unregister(customerId, emitter));
+        emitter.onTimeout(() -> unregister(customerId, emitter));
+        emitter.onError(e -> unregister(customerId, emitter));
+    }
+
+    void unregister(Integer customerId, SseEmitter emitter) {
+        subscribers.computeIfPresent(customerId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+
+    /** Новое уведомление во все вкладки клиента */
+    public void sendNotification(Integer customerId, NotificationDto notification) {
+        send(customerId, () -> SseEmitter.event()
+                .id(String.valueOf(notification.id()))
+                .name(NOTIFICATION_EVENT)
+                .data(notification, MediaType.APPLICATION_JSON));
+    }
+
+    /** Изменился баланс счета в валюте currency: страница перечитывает балансы сама */
+    public void sendBalanceChange(Integer customerId, String currency) {
+        send(customerId, () -> SseEmitter.event()
+                .name(BALANCE_EVENT)
+                .data(currency));
+    }
+
+    /**
+     * Не бросает исключений: оборванное соединение просто удаляется, повторять событие ради
+     * остальных вкладок не нужно - уведомление и так есть в inbox, балансы - на странице после перезагрузки.
+     */
+    private void send(Integer customerId, Supplier<SseEmitter.SseEventBuilder> event) {
+        var emitters = subscribers.get(customerId);
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            try {
+                // builder накапливает состояние, на каждое соединение нужен свой
+                emitter.send(event.get());
+            } catch (IOException | IllegalStateException e) {
+                // завершать emitter не нужно: об оборванном соединении сообщит сам контейнер
+                log.debug("SSE connection of customer {} closed: {}", customerId, e.getMessage());
+                unregister(customerId, emitter);
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.notification.delivery;
+
+import com.example.clients.fraud.OperationEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Раздает события в SSE-соединения этого инстанса. Соединения живут в памяти инстанса, поэтому
+ * у каждого своя группа (как у snapshot-слушателей fraud- и exchange-service): все партиции читает
+ * каждый инстанс. Старые события открытым сейчас вкладкам не нужны - читаем с конца топика.
+ * Нечитаемое сообщение приходит null (ErrorHandlingDeserializer) и пропускается.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PushEventListener {
+
+    private final PushConnections connections;
+
+    @KafkaListener(
+            topics = "${notification.delivery.push.topic:notification-push}",
+            groupId = "notification-service-push-${random.uuid}",
+            properties = {
+                    "auto.offset.reset=latest",
+                    "spring.deserializer.value.delegate.class=org.springframework.kafka.support.serializer.JsonDeserializer",
+                    "spring.json.value.default.type=com.example.notification.delivery.PushedNotification",
+                    "spring.json.use.type.headers=false"
+            }
+    )
+    public void onNotification(ConsumerRecord<String, PushedNotification> record) {
+        var pushed = record.value();
+        if (pushed == null || pushed.notification() == null) {
+            log.warn("Skipping unreadable push event at {}-{}@{}", record.topic(), record.partition(), record.offset());
+            return;
+        }
+        connections.sendNotification(pushed.customerId(), pushed.notification());
+    }
+
+    /**
+     * Совершенные операции cash- и transfer-service: баланс изменился у отправителя и, для перевода,
+     * у получателя. Суммы в событие не кладем - страница перечитывает балансы сама.
+     */
+    @KafkaListener(
+            topics = "${notification.delivery.push.operation-events-topic:operation-events}",
+            groupId = "notification-service-balance-${random.uuid}",
+            properties = {
+                    "auto.offset.reset=latest",
+                    "spring.deserializer.value.delegate.class=org.springframework.kafka.support.serializer.JsonDeserializer",
+                    "spring.json.value.default.type=com.example.clients.fraud.OperationEvent",
+                    "spring.json.use.type.headers=false"
+            }
+    )
+    public void onOperation(ConsumerRecord<String, OperationEvent> record) {
+        var event = record.value();
+        if (event == null) {
+            log.warn("Skipping unreadable operation event at {}-{}@{}", record.topic(), record.partition(), record.offset());
+            return;
+        }
+        if (connections.isSubscribed(event.customerId())) {
+            connections.sendBalanceChange(event.customerId(), event.currency());
+        }
+        if (connections.isSubscribed(event.toCustomerId())) {
+            connections.sendBalanceChange(event.toCustomerId(), event.toCurrency());
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.notification.delivery;
+
+import com.example.clients.notification.NotificationDto;
+
+/**
+ * Сохраненное уведомление в топике рассылки push (notification.delivery.push.topic, ключ - customerId)
+ */
+public record PushedNotification(
+        Integer customerId,
+        NotificationDto notification
+) {
+}
@@ -0,0 +1,69 @@
+package com.example.notification.delivery;
+
+import com.example.notification.model.Notification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * POST пачки уведомлений JSON-массивом на внешний URL. Ответ не 2xx - ошибка, пачка повторяется.
+ */
+@Component
+@ConditionalOnProperty(name = "notification.delivery.webhook.enabled", havingValue = "true")
+public class WebhookChannel implements NotificationChannel {
+
+    record WebhookPayload(
+            Integer notificationId,
+            Integer toCustomerId,
+            String recipient,
+            String sender,
+            String message,
+            LocalDateTime sentAt
+    ) {}
+
+    private final RestClient restClient;
+    private final String url;
+
+    public WebhookChannel(
+            RestClient.Builder restClientBuilder,
+            @Value("${notification.delivery.webhook.url}") String url,
+            @Value("${notification.delivery.webhook.timeout:5s}") Duration timeout) {
+        var requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeout);
+        requestFactory.setReadTimeout(timeout);
+        this.restClient = restClientBuilder.requestFactory(requestFactory).build();
+        this.url = url;
+    }
+
+    @Override
+    public String name() {
+        return "webhook";
+    }
+
+    @Override
+    public void deliver(List<Notification> batch) {
+        restClient.post()
+                .uri(url)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(batch.stream().map(WebhookChannel::toPayload).toList())
+                .retrieve()
+                .toBodilessEntity();
+    }
+
+    private static WebhookPayload toPayload(Notification notification) {
+        return new WebhookPayload(
+                notification.getNotificationId(),
+                notification.getToCustomerId(),
+                notification.getToCustomerEmail(),
+                notification.getSender(),
+                notification.getMessage(),
+                notification.getSentAt());
+    }
+}
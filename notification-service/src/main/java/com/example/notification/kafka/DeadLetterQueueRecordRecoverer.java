@@ -1,36 +1,115 @@
 package com.example.notification.kafka;
 
+import com.example.clients.notification.NotificationRequest;
+import com.example.clients.notification.NotificationRequestSerializer;
 import com.example.notification.model.DeadLetterQueue;
 import com.example.notification.repository.DeadLetterQueueRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.core.log.LogAccessor;
 import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @Service
 public class DeadLetterQueueRecordRecoverer implements ConsumerRecordRecoverer {
 
     private static final Logger log = LoggerFactory.getLogger(DeadLetterQueueRecordRecoverer.class);
+    private static final LogAccessor LOG = new LogAccessor(DeadLetterQueueRecordRecoverer.class);
+
+    private static final int MAX_ERROR_MESSAGE_LENGTH = 2000;
 
     private final DeadLetterQueueRepository repository;
+    private final ObjectMapper objectMapper;
+    private final NotificationRequestSerializer serializer = new NotificationRequestSerializer();
 
-    public DeadLetterQueueRecordRecoverer(DeadLetterQueueRepository repository) {
+    public DeadLetterQueueRecordRecoverer(DeadLetterQueueRepository repository, ObjectMapper objectMapper) {
         this.repository = repository;
+        this.objectMapper = objectMapper;
     }
 
     @Override
-    public void accept(ConsumerRecord<?, ?> record, Exception e) {
+    public void accept(ConsumerRecord<?, ?> record, Exception exception) {
+        // batch-listener не видит заголовков записи: ошибку десериализации достаем из заголовка сами
+        var deserializationException = record.value() == null
+                ? SerializationUtils.getExceptionFromHeader(record, SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, LOG)
+                : null;
+        Exception e = deserializationException != null ? deserializationException : exception;
         DeadLetterQueue deadLetterQueue = new DeadLetterQueue();
-        deadLetterQueue.setMsgTopic(record.topic());
-        deadLetterQueue.setMsgPartition(record.partition());
-        deadLetterQueue.setMsgOffset(record.offset());
+        // для записей из топиков повторов - исходные топик, партиция и offset, чтобы replay, фильтры
+        // и поиск сообщения в Kafka работали по ним, а не по топику последнего уровня
+        deadLetterQueue.setMsgTopic(RetryTopics.originalTopic(record));
+        deadLetterQueue.setMsgPartition(RetryTopics.originalPartition(record));
+        deadLetterQueue.setMsgOffset(RetryTopics.originalOffset(record));
         if (record.key() instanceof String key) {
             deadLetterQueue.setMsgKey(key);
         }
-        deadLetterQueue.setErrorMessage(e.getMessage());
+        deadLetterQueue.setPayload(payloadOf(record, e));
+        deadLetterQueue.setHeaders(headersOf(record));
+        Throwable rootCause = NestedExceptionUtils.getMostSpecificCause(e);
+        deadLetterQueue.setErrorType(rootCause.getClass().getName());
+        deadLetterQueue.setErrorMessage(truncate(e.getMessage()));
+        deadLetterQueue.setFailedAt(LocalDateTime.now());
 
         repository.save(deadLetterQueue);
         log.info("Message {} saved to DLQ", record.key());
     }
+
+    /**
+     * Значение уже десериализовано слушателем, поэтому для replay оно сериализуется обратно
+     * в компактный формат; при ошибке десериализации (ErrorHandlingDeserializer) берутся
+     * исходные байты из исключения.
+     */
+    private byte[] payloadOf(ConsumerRecord<?, ?> record, Exception e) {
+        if (record.value() instanceof byte[] bytes) {
+            return bytes;
+        }
+        if (record.value() instanceof NotificationRequest request) {
+            return serializer.serialize(record.topic(), request);
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DeserializationException deserializationException) {
+                return deserializationException.getData();
+            }
+        }
+        return null;
+    }
+
+    private String headersOf(ConsumerRecord<?, ?> record) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (Header header : record.headers()) {
+            if (header.key().startsWith(SerializationUtils.DESERIALIZER_EXCEPTION_HEADER_PREFIX)) {
+                // сериализованное исключение: байты уже в payload, тип и текст - в error_type/error_message
+                continue;
+            }
+            headers.put(header.key(), header.value() == null ? null : Base64.getEncoder().encodeToString(header.value()));
+        }
+        if (headers.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(headers);
+        } catch (JsonProcessingException ex) {
+            log.warn("Can't serialize headers of {}-{}@{}: {}", record.topic(), record.partition(), record.offset(), ex.getMessage());
+            return null;
+        }
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_MESSAGE_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_MESSAGE_LENGTH);
+    }
 }
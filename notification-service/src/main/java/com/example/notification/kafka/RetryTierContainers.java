@@ -0,0 +1,83 @@
+package com.example.notification.kafka;
+
+import com.example.clients.notification.NotificationRequest;
+import com.example.notification.service.NotificationService;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.AcknowledgingMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Консьюмеры топиков повторов, по отдельному контейнеру на уровень: пауза одного уровня
+ * не задерживает остальные. Сообщение, срок которого не наступил, не обрабатывается:
+ * nack(остаток задержки) ставит партиции контейнера на паузу без блокировки потока и без ребаланса.
+ * В топике уровня у всех одинаковая задержка, поэтому сроки идут по порядку offset-ов.
+ */
+@Component
+@Slf4j
+public class RetryTierContainers implements SmartLifecycle {
+
+    private static final String GROUP_ID = "notification-group";
+
+    private final List<ConcurrentMessageListenerContainer<String, NotificationRequest>> containers;
+
+    public RetryTierContainers(
+            ConsumerFactory<String, NotificationRequest> consumerFactory,
+            RetryTopics retryTopics,
+            RetryTierRecoverer retryTierRecoverer,
+            NotificationService notificationService) {
+        AcknowledgingMessageListener<String, NotificationRequest> listener =
+                (record, ack) -> process(notificationService, record, ack);
+        this.containers = retryTopics.topics().stream()
+                .map(topic -> {
+                    var properties = new ContainerProperties(topic);
+                    properties.setGroupId(GROUP_ID);
+                    properties.setAckMode(ContainerProperties.AckMode.MANUAL);
+                    properties.setMessageListener(listener);
+                    var container = new ConcurrentMessageListenerContainer<>(consumerFactory, properties);
+                    container.setBeanName(topic);
+                    // уровень упал - в следующий уровень (или DLQ), без повторов на месте
+                    container.setCommonErrorHandler(new DefaultErrorHandler(retryTierRecoverer, new FixedBackOff(0, 0)));
+                    return container;
+                })
+                .toList();
+    }
+
+    private static void process(NotificationService notificationService,
+                                ConsumerRecord<String, NotificationRequest> record, Acknowledgment ack) {
+        long wait = RetryTopics.dueMillis(record) - System.currentTimeMillis();
+        if (wait > 0) {
+            ack.nack(Duration.ofMillis(wait));
+            return;
+        }
+        log.info("Retrying notification {} from {} (attempt {})",
+                record.key(), RetryTopics.originalTopic(record), RetryTopics.attempt(record));
+        notificationService.send(record.value());
+        ack.acknowledge();
+    }
+
+    @Override
+    public void start() {
+        containers.forEach(ConcurrentMessageListenerContainer::start);
+    }
+
+    @Override
+    public void stop() {
+        containers.forEach(ConcurrentMessageListenerContainer::stop);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return containers.stream().anyMatch(ConcurrentMessageListenerContainer::isRunning);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.notification.kafka;
+
+import com.example.clients.notification.NotificationRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.header.Header;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Убирает упавшее сообщение с основной партиции: отправляет его в топик следующего уровня повторов,
+ * а после последнего уровня (или для заведомо неисправимых ошибок) - в {@link DeadLetterQueueRecordRecoverer}.
+ * Отправка синхронная: если Kafka ее не подтвердила, исключение вернет запись обработчику ошибок
+ * и offset не будет закоммичен.
+ */
+@Component
+@Slf4j
+public class RetryTierRecoverer implements ConsumerRecordRecoverer {
+
+    private static final Set<String> RETRY_HEADERS = Set.of(
+            RetryTopics.ORIGINAL_TOPIC_HEADER, RetryTopics.ORIGINAL_PARTITION_HEADER, RetryTopics.ORIGINAL_OFFSET_HEADER,
+            RetryTopics.ATTEMPT_HEADER, RetryTopics.DUE_HEADER);
+
+    private final RetryTopics retryTopics;
+    private final DeadLetterQueueRecordRecoverer deadLetterQueueRecordRecoverer;
+    private final KafkaTemplate<String, NotificationRequest> kafkaTemplate;
+    private final long sendTimeoutMillis;
+
+    public RetryTierRecoverer(
+            RetryTopics retryTopics,
+            DeadLetterQueueRecordRecoverer deadLetterQueueRecordRecoverer,
+            KafkaTemplate<String, NotificationRequest> kafkaTemplate,
+            @Value("${notification.retry.send-timeout:10s}") Duration sendTimeout) {
+        this.retryTopics = retryTopics;
+        this.deadLetterQueueRecordRecoverer = deadLetterQueueRecordRecoverer;
+        this.kafkaTemplate = kafkaTemplate;
+        this.sendTimeoutMillis = sendTimeout.toMillis();
+    }
+
+    @Override
+    public void accept(ConsumerRecord<?, ?> record, Exception e) {
+        int attempt = RetryTopics.attempt(record);
+        if (attempt >= retryTopics.tiers() || !isRetryable(e) || !(record.value() instanceof NotificationRequest value)) {
+            deadLetterQueueRecordRecoverer.accept(record, e);
+            return;
+        }
+
+        var topic = retryTopics.topic(attempt);
+        var key = record.key() instanceof String k ? k : null;
+        var retryRecord = new ProducerRecord<String, NotificationRequest>(topic, key, value);
+        for (Header header : record.headers()) {
+            if (!RETRY_HEADERS.contains(header.key())) {
+                retryRecord.headers().add(header);
+            }
+        }
+        long due = System.currentTimeMillis() + retryTopics.delay(attempt).toMillis();
+        retryRecord.headers()
+                .add(RetryTopics.ORIGINAL_TOPIC_HEADER, bytes(RetryTopics.originalTopic(record)))
+                .add(RetryTopics.ORIGINAL_PARTITION_HEADER, bytes(String.valueOf(RetryTopics.originalPartition(record))))
+                .add(RetryTopics.ORIGINAL_OFFSET_HEADER, bytes(String.valueOf(RetryTopics.originalOffset(record))))
+                .add(RetryTopics.ATTEMPT_HEADER, bytes(String.valueOf(attempt + 1)))
+                .add(RetryTopics.DUE_HEADER, bytes(String.valueOf(due)));
+
+        try {
+            kafkaTemplate.send(retryRecord).get(sendTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new KafkaException("Interrupted while forwarding record to " + topic, ex);
+        } catch (ExecutionException | TimeoutException ex) {
+            throw new KafkaException("Can't forward record to " + topic, ex);
+        }
+        log.info("Message {} from {} moved to {} (attempt {}): {}",
+                key, record.topic(), topic, attempt + 1, e.getMessage());
+    }
+
+    /** Ошибки данных повтор не исправит - такие сообщения сразу в DLQ */
+    private static boolean isRetryable(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IllegalArgumentException || cause instanceof DeserializationException) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
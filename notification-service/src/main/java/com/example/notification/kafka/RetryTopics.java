@@ -0,0 +1,103 @@
+package com.example.notification.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Уровни повторов: на каждую задержку из notification.retry.delays свой топик
+ * (notification-retry-5s, notification-retry-30s, ...). Задержки растут экспоненциально,
+ * после последнего уровня сообщение уходит в dead_letter_queue.
+ * Состояние повтора едет в заголовках сообщения.
+ */
+@Component
+public class RetryTopics {
+
+    public static final String ORIGINAL_TOPIC_HEADER = "notification-original-topic";
+    public static final String ORIGINAL_PARTITION_HEADER = "notification-original-partition";
+    public static final String ORIGINAL_OFFSET_HEADER = "notification-original-offset";
+    public static final String ATTEMPT_HEADER = "notification-retry-attempt";
+    public static final String DUE_HEADER = "notification-retry-due";
+
+    private final List<Duration> delays;
+    private final List<String> topics;
+
+    public RetryTopics(
+            @Value("${notification.retry.topic-prefix:notification-retry}") String prefix,
+            @Value("${notification.retry.delays:5s,30s,3m}") List<Duration> delays) {
+        this.delays = List.copyOf(delays);
+        this.topics = delays.stream()
+                .map(delay -> prefix + "-" + label(delay))
+                .toList();
+    }
+
+    public int tiers() {
+        return delays.size();
+    }
+
+    /** Топик уровня; tier с нуля */
+    public String topic(int tier) {
+        return topics.get(tier);
+    }
+
+    public Duration delay(int tier) {
+        return delays.get(tier);
+    }
+
+    public List<String> topics() {
+        return topics;
+    }
+
+    /** Сколько повторов уже было: 0 - сообщение из основного топика */
+    public static int attempt(ConsumerRecord<?, ?> record) {
+        var value = header(record, ATTEMPT_HEADER);
+        return value == null ? 0 : Integer.parseInt(value);
+    }
+
+    public static String originalTopic(ConsumerRecord<?, ?> record) {
+        var value = header(record, ORIGINAL_TOPIC_HEADER);
+        return value == null ? record.topic() : value;
+    }
+
+    /** Партиция в исходном топике; у записи из основного топика - ее собственная */
+    public static int originalPartition(ConsumerRecord<?, ?> record) {
+        var value = header(record, ORIGINAL_PARTITION_HEADER);
+        return value == null ? record.partition() : Integer.parseInt(value);
+    }
+
+    /** Offset в исходном топике; у записи из основного топика - ее собственный */
+    public static long originalOffset(ConsumerRecord<?, ?> record) {
+        var value = header(record, ORIGINAL_OFFSET_HEADER);
+        return value == null ? record.offset() : Long.parseLong(value);
+    }
+
+    /** Момент (epoch millis), раньше которого сообщение уровня обрабатывать нельзя */
+    public static long dueMillis(ConsumerRecord<?, ?> record) {
+        var value = header(record, DUE_HEADER);
+        return value == null ? 0L : Long.parseLong(value);
+    }
+
+    private static String header(ConsumerRecord<?, ?> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header == null || header.value() == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    private static String label(Duration delay) {
+        long millis = delay.toMillis();
+        if (millis % 3_600_000 == 0) {
+            return millis / 3_600_000 + "h";
+        }
+        if (millis % 60_000 == 0) {
+            return millis / 60_000 + "m";
+        }
+        if (millis % 1_000 == 0) {
+            return millis / 1_000 + "s";
+        }
+        return millis + "ms";
+    }
+}
@@ -2,8 +2,13 @@ package com.example.notification.model;
 
 import jakarta.persistence.*;
 
+import java.time.LocalDateTime;
+
 @Entity
-@Table(name = "dead_letter_queue")
+@Table(name = "dead_letter_queue", indexes = {
+        // выборка для replay: status = NEW, keyset по id
+        @Index(name = "dead_letter_queue_status_id_idx", columnList = "status, id")
+})
 public class DeadLetterQueue {
 
     @Id
@@ -14,8 +19,28 @@ public class DeadLetterQueue {
     private Integer msgPartition;
     private Long msgOffset;
     private String msgKey;
+
+    /** Исходное значение сообщения (компактный формат или JSON, как пришло из топика) */
+    private byte[] payload;
+
+    /** Kafka-заголовки: JSON-объект имя -> значение в Base64 */
+    @Column(columnDefinition = "text")
+    private String headers;
+
+    /** Класс корневого исключения - для replay по типу ошибки */
+    private String errorType;
+
+    @Column(length = 2000)
     private String errorMessage;
 
+    private LocalDateTime failedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private DeadLetterStatus status = DeadLetterStatus.NEW;
+
+    private LocalDateTime replayedAt;
+
     @Override
     public String toString() {
         return String.format("[%d] (%s, %d, %d) (%s)", id, msgTopic, msgPartition, msgOffset, msgKey);
@@ -61,6 +86,30 @@ public class DeadLetterQueue {
         this.msgKey = msgKey;
     }
 
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    public void setPayload(byte[] payload) {
+        this.payload = payload;
+    }
+
+    public String getHeaders() {
+        return headers;
+    }
+
+    public void setHeaders(String headers) {
+        this.headers = headers;
+    }
+
+    public String getErrorType() {
+        return errorType;
+    }
+
+    public void setErrorType(String errorType) {
+        this.errorType = errorType;
+    }
+
     public String getErrorMessage() {
         return errorMessage;
     }
@@ -68,4 +117,28 @@ public class DeadLetterQueue {
     public void setErrorMessage(String errorMessage) {
         this.errorMessage = errorMessage;
     }
+
+    public LocalDateTime getFailedAt() {
+        return failedAt;
+    }
+
+    public void setFailedAt(LocalDateTime failedAt) {
+        this.failedAt = failedAt;
+    }
+
+    public DeadLetterStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(DeadLetterStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getReplayedAt() {
+        return replayedAt;
+    }
+
+    public void setReplayedAt(LocalDateTime replayedAt) {
+        this.replayedAt = replayedAt;
+    }
 }
@@ -0,0 +1,10 @@
+package com.example.notification.model;
+
+public enum DeadLetterStatus {
+    /** Ждет разбора или replay */
+    NEW,
+    /** Успешно прогнан повторно через NotificationService */
+    REPLAYED,
+    /** Replay невозможен (нет payload или он не читается) */
+    FAILED
+}
@@ -0,0 +1,8 @@
+package com.example.notification.model;
+
+public enum DeliveryStatus {
+    /** Ждет повторной постановки в очередь канала */
+    PENDING,
+    /** Попытки исчерпаны, больше не повторяется */
+    FAILED
+}
@@ -6,6 +6,10 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        // inbox клиента: keyset-страница по (to_customer_id, notification_id desc) читается диапазоном индекса
+        @Index(name = "notification_customer_id_idx", columnList = "to_customer_id, notification_id")
+})
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
@@ -17,7 +21,8 @@ public class Notification {
     @Id
     @SequenceGenerator(
             name = "notification_id_sequence",
-            sequenceName = "notification_id_sequence"
+            sequenceName = "notification_id_sequence",
+            allocationSize = 100 // pooled-оптимизатор: один nextval на пачку из 100 id
     )
     @GeneratedValue(
             strategy = GenerationType.SEQUENCE,
@@ -29,4 +34,9 @@ public class Notification {
     private String sender;
     private String message;
     private LocalDateTime sentAt;
+
+    /** Прочитано клиентом; отмечается по id показанных ему строк, а не по отметке "все id до N" */
+    @Column(name = "is_read", nullable = false)
+    @Builder.Default
+    private boolean read = false;
 }
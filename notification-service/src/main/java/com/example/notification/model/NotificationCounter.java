@@ -0,0 +1,31 @@
+package com.example.notification.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Счетчик непрочитанных уведомлений клиента, чтобы не считать count(*) по всей истории.
+ * Растет при сохранении уведомлений и уменьшается на число строк, реально отмеченных прочитанными.
+ */
+@Entity
+@Table(name = "notification_counter")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class NotificationCounter {
+
+    @Id
+    private Integer customerId;
+
+    @Column(nullable = false)
+    private long unread;
+}
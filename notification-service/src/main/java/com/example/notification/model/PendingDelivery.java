@@ -0,0 +1,45 @@
+package com.example.notification.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Уведомление, которое канал не доставил (очередь канала была полна, повторы исчерпаны
+ * или сервис остановился с непустой очередью). Строка удаляется после успешной доставки.
+ */
+@Entity
+@Table(name = "pending_delivery", indexes = {
+        // выборка для повторной постановки: status = PENDING и срок подошел
+        @Index(name = "pending_delivery_status_next_idx", columnList = "status, next_attempt_at")
+})
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class PendingDelivery {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Integer notificationId;
+
+    @Column(length = 32)
+    private String channel;
+
+    private int attempts;
+
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    @Builder.Default
+    private DeliveryStatus status = DeliveryStatus.PENDING;
+}
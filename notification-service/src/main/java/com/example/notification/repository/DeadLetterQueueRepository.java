@@ -1,9 +1,47 @@
 package com.example.notification.repository;
 
 import com.example.notification.model.DeadLetterQueue;
+import com.example.notification.model.DeadLetterStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Repository
 public interface DeadLetterQueueRepository extends JpaRepository<DeadLetterQueue, Long> {
+
+    /**
+     * Следующая пачка для replay: keyset по id (afterId - последний обработанный), без count-запроса.
+     * Незаданный фильтр (null) не ограничивает выборку.
+     * Строки блокируются (FOR UPDATE SKIP LOCKED): пачку, которую разбирает replay на другом инстансе,
+     * запрос пропускает. Вызывать внутри транзакции, в которой строкам сразу меняется статус.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2")) // -2 = SKIP LOCKED
+    @Query("""
+            select d from DeadLetterQueue d
+            where d.status = :status
+              and d.id > :afterId
+              and (:topic is null or d.msgTopic = :topic)
+              and (:errorType is null or d.errorType = :errorType)
+              and (:from is null or d.failedAt >= :from)
+              and (:to is null or d.failedAt < :to)
+            order by d.id
+            """)
+    List<DeadLetterQueue> lockBatch(
+            @Param("status") DeadLetterStatus status,
+            @Param("afterId") long afterId,
+            @Param("topic") String topic,
+            @Param("errorType") String errorType,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            Pageable pageable);
 }
@@ -0,0 +1,12 @@
+package com.example.notification.repository;
+
+import java.util.Map;
+
+public interface NotificationCounterBatchRepository {
+
+    /**
+     * Прибавляет к счетчикам непрочитанных одной JDBC-пачкой (upsert по customer_id).
+     * Клиенты обновляются в порядке id, чтобы параллельные пачки брали блокировки в одном порядке.
+     */
+    void incrementUnread(Map<Integer, Long> deltas);
+}
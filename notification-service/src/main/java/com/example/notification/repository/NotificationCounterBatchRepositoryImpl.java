@@ -0,0 +1,30 @@
+package com.example.notification.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+@RequiredArgsConstructor
+public class NotificationCounterBatchRepositoryImpl implements NotificationCounterBatchRepository {
+
+    private static final String UPSERT_SQL = """
+            insert into notification_counter (customer_id, unread) values (?, ?)
+            on conflict (customer_id) do update set unread = notification_counter.unread + excluded.unread
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void incrementUnread(Map<Integer, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        var ordered = new TreeMap<>(deltas).entrySet().stream().toList();
+        jdbcTemplate.batchUpdate(UPSERT_SQL, ordered, ordered.size(), (ps, delta) -> {
+            ps.setInt(1, delta.getKey());
+            ps.setLong(2, delta.getValue());
+        });
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.notification.repository;
+
+import com.example.notification.model.NotificationCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface NotificationCounterRepository
+        extends JpaRepository<NotificationCounter, Integer>, NotificationCounterBatchRepository {
+
+    /**
+     * Вычитает строки, отмеченные прочитанными в той же транзакции
+     * ({@link NotificationRepository#markRead}), поэтому счетчик не расходится с флагами строк.
+     */
+    @Modifying
+    @Query(value = """
+            update notification_counter
+            set unread = greatest(unread - :count, 0)
+            where customer_id = :customerId
+            """, nativeQuery = true)
+    int decrementUnread(@Param("customerId") Integer customerId, @Param("count") long count);
+}
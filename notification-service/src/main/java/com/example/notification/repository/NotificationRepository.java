@@ -1,7 +1,39 @@
 package com.example.notification.repository;
 
 import com.example.notification.model.Notification;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface NotificationRepository extends JpaRepository<Notification, Integer> {
+
+    /**
+     * Keyset-страница inbox: уведомления клиента старше beforeId, новые первыми.
+     * Без offset и count - стоимость зависит только от размера страницы.
+     */
+    @Query("""
+            select n from Notification n
+            where n.toCustomerId = :customerId and n.notificationId < :beforeId
+            order by n.notificationId desc
+            """)
+    List<Notification> findPage(
+            @Param("customerId") Integer customerId,
+            @Param("beforeId") int beforeId,
+            Pageable pageable);
+
+    /**
+     * Отмечает прочитанными показанные клиенту уведомления; возвращает число строк, которые были непрочитаны.
+     * Чужие id (другой клиент) не затрагиваются.
+     */
+    @Modifying
+    @Query("""
+            update Notification n set n.read = true
+            where n.toCustomerId = :customerId and n.notificationId in :ids and n.read = false
+            """)
+    int markRead(@Param("customerId") Integer customerId, @Param("ids") Collection<Integer> ids);
 }
@@ -0,0 +1,27 @@
+package com.example.notification.repository;
+
+import com.example.notification.model.PendingDelivery;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PendingDeliveryRepository extends JpaRepository<PendingDelivery, Long> {
+
+    /**
+     * Созревшие строки под блокировкой; строки, захваченные другим инстансом, пропускаются.
+     * Вызывать внутри транзакции, в которой строки сразу же сдвигаются на следующую попытку.
+     */
+    @Query(value = """
+            select * from pending_delivery
+            where status = 'PENDING' and next_attempt_at <= :now
+            order by next_attempt_at
+            limit :limit
+            for update skip locked
+            """, nativeQuery = true)
+    List<PendingDelivery> findDueForUpdate(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
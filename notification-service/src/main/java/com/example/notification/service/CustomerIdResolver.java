@@ -0,0 +1,50 @@
+package com.example.notification.service;
+
+import com.example.clients.customer.CustomerClient;
+import feign.FeignException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * id клиента по токену: чей inbox читать, решает сервер, а не параметр запроса.
+ * Логин берется из preferred_username, id - из customer-service; связка логин -> id не меняется,
+ * поэтому кэшируется без срока жизни.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CustomerIdResolver {
+
+    private final CustomerClient customerClient;
+    private final Map<String, Integer> idsByLogin = new ConcurrentHashMap<>();
+
+    public Integer resolve(Jwt jwt) {
+        var login = jwt.getClaimAsString("preferred_username");
+        if (login == null || login.isBlank()) {
+            throw new AccessDeniedException("Token has no preferred_username");
+        }
+        var cached = idsByLogin.get(login);
+        if (cached != null) {
+            return cached;
+        }
+        Integer customerId;
+        try {
+            var customer = customerClient.getCustomer(login);
+            customerId = customer == null ? null : customer.id();
+        } catch (FeignException.NotFound e) {
+            customerId = null;
+        }
+        if (customerId == null) {
+            log.warn("No customer registered for login {}", login);
+            throw new AccessDeniedException("No customer for login " + login);
+        }
+        idsByLogin.put(login, customerId);
+        return customerId;
+    }
+}
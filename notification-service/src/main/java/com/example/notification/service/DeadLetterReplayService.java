@@ -0,0 +1,225 @@
+package com.example.notification.service;
+
+import com.example.clients.notification.NotificationRequest;
+import com.example.clients.notification.NotificationRequestDeserializer;
+import com.example.notification.delivery.NotificationDeliveryService;
+import com.example.notification.model.DeadLetterQueue;
+import com.example.notification.model.DeadLetterStatus;
+import com.example.notification.model.Notification;
+import com.example.notification.repository.DeadLetterQueueRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Повторный прогон записей dead_letter_queue через {@link NotificationService}.
+ * Запускается админом, идет в фоновом потоке пачками по batch-size с паузой между пачками,
+ * чтобы не забить БД и каналы доставки после аварии. На инстансе одновременно выполняется только один replay.
+ * Каждая пачка - одна транзакция: строки DLQ выбираются под блокировкой (FOR UPDATE SKIP LOCKED),
+ * уведомления сохраняются и записи помечаются REPLAYED вместе. Поэтому replay, запущенный
+ * на нескольких инстансах, делит записи между ними, а не прогоняет одну запись дважды.
+ */
+@Service
+@Slf4j
+public class DeadLetterReplayService {
+
+    public record ReplayFilter(
+            String topic,
+            String errorType,
+            LocalDateTime from,
+            LocalDateTime to
+    ) {}
+
+    public enum ReplayState { RUNNING, COMPLETED, CANCELLED, FAILED }
+
+    public record ReplayJob(
+            long id,
+            ReplayFilter filter,
+            ReplayState state,
+            int replayed,
+            int failed,
+            LocalDateTime startedAt,
+            LocalDateTime finishedAt,
+            String error
+    ) {}
+
+    private final DeadLetterQueueRepository repository;
+    private final NotificationService notificationService;
+    private final NotificationDeliveryService deliveryService;
+    private final TransactionTemplate transactionTemplate;
+    private final NotificationRequestDeserializer deserializer = new NotificationRequestDeserializer();
+    private final Counter replayedCounter;
+    private final Counter failedCounter;
+    private final int batchSize;
+    private final Duration pause;
+
+    private final AtomicReference<Job> current = new AtomicReference<>();
+    private final AtomicInteger jobIds = new AtomicInteger();
+
+    public DeadLetterReplayService(
+            DeadLetterQueueRepository repository,
+            NotificationService notificationService,
+            NotificationDeliveryService deliveryService,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${notification.dlq.replay.batch-size:100}") int batchSize,
+            @Value("${notification.dlq.replay.pause:500ms}") Duration pause) {
+        this.repository = repository;
+        this.notificationService = notificationService;
+        this.deliveryService = deliveryService;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.pause = pause;
+        this.replayedCounter = Counter.builder("notification_dlq_replayed_total")
+                .description("DLQ entries re-driven through NotificationService")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("notification_dlq_replay_failed_total")
+                .description("DLQ entries that could not be replayed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Запускает replay; пустой Optional - на этом инстансе уже идет другой replay.
+     */
+    public Optional<ReplayJob> start(ReplayFilter filter) {
+        var job = new Job(jobIds.incrementAndGet(), filter);
+        var previous = current.get();
+        if (previous != null && previous.state == ReplayState.RUNNING) {
+            return Optional.empty();
+        }
+        if (!current.compareAndSet(previous, job)) {
+            return Optional.empty();
+        }
+        log.info("Starting DLQ replay #{} with {}", job.id, filter);
+        Thread.ofPlatform()
+                .name("dlq-replay-" + job.id)
+                .daemon(true)
+                .start(() -> run(job));
+        return Optional.of(job.snapshot());
+    }
+
+    /** Последний запущенный replay */
+    public Optional<ReplayJob> current() {
+        return Optional.ofNullable(current.get()).map(Job::snapshot);
+    }
+
+    /** Останавливает replay после текущей пачки */
+    public Optional<ReplayJob> cancel() {
+        var job = current.get();
+        if (job == null) {
+            return Optional.empty();
+        }
+        job.cancelled = true;
+        return Optional.of(job.snapshot());
+    }
+
+    void run(Job job) {
+        try {
+            long afterId = 0;
+            while (!job.cancelled) {
+                long after = afterId;
+                var batch = transactionTemplate.execute(status -> replayBatch(job, after));
+                if (batch.size() == 0) {
+                    break;
+                }
+                afterId = batch.lastId();
+                // доставка - после коммита, как и при обычном приеме из Kafka
+                deliveryService.dispatch(batch.saved());
+                job.replayed.addAndGet(batch.saved().size());
+                job.failed.addAndGet(batch.failed());
+                replayedCounter.increment(batch.saved().size());
+                failedCounter.increment(batch.failed());
+                if (batch.size() < batchSize) {
+                    break;
+                }
+                Thread.sleep(pause);
+            }
+            job.finish(job.cancelled ? ReplayState.CANCELLED : ReplayState.COMPLETED, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finish(ReplayState.CANCELLED, null);
+        } catch (Exception e) {
+            log.error("DLQ replay #{} failed: {}", job.id, e.getMessage(), e);
+            job.finish(ReplayState.FAILED, e.getMessage());
+        }
+        log.info("DLQ replay #{} finished: {}", job.id, job.snapshot());
+    }
+
+    private record BatchResult(int size, long lastId, int failed, List<Notification> saved) {}
+
+    private BatchResult replayBatch(Job job, long afterId) {
+        var batch = repository.lockBatch(DeadLetterStatus.NEW, afterId,
+                job.filter.topic(), job.filter.errorType(), job.filter.from(), job.filter.to(),
+                PageRequest.ofSize(batchSize));
+        if (batch.isEmpty()) {
+            return new BatchResult(0, afterId, 0, List.of());
+        }
+        var now = LocalDateTime.now();
+        List<NotificationRequest> requests = new ArrayList<>(batch.size());
+        for (DeadLetterQueue entry : batch) {
+            var request = decode(entry);
+            entry.setReplayedAt(now);
+            if (request == null) {
+                entry.setStatus(DeadLetterStatus.FAILED);
+            } else {
+                entry.setStatus(DeadLetterStatus.REPLAYED);
+                requests.add(request);
+            }
+        }
+        var saved = notificationService.sendAll(requests);
+        repository.saveAll(batch);
+        return new BatchResult(batch.size(), batch.getLast().getId(), batch.size() - requests.size(), saved);
+    }
+
+    private NotificationRequest decode(DeadLetterQueue entry) {
+        if (entry.getPayload() == null) {
+            log.warn("DLQ entry {} has no payload, can't replay", entry);
+            return null;
+        }
+        try {
+            return deserializer.deserialize(entry.getMsgTopic(), entry.getPayload());
+        } catch (Exception e) {
+            log.warn("DLQ entry {} payload is unreadable: {}", entry, e.getMessage());
+            return null;
+        }
+    }
+
+    static final class Job {
+        final long id;
+        final ReplayFilter filter;
+        final LocalDateTime startedAt = LocalDateTime.now();
+        final AtomicInteger replayed = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        volatile boolean cancelled;
+        volatile ReplayState state = ReplayState.RUNNING;
+        volatile LocalDateTime finishedAt;
+        volatile String error;
+
+        Job(long id, ReplayFilter filter) {
+            this.id = id;
+            this.filter = filter;
+        }
+
+        void finish(ReplayState state, String error) {
+            this.error = error;
+            this.finishedAt = LocalDateTime.now();
+            this.state = state;
+        }
+
+        ReplayJob snapshot() {
+            return new ReplayJob(id, filter, state, replayed.get(), failed.get(), startedAt, finishedAt, error);
+        }
+    }
+}
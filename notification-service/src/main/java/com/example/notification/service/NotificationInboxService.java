@@ -0,0 +1,76 @@
+package com.example.notification.service;
+
+import com.example.clients.notification.NotificationDto;
+import com.example.clients.notification.NotificationPage;
+import com.example.notification.model.Notification;
+import com.example.notification.model.NotificationCounter;
+import com.example.notification.repository.NotificationCounterRepository;
+import com.example.notification.repository.NotificationRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+/**
+ * Чтение inbox клиента: keyset-пагинация по индексу (to_customer_id, notification_id)
+ * и счетчик непрочитанных из notification_counter.
+ */
+@Service
+@RequiredArgsConstructor
+public class NotificationInboxService {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationCounterRepository counterRepository;
+
+    @Transactional(readOnly = true)
+    public NotificationPage getInbox(Integer customerId, Integer before, int size) {
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        // на одну строку больше, чтобы без count узнать, есть ли следующая страница
+        var rows = notificationRepository.findPage(customerId,
+                before == null ? Integer.MAX_VALUE : before, PageRequest.ofSize(pageSize + 1));
+        boolean hasMore = rows.size() > pageSize;
+        var page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        var items = page.stream()
+                .map(NotificationInboxService::toDto)
+                .toList();
+        Integer nextBefore = hasMore ? page.getLast().getNotificationId() : null;
+        return new NotificationPage(items, nextBefore, getUnreadCount(customerId));
+    }
+
+    @Transactional(readOnly = true)
+    public long getUnreadCount(Integer customerId) {
+        return counterRepository.findById(customerId)
+                .map(NotificationCounter::getUnread)
+                .orElse(0L);
+    }
+
+    /**
+     * Отмечает прочитанными только переданные id. Отметка "все до id N" не годится:
+     * id выдаются пулами по 100 на инстанс и коммитятся не по порядку, поэтому строка с меньшим id
+     * может появиться уже после того, как клиент прочитал страницу.
+     */
+    @Transactional
+    public long markRead(Integer customerId, Collection<Integer> ids) {
+        if (!ids.isEmpty()) {
+            int marked = notificationRepository.markRead(customerId, ids);
+            if (marked > 0) {
+                counterRepository.decrementUnread(customerId, marked);
+            }
+        }
+        return getUnreadCount(customerId);
+    }
+
+    private static NotificationDto toDto(Notification notification) {
+        return new NotificationDto(
+                notification.getNotificationId(),
+                notification.getSender(),
+                notification.getMessage(),
+                notification.getSentAt(),
+                notification.isRead());
+    }
+}
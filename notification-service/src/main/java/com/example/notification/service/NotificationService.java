@@ -1,37 +1,173 @@
 package com.example.notification.service;
 
 import com.example.clients.notification.NotificationRequest;
+import com.example.notification.delivery.NotificationDeliveryService;
 import com.example.notification.model.Notification;
+import com.example.notification.repository.NotificationCounterRepository;
 import com.example.notification.repository.NotificationRepository;
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Service
-@AllArgsConstructor
 @Slf4j
 public class NotificationService {
 
     private final NotificationRepository notificationRepository;
+    private final NotificationCounterRepository counterRepository;
+    private final NotificationDeliveryService deliveryService;
+    private final TransactionTemplate transactionTemplate;
+    private final String sender;
+
+    public NotificationService(
+            NotificationRepository notificationRepository,
+            NotificationCounterRepository counterRepository,
+            NotificationDeliveryService deliveryService,
+            TransactionTemplate transactionTemplate,
+            @Value("${notification.sender:DRM Team}") String sender) {
+        this.notificationRepository = notificationRepository;
+        this.counterRepository = counterRepository;
+        this.deliveryService = deliveryService;
+        this.transactionTemplate = transactionTemplate;
+        this.sender = sender;
+    }
 
     public void send(NotificationRequest notificationRequest) {
-        notificationRepository.save(
-                Notification.builder()
-                        .toCustomerId(notificationRequest.toCustomerId())
-                        .toCustomerEmail(notificationRequest.toCustomerName())
-                        .sender("DRM Team") // todo: replace with actual sender name
-                        .message(notificationRequest.message())
-                        .sentAt(LocalDateTime.now())
-                        .build()
-        );
-    }
-
-    @KafkaListener(topics = {"customer-notification", "cash-notification", "transfer-notification"}, groupId = "notification-group")
-    public void listen(NotificationRequest notificationRequest) {
-        log.info("Received notification request from Kafka: {}", notificationRequest);
-        send(notificationRequest);
+        var saved = transactionTemplate.execute(status -> {
+            var notifications = List.of(notificationRepository.save(toNotification(notificationRequest, LocalDateTime.now())));
+            counterRepository.incrementUnread(unreadByCustomer(notifications));
+            return notifications;
+        });
+        deliveryService.dispatch(saved);
+    }
+
+    /**
+     * Сохраняет пачку уведомлений и счетчики непрочитанных одной транзакцией; Hibernate отправляет
+     * insert-ы JDBC-батчем (hibernate.jdbc.batch_size), id берутся из пула последовательности.
+     * TransactionTemplate, а не @Transactional: метод вызывается и изнутри бина (listen),
+     * где прокси не участвует. Внутри чужой транзакции (replay DLQ) присоединяется к ней.
+     */
+    public List<Notification> sendAll(List<NotificationRequest> notificationRequests) {
+        return transactionTemplate.execute(status -> {
+            var now = LocalDateTime.now();
+            var saved = notificationRepository.saveAll(notificationRequests.stream()
+                    .map(request -> toNotification(request, now))
+                    .toList());
+            counterRepository.incrementUnread(unreadByCustomer(saved));
+            return saved;
+        });
+    }
+
+    /**
+     * Batch-режим: за один poll приходит до max-poll-records сообщений,
+     * offset-ы коммитятся после того, как вся пачка сохранена.
+     * У каждого топика своя concurrency, поэтому медленный топик не тормозит остальные.
+     * Продюсеры кладут id клиента в ключ: уведомления одного клиента идут в одну партицию
+     * и сохраняются по порядку, разные клиенты обрабатываются параллельно.
+     */
+    @KafkaListener(
+            topics = "customer-notification",
+            groupId = "notification-group",
+            concurrency = "${notification.listener.concurrency.customer:1}",
+            batch = "true"
+    )
+    public void listenCustomer(List<NotificationRequest> notificationRequests) {
+        listen(notificationRequests);
+    }
+
+    @KafkaListener(
+            topics = "cash-notification",
+            groupId = "notification-group",
+            concurrency = "${notification.listener.concurrency.cash:1}",
+            batch = "true"
+    )
+    public void listenCash(List<NotificationRequest> notificationRequests) {
+        listen(notificationRequests);
+    }
+
+    @KafkaListener(
+            topics = "transfer-notification",
+            groupId = "notification-group",
+            concurrency = "${notification.listener.concurrency.transfer:1}",
+            batch = "true"
+    )
+    public void listenTransfer(List<NotificationRequest> notificationRequests) {
+        listen(notificationRequests);
+    }
+
+    private void listen(List<NotificationRequest> notificationRequests) {
+        log.info("Received {} notification requests from Kafka", notificationRequests.size());
+        // null - сообщение не прочиталось (ErrorHandlingDeserializer): все до него сохраняем,
+        // его самого обработчик ошибок отправит в DLQ вместе с исходными байтами
+        int unreadable = IntStream.range(0, notificationRequests.size())
+                .filter(i -> notificationRequests.get(i) == null)
+                .findFirst()
+                .orElse(-1);
+        if (unreadable >= 0) {
+            if (unreadable > 0) {
+                listen(notificationRequests.subList(0, unreadable));
+            }
+            throw new BatchListenerFailedException("Notification request can't be deserialized", unreadable);
+        }
+        List<Notification> saved;
+        try {
+            saved = sendAll(notificationRequests);
+        } catch (RuntimeException e) {
+            saved = saveOneByOne(notificationRequests, e);
+        }
+        // доставка - после коммита пачки и асинхронно, listener не ждет каналы
+        deliveryService.dispatch(saved);
+    }
+
+    /**
+     * Пачка откатилась целиком: сохраняем по одному, каждое вместе со своим счетчиком
+     * в отдельной транзакции, чтобы найти упавшее сообщение и не оставить строк без счетчика.
+     * BatchListenerFailedException с его индексом - обработчик ошибок закоммитит offset-ы до него,
+     * переложит его в топик повторов, а остаток пачки получит заново.
+     */
+    private List<Notification> saveOneByOne(List<NotificationRequest> notificationRequests, RuntimeException batchError) {
+        log.warn("Batch of {} notifications failed, saving one by one: {}", notificationRequests.size(), batchError.getMessage());
+        var now = LocalDateTime.now();
+        List<Notification> saved = new ArrayList<>(notificationRequests.size());
+        for (int i = 0; i < notificationRequests.size(); i++) {
+            try {
+                var request = notificationRequests.get(i);
+                saved.add(transactionTemplate.execute(status -> {
+                    var notification = notificationRepository.save(toNotification(request, now));
+                    counterRepository.incrementUnread(unreadByCustomer(List.of(notification)));
+                    return notification;
+                }));
+            } catch (RuntimeException e) {
+                deliveryService.dispatch(saved);
+                throw new BatchListenerFailedException("Failed to save notification", e, i);
+            }
+        }
+        return saved;
+    }
+
+    private static Map<Integer, Long> unreadByCustomer(List<Notification> notifications) {
+        return notifications.stream()
+                .filter(notification -> notification.getToCustomerId() != null)
+                .collect(Collectors.groupingBy(Notification::getToCustomerId, Collectors.counting()));
+    }
+
+    private Notification toNotification(NotificationRequest notificationRequest, LocalDateTime sentAt) {
+        return Notification.builder()
+                .toCustomerId(notificationRequest.toCustomerId())
+                .toCustomerEmail(notificationRequest.toCustomerName())
+                .sender(sender)
+                .message(notificationRequest.message())
+                .sentAt(sentAt)
+                .build();
     }
 }
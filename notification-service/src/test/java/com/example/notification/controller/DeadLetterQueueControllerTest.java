@@ -0,0 +1,111 @@
+package com.example.notification.controller;
+
+import com.example.notification.service.DeadLetterReplayService;
+import com.example.notification.service.DeadLetterReplayService.ReplayFilter;
+import com.example.notification.service.DeadLetterReplayService.ReplayJob;
+import com.example.notification.service.DeadLetterReplayService.ReplayState;
+import com.example.notification.config.SecurityConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(DeadLetterQueueController.class)
+@Import(SecurityConfig.class)
+@TestPropertySource(properties = {
+        "spring.profiles.active=default"
+})
+class DeadLetterQueueControllerTest {
+
+    private static final RequestPostProcessor ADMIN = jwt().authorities(new SimpleGrantedAuthority("ROLE_ADMIN"));
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private DeadLetterReplayService replayService;
+
+    private static ReplayJob job(ReplayFilter filter) {
+        return new ReplayJob(1, filter, ReplayState.RUNNING, 0, 0, LocalDateTime.now(), null, null);
+    }
+
+    @Test
+    void start_acceptsReplay() throws Exception {
+        var filter = new ReplayFilter("cash-notification", null, LocalDateTime.of(2025, 1, 1, 0, 0), null);
+        when(replayService.start(filter)).thenReturn(Optional.of(job(filter)));
+
+        mockMvc.perform(post("/api/v1/admin/dlq/replay")
+                        .with(ADMIN)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"topic\":\"cash-notification\",\"from\":\"2025-01-01T00:00:00\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.state").value("RUNNING"))
+                .andExpect(jsonPath("$.filter.topic").value("cash-notification"));
+    }
+
+    @Test
+    void start_conflictWhenReplayIsRunning() throws Exception {
+        when(replayService.start(any())).thenReturn(Optional.empty());
+
+        mockMvc.perform(post("/api/v1/admin/dlq/replay")
+                        .with(ADMIN)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void start_rejectsInvertedTimeRange() throws Exception {
+        mockMvc.perform(post("/api/v1/admin/dlq/replay")
+                        .with(ADMIN)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"from\":\"2025-01-02T00:00:00\",\"to\":\"2025-01-01T00:00:00\"}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(replayService);
+    }
+
+    @Test
+    void current_notFoundWithoutReplays() throws Exception {
+        when(replayService.current()).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/v1/admin/dlq/replay").with(ADMIN))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void start_unauthorizedWithoutToken() throws Exception {
+        mockMvc.perform(post("/api/v1/admin/dlq/replay")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(replayService);
+    }
+
+    @Test
+    void start_forbiddenForCustomer() throws Exception {
+        mockMvc.perform(post("/api/v1/admin/dlq/replay")
+                        .with(jwt().authorities(new SimpleGrantedAuthority("ROLE_USER")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(replayService);
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.notification.controller;
+
+import com.example.clients.notification.NotificationDto;
+import com.example.clients.notification.NotificationPage;
+import com.example.notification.delivery.PushConnections;
+import com.example.notification.service.NotificationInboxService;
+import com.example.notification.config.SecurityConfig;
+import com.example.notification.service.CustomerIdResolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(NotificationController.class)
+@Import(SecurityConfig.class)
+@TestPropertySource(properties = {
+        "spring.profiles.active=default"
+})
+class NotificationControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private NotificationInboxService inboxService;
+
+    @MockitoBean
+    private PushConnections pushConnections;
+
+    @MockitoBean
+    private CustomerIdResolver customerIdResolver;
+
+    private static final RequestPostProcessor JOHN = jwt().jwt(jwt -> jwt.claim("preferred_username", "john"));
+
+    @BeforeEach
+    void setUp() {
+        when(customerIdResolver.resolve(argThat(jwt -> "john".equals(jwt.getClaimAsString("preferred_username")))))
+                .thenReturn(7);
+    }
+
+    @Test
+    void getInbox() throws Exception {
+        var page = new NotificationPage(
+                List.of(new NotificationDto(12, "DRM Team", "Перевод выполнен", LocalDateTime.of(2025, 1, 1, 12, 0), false)),
+                12, 3);
+        when(inboxService.getInbox(7, 20, 1)).thenReturn(page);
+
+        mockMvc.perform(get("/api/v1/notifications").with(JOHN).param("before", "20").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(12))
+                .andExpect(jsonPath("$.items[0].read").value(false))
+                .andExpect(jsonPath("$.nextBefore").value(12))
+                .andExpect(jsonPath("$.unread").value(3));
+    }
+
+    @Test
+    void getInbox_defaultsToFirstPage() throws Exception {
+        when(inboxService.getInbox(7, null, 20)).thenReturn(new NotificationPage(List.of(), null, 0));
+
+        mockMvc.perform(get("/api/v1/notifications").with(JOHN))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").isEmpty());
+        verify(inboxService).getInbox(7, null, 20);
+    }
+
+    @Test
+    void markRead() throws Exception {
+        when(inboxService.markRead(7, List.of(12, 11))).thenReturn(0L);
+
+        mockMvc.perform(post("/api/v1/notifications/read").with(JOHN).param("ids", "12", "11"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("0"));
+    }
+
+    @Test
+    void stream_unauthorizedWithoutToken() throws Exception {
+        mockMvc.perform(get("/api/v1/notifications/stream"))
+                .andExpect(status().isUnauthorized());
+        verifyNoInteractions(pushConnections);
+    }
+
+    @Test
+    void getInbox_unauthorizedWithoutToken() throws Exception {
+        mockMvc.perform(get("/api/v1/notifications"))
+                .andExpect(status().isUnauthorized());
+        verifyNoInteractions(inboxService);
+    }
+
+    @Test
+    void stream_startsWithUnreadCount() throws Exception {
+        when(pushConnections.subscribe(7)).thenReturn(new SseEmitter());
+        when(inboxService.getUnreadCount(7)).thenReturn(3L);
+
+        mockMvc.perform(get("/api/v1/notifications/stream").with(JOHN))
+                .andExpect(request().asyncStarted())
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("event:unread\ndata:3")));
+        verify(pushConnections).subscribe(7);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.notification.delivery;
+
+import com.example.notification.model.Notification;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+
+@ExtendWith(MockitoExtension.class)
+class EmailChannelTest {
+
+    @Mock
+    private JavaMailSender mailSender;
+
+    private static Notification notification(int id, String email) {
+        return Notification.builder().notificationId(id).toCustomerEmail(email).message("same text").build();
+    }
+
+    @Test
+    void deliver_partialFailureReportsOnlyFailedMessages() {
+        var underTest = new EmailChannel(mailSender, "no-reply@bank.local", "Bank notification");
+        // два одинаковых письма: сравнение по ссылке, а не по equals
+        var batch = List.of(notification(1, "a@example.com"), notification(2, "a@example.com"), notification(3, "c@example.com"));
+        doAnswer(inv -> {
+            Object[] messages = inv.getArguments();
+            Map<Object, Exception> failed = new LinkedHashMap<>();
+            failed.put(messages[1], new IllegalStateException("mailbox full"));
+            throw new MailSendException(failed);
+        }).when(mailSender).send(any(SimpleMailMessage[].class));
+
+        assertThatThrownBy(() -> underTest.deliver(batch))
+                .isInstanceOfSatisfying(PartialDeliveryException.class, e ->
+                        assertThat(e.getFailed()).containsExactly(batch.get(1)));
+    }
+
+    @Test
+    void deliver_connectionFailureFailsWholeBatch() {
+        var underTest = new EmailChannel(mailSender, "no-reply@bank.local", "Bank notification");
+        doThrow(new MailSendException("connection refused")).when(mailSender).send(any(SimpleMailMessage[].class));
+
+        assertThatThrownBy(() -> underTest.deliver(List.of(notification(1, "a@example.com"))))
+                .isInstanceOf(MailSendException.class);
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.notification.delivery;
+
+import com.example.notification.model.Notification;
+import com.example.notification.model.PendingDelivery;
+import com.example.notification.repository.NotificationRepository;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class NotificationDeliveryServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PendingDeliveries pendingDeliveries = mock(PendingDeliveries.class);
+    private final NotificationRepository notificationRepository = mock(NotificationRepository.class);
+    private NotificationDeliveryService underTest;
+
+    /** Канал-заглушка: запоминает пачки, может падать первые N раз или ждать latch */
+    private static class RecordingChannel implements NotificationChannel {
+        final List<List<Integer>> batches = Collections.synchronizedList(new ArrayList<>());
+        final AtomicInteger failuresLeft = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        // id, которые при первой попытке не уходят, а остальная пачка доставляется
+        final Set<Integer> partialFailOnce = ConcurrentHashMap.newKeySet();
+        volatile boolean blocking;
+
+        @Override
+        public String name() {
+            return "test";
+        }
+
+        @Override
+        public boolean supports(Notification notification) {
+            return notification.getToCustomerEmail() != null;
+        }
+
+        @Override
+        public void deliver(List<Notification> batch) throws Exception {
+            if (blocking) {
+                release.await();
+            }
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new IllegalStateException("channel unavailable");
+            }
+            var failed = batch.stream().filter(n -> partialFailOnce.remove(n.getNotificationId())).toList();
+            var delivered = batch.stream().filter(n -> !failed.contains(n)).toList();
+            batches.add(delivered.stream().map(Notification::getNotificationId).toList());
+            if (!failed.isEmpty()) {
+                throw new PartialDeliveryException(failed, new IllegalStateException("mailbox unavailable"));
+            }
+        }
+    }
+
+    private NotificationDeliveryService service(RecordingChannel channel, int queueCapacity, int batchSize) {
+        var rateLimiters = RateLimiterRegistry.of(RateLimiterConfig.custom()
+                .limitForPeriod(1000)
+                .limitRefreshPeriod(Duration.ofSeconds(1))
+                .timeoutDuration(Duration.ofSeconds(5))
+                .build());
+        var retries = RetryRegistry.of(RetryConfig.custom()
+                .maxAttempts(3)
+                .waitDuration(Duration.ofMillis(10))
+                .build());
+        underTest = new NotificationDeliveryService(List.of(channel), pendingDeliveries, notificationRepository,
+                rateLimiters, retries, meterRegistry, queueCapacity, batchSize, 1, Duration.ofSeconds(1), 100);
+        return underTest;
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (underTest != null) {
+            underTest.shutdown();
+        }
+    }
+
+    private static List<Notification> notifications(int count) {
+        return IntStream.rangeClosed(1, count)
+                .mapToObj(i -> Notification.builder()
+                        .notificationId(i)
+                        .toCustomerId(i)
+                        .toCustomerEmail("user" + i + "@example.com")
+                        .message("message " + i)
+                        .build())
+                .toList();
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("notification_delivery_total").tag("result", result).counter().count();
+    }
+
+    @Test
+    void dispatch_deliversAllInBatches() {
+        var channel = new RecordingChannel();
+        service(channel, 100, 10).dispatch(notifications(25));
+
+        await().atMost(5, TimeUnit.SECONDS).untilAsserted(() ->
+                assertThat(channel.batches.stream().mapToInt(List::size).sum()).isEqualTo(25));
+        assertThat(channel.batches).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(10));
+        assertThat(count("delivered")).isEqualTo(25);
+    }
+
+    @Test
+    void dispatch_retriesFailedBatch() {
+        var channel = new RecordingChannel();
+        channel.failuresLeft.set(2);
+        service(channel, 100, 10).dispatch(notifications(1));
+
+        await().atMost(5, TimeUnit.SECONDS).untilAsserted(() ->
+                assertThat(channel.batches).containsExactly(List.of(1)));
+        assertThat(count("failed")).isZero();
+    }
+
+    @Test
+    void dispatch_countsFailedAfterRetriesExhausted() {
+        var channel = new RecordingChannel();
+        channel.failuresLeft.set(100);
+        service(channel, 100, 10).dispatch(notifications(3));
+
+        await().atMost(5, TimeUnit.SECONDS).untilAsserted(() -> assertThat(count("failed")).isEqualTo(3));
+        assertThat(channel.batches).isEmpty();
+        // воркер мог разбить уведомления на несколько пачек - проверяем, что записаны все
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Notification>> recorded = ArgumentCaptor.forClass(List.class);
+        verify(pendingDeliveries, atLeastOnce()).record(eq("test"), recorded.capture(), anyString());
+        assertThat(recorded.getAllValues()).flatMap(list -> list)
+                .extracting(Notification::getNotificationId)
+                .containsExactlyInAnyOrder(1, 2, 3);
+    }
+
+    @Test
+    void dispatch_partialFailureRetriesOnlyUndelivered() {
+        var channel = new RecordingChannel();
+        channel.partialFailOnce.add(2);
+        service(channel, 100, 10).dispatch(notifications(3));
+
+        // 1 и 3 доставлены с первой попытки, повторно уходит только 2
+        await().atMost(5, TimeUnit.SECONDS).untilAsserted(() ->
+                assertThat(channel.batches.stream().flatMap(List::stream)).containsExactly(1, 3, 2));
+        assertThat(channel.batches.getLast()).containsExactly(2);
+        assertThat(count("delivered")).isEqualTo(3);
+        verify(pendingDeliveries, never()).record(any(), any(), any());
+    }
+
+    @Test
+    void redeliver_requeuesDueAndResolvesDelivered() {
+        var channel = new RecordingChannel();
+        var service = service(channel, 100, 10);
+        var notification = notifications(1).getFirst();
+        var pending = PendingDelivery.builder().id(77L).notificationId(1).channel("test").build();
+        var orphan = PendingDelivery.builder().id(78L).notificationId(404).channel("test").build();
+        when(pendingDeliveries.claimDue(100)).thenReturn(List.of(pending, orphan));
+        when(notificationRepository.findAllById(List.of(1, 404))).thenReturn(List.of(notification));
+
+        service.redeliver();
+
+        await().atMost(5, TimeUnit.SECONDS).untilAsserted(() -> {
+            assertThat(channel.batches).containsExactly(List.of(1));
+            verify(pendingDeliveries).resolve(List.of(77L));
+        });
+        verify(pendingDeliveries).resolve(List.of(78L));
+    }
+
+    @Test
+    void dispatch_doesNotBlockWhenChannelIsSlowAndQueueIsFull() {
+        var channel = new RecordingChannel();
+        channel.blocking = true;
+        var service = service(channel, 5, 1);
+        var all = notifications(50);
+
+        // воркер забрал первое уведомление и завис в канале
+        service.dispatch(all.subList(0, 1));
+        await().atMost(5, TimeUnit.SECONDS).until(() ->
+                meterRegistry.get("notification_delivery_queue_size").gauge().value() == 0);
+
+        long start = System.nanoTime();
+        service.dispatch(all.subList(1, 50));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(elapsedMillis).isLessThan(500);
+        // 5 в очереди, остальные 44 ждут повтора в БД
+        assertThat(count("dropped")).isEqualTo(44);
+        verify(pendingDeliveries).record(eq("test"), argThat(list -> list.size() == 44), eq("delivery queue full"));
+        channel.release.countDown();
+    }
+
+    @Test
+    void dispatch_skipsUnsupportedNotifications() {
+        var channel = new RecordingChannel();
+        var withoutEmail = Notification.builder().notificationId(99).message("no email").build();
+        service(channel, 100, 10).dispatch(List.of(withoutEmail, notifications(1).getFirst()));
+
+        await().atMost(5, TimeUnit.SECONDS).untilAsserted(() ->
+                assertThat(channel.batches).containsExactly(List.of(1)));
+    }
+}
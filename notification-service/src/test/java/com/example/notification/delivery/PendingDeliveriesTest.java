@@ -0,0 +1,67 @@
+package com.example.notification.delivery;
+
+import com.example.notification.model.DeliveryStatus;
+import com.example.notification.model.PendingDelivery;
+import com.example.notification.repository.PendingDeliveryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PendingDeliveriesTest {
+
+    @Mock
+    private PendingDeliveryRepository repository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PendingDeliveries underTest;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        underTest = new PendingDeliveries(repository, new TransactionTemplate(transactionManager),
+                3, Duration.ofSeconds(30), Duration.ofMinutes(2));
+    }
+
+    @Test
+    void backoff_doublesUpToMax() {
+        assertThat(underTest.backoff(1)).isEqualTo(Duration.ofMinutes(1));
+        assertThat(underTest.backoff(2)).isEqualTo(Duration.ofMinutes(2));
+        assertThat(underTest.backoff(10)).isEqualTo(Duration.ofMinutes(2));
+    }
+
+    @Test
+    void claimDue_movesNextAttemptAndFailsAfterMaxAttempts() {
+        var before = LocalDateTime.now();
+        var fresh = PendingDelivery.builder().id(1L).notificationId(1).channel("email").attempts(0).build();
+        var last = PendingDelivery.builder().id(2L).notificationId(2).channel("email").attempts(2).build();
+        when(repository.findDueForUpdate(any(), eq(10))).thenReturn(List.of(fresh, last));
+
+        var claimed = underTest.claimDue(10);
+
+        assertThat(claimed).containsExactly(fresh, last);
+        assertThat(fresh.getAttempts()).isEqualTo(1);
+        assertThat(fresh.getNextAttemptAt()).isAfterOrEqualTo(before.plusMinutes(1));
+        assertThat(fresh.getStatus()).isEqualTo(DeliveryStatus.PENDING);
+        assertThat(last.getAttempts()).isEqualTo(3);
+        assertThat(last.getStatus()).isEqualTo(DeliveryStatus.FAILED);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.notification.delivery;
+
+import com.example.notification.model.Notification;
+import org.apache.kafka.common.KafkaException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PushChannelTest {
+
+    @Mock
+    private KafkaTemplate<String, PushedNotification> kafkaTemplate;
+    @Captor
+    private ArgumentCaptor<PushedNotification> pushed;
+
+    private PushChannel pushChannel;
+
+    @BeforeEach
+    void setUp() {
+        pushChannel = new PushChannel(kafkaTemplate, "notification-push", Duration.ofSeconds(1));
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    private static Notification notification(int id, Integer customerId) {
+        return Notification.builder()
+                .notificationId(id)
+                .toCustomerId(customerId)
+                .sender("DRM Team")
+                .message("Счет пополнен на 100 RUB")
+                .sentAt(LocalDateTime.of(2025, 1, 1, 12, 0))
+                .build();
+    }
+
+    @Test
+    void supports_everyNotificationWithRecipient() {
+        // открыто ли соединение, знает только инстанс клиента
+        assertThat(pushChannel.supports(notification(10, 1))).isTrue();
+        assertThat(pushChannel.supports(notification(11, null))).isFalse();
+    }
+
+    @Test
+    void deliver_publishesBatchToBroadcastTopicKeyedByCustomer() throws Exception {
+        pushChannel.deliver(List.of(notification(10, 1), notification(11, 2)));
+
+        verify(kafkaTemplate).send(eq("notification-push"), eq("1"), pushed.capture());
+        verify(kafkaTemplate).send(eq("notification-push"), eq("2"), pushed.capture());
+        assertThat(pushed.getAllValues())
+                .extracting(PushedNotification::customerId, event -> event.notification().id())
+                .containsExactly(tuple(1, 10), tuple(2, 11));
+        assertThat(pushed.getValue().notification().read()).isFalse();
+    }
+
+    @Test
+    void deliver_failsWhenKafkaDoesNotAcknowledge() {
+        when(kafkaTemplate.send(anyString(), eq("2"), any()))
+                .thenReturn(CompletableFuture.failedFuture(new KafkaException("broker unavailable")));
+
+        assertThatThrownBy(() -> pushChannel.deliver(List.of(notification(10, 1), notification(11, 2))))
+                .isInstanceOf(ExecutionException.class)
+                .hasRootCauseMessage("broker unavailable");
+    }
+}
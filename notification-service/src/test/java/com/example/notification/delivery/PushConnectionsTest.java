@@ -0,0 +1,133 @@
+package com.example.notification.delivery;
+
+import com.example.clients.notification.NotificationDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PushConnectionsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PushConnections connections;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        connections = new PushConnections(meterRegistry, Duration.ofMinutes(1));
+    }
+
+    /** Запоминает отправленные события вместо записи в ответ */
+    private static class RecordingEmitter extends SseEmitter {
+        final List<String> events = new ArrayList<>();
+        boolean broken;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (broken) {
+                throw new IOException("Broken pipe");
+            }
+            var text = new StringBuilder();
+            builder.build().forEach(part -> text.append(part.getData()));
+            events.add(text.toString());
+        }
+    }
+
+    private static NotificationDto notification(int id) {
+        return new NotificationDto(id, "DRM Team", "Счет пополнен на 100 RUB", LocalDateTime.of(2025, 1, 1, 12, 0), false);
+    }
+
+    private double connections() {
+        return meterRegistry.get("notification_push_connections").gauge().value();
+    }
+
+    @Test
+    void isSubscribed_onlyCustomersWithOpenConnection() {
+        connections.register(1, new RecordingEmitter());
+
+        assertThat(connections.isSubscribed(1)).isTrue();
+        assertThat(connections.isSubscribed(2)).isFalse();
+        assertThat(connections.isSubscribed(null)).isFalse();
+    }
+
+    @Test
+    void sendNotification_fansOutToEveryConnectionOfCustomer() {
+        var tab1 = new RecordingEmitter();
+        var tab2 = new RecordingEmitter();
+        var other = new RecordingEmitter();
+        connections.register(1, tab1);
+        connections.register(1, tab2);
+        connections.register(2, other);
+
+        connections.sendNotification(1, notification(10));
+
+        assertThat(tab1.events).singleElement().asString()
+                .contains("id:10", "event:notification", "message=Счет пополнен на 100 RUB");
+        assertThat(tab2.events).isEqualTo(tab1.events);
+        assertThat(other.events).isEmpty();
+        assertThat(connections()).isEqualTo(3);
+    }
+
+    @Test
+    void register_concurrentWithUnregisterOfLastConnectionKeepsNewOne() throws Exception {
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            for (int i = 0; i < 2_000; i++) {
+                var closing = new RecordingEmitter();
+                var opening = new RecordingEmitter();
+                connections.register(1, closing);
+
+                // вкладка закрывается одновременно с открытием новой
+                var closed = executor.submit(() -> connections.unregister(1, closing));
+                connections.register(1, opening);
+                closed.get();
+
+                assertThat(connections.isSubscribed(1)).as("iteration %d", i).isTrue();
+                connections.unregister(1, opening);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(connections()).isZero();
+    }
+
+    @Test
+    void sendBalanceChange_sendsCurrencyOfChangedAccount() {
+        var tab = new RecordingEmitter();
+        connections.register(1, tab);
+
+        connections.sendBalanceChange(1, "USD");
+        connections.sendBalanceChange(2, "RUB");
+
+        assertThat(tab.events).singleElement().asString().contains("event:balance", "data:USD");
+    }
+
+    @Test
+    void send_dropsBrokenConnection() {
+        var broken = new RecordingEmitter();
+        broken.broken = true;
+        var alive = new RecordingEmitter();
+        connections.register(1, broken);
+        connections.register(1, alive);
+
+        connections.sendNotification(1, notification(10));
+        connections.sendNotification(1, notification(11));
+
+        assertThat(alive.events).hasSize(2);
+        assertThat(connections()).isEqualTo(1);
+
+        // последнее соединение закрылось - клиент больше не подписан
+        alive.broken = true;
+        connections.sendBalanceChange(1, "RUB");
+        assertThat(connections.isSubscribed(1)).isFalse();
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.notification.delivery;
+
+import com.example.clients.fraud.OperationEvent;
+import com.example.clients.fraud.OperationType;
+import com.example.clients.notification.NotificationDto;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PushEventListenerTest {
+
+    @Mock
+    private PushConnections connections;
+    @InjectMocks
+    private PushEventListener listener;
+
+    private static <V> ConsumerRecord<String, V> record(String topic, V value) {
+        return new ConsumerRecord<>(topic, 0, 5L, "1", value);
+    }
+
+    @Test
+    void onNotification_sendsToLocalConnectionsOfCustomer() {
+        var dto = new NotificationDto(10, "DRM Team", "Счет пополнен", LocalDateTime.of(2025, 1, 1, 12, 0), false);
+
+        listener.onNotification(record("notification-push", new PushedNotification(1, dto)));
+
+        verify(connections).sendNotification(1, dto);
+    }
+
+    @Test
+    void onNotification_skipsUnreadableRecord() {
+        listener.onNotification(record("notification-push", (PushedNotification) null));
+
+        verifyNoInteractions(connections);
+    }
+
+    @Test
+    void onOperation_notifiesSenderAndRecipientOfTransfer() {
+        when(connections.isSubscribed(1)).thenReturn(true);
+        when(connections.isSubscribed(2)).thenReturn(true);
+
+        listener.onOperation(record("operation-events",
+                OperationEvent.transfer(1, new BigDecimal("100"), "RUB", 2, "USD")));
+
+        verify(connections).sendBalanceChange(1, "RUB");
+        verify(connections).sendBalanceChange(2, "USD");
+    }
+
+    @Test
+    void onOperation_skipsCustomersWithoutConnection() {
+        when(connections.isSubscribed(1)).thenReturn(false);
+
+        listener.onOperation(record("operation-events",
+                OperationEvent.cash(1, OperationType.DEPOSIT, new BigDecimal("100"), "RUB")));
+        listener.onOperation(record("operation-events", (OperationEvent) null));
+
+        verify(connections, never()).sendBalanceChange(any(), any());
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.notification.delivery;
+
+import com.example.notification.model.Notification;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Канал против локального HTTP stand-in на JDK HttpServer.
+ */
+class WebhookChannelTest {
+
+    private HttpServer server;
+    private final AtomicReference<String> receivedBody = new AtomicReference<>();
+    private final AtomicInteger status = new AtomicInteger(204);
+    private WebhookChannel underTest;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/notifications", exchange -> {
+            receivedBody.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            exchange.sendResponseHeaders(status.get(), -1);
+            exchange.close();
+        });
+        server.start();
+        underTest = new WebhookChannel(RestClient.builder(),
+                "http://localhost:" + server.getAddress().getPort() + "/notifications", Duration.ofSeconds(2));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    private static Notification notification() {
+        return Notification.builder()
+                .notificationId(7)
+                .toCustomerId(1)
+                .toCustomerEmail("john@example.com")
+                .sender("DRM Team")
+                .message("Перевод выполнен")
+                .sentAt(LocalDateTime.of(2025, 1, 1, 12, 0))
+                .build();
+    }
+
+    @Test
+    void deliver_postsBatchAsJsonArray() {
+        underTest.deliver(List.of(notification()));
+
+        assertThat(receivedBody.get())
+                .startsWith("[")
+                .contains("\"notificationId\":7")
+                .contains("\"recipient\":\"john@example.com\"")
+                .contains("Перевод выполнен");
+    }
+
+    @Test
+    void deliver_failsOnServerError() {
+        status.set(503);
+
+        assertThatThrownBy(() -> underTest.deliver(List.of(notification())))
+                .isInstanceOf(RestClientResponseException.class);
+    }
+}
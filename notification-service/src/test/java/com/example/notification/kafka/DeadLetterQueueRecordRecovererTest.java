@@ -0,0 +1,98 @@
+package com.example.notification.kafka;
+
+import com.example.clients.notification.NotificationRequest;
+import com.example.clients.notification.NotificationRequestDeserializer;
+import com.example.notification.model.DeadLetterQueue;
+import com.example.notification.model.DeadLetterStatus;
+import com.example.notification.repository.DeadLetterQueueRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.ListenerExecutionFailedException;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class DeadLetterQueueRecordRecovererTest {
+
+    @Mock
+    private DeadLetterQueueRepository repository;
+
+    @Test
+    void accept_storesPayloadHeadersAndErrorType() {
+        var underTest = new DeadLetterQueueRecordRecoverer(repository, new ObjectMapper());
+        var request = new NotificationRequest(5, "john@example.com", "Перевод выполнен");
+        var record = new ConsumerRecord<String, Object>("transfer-notification", 2, 42L, "5", request);
+        record.headers().add("traceparent", "00-abc-01".getBytes(StandardCharsets.UTF_8));
+        var error = new ListenerExecutionFailedException("Listener failed", new IllegalArgumentException("bad recipient"));
+
+        underTest.accept(record, error);
+
+        var captor = ArgumentCaptor.forClass(DeadLetterQueue.class);
+        verify(repository).save(captor.capture());
+        var saved = captor.getValue();
+        assertThat(saved.getMsgTopic()).isEqualTo("transfer-notification");
+        assertThat(saved.getMsgPartition()).isEqualTo(2);
+        assertThat(saved.getMsgOffset()).isEqualTo(42L);
+        assertThat(saved.getMsgKey()).isEqualTo("5");
+        assertThat(saved.getErrorType()).isEqualTo(IllegalArgumentException.class.getName());
+        assertThat(saved.getStatus()).isEqualTo(DeadLetterStatus.NEW);
+        assertThat(saved.getFailedAt()).isNotNull();
+        assertThat(new NotificationRequestDeserializer().deserialize(saved.getMsgTopic(), saved.getPayload()))
+                .isEqualTo(request);
+        assertThat(saved.getHeaders()).contains("\"traceparent\":\""
+                + Base64.getEncoder().encodeToString("00-abc-01".getBytes(StandardCharsets.UTF_8)) + "\"");
+    }
+
+    @Test
+    void accept_recordFromRetryTierKeepsOriginalCoordinates() {
+        var underTest = new DeadLetterQueueRecordRecoverer(repository, new ObjectMapper());
+        var request = new NotificationRequest(5, "john@example.com", "Перевод выполнен");
+        var record = new ConsumerRecord<String, Object>("notification-retry-3m", 0, 3L, "5", request);
+        record.headers()
+                .add(RetryTopics.ORIGINAL_TOPIC_HEADER, "transfer-notification".getBytes(StandardCharsets.UTF_8))
+                .add(RetryTopics.ORIGINAL_PARTITION_HEADER, "2".getBytes(StandardCharsets.UTF_8))
+                .add(RetryTopics.ORIGINAL_OFFSET_HEADER, "42".getBytes(StandardCharsets.UTF_8))
+                .add(RetryTopics.ATTEMPT_HEADER, "3".getBytes(StandardCharsets.UTF_8));
+
+        underTest.accept(record, new ListenerExecutionFailedException("Listener failed", new IllegalStateException("db is down")));
+
+        var captor = ArgumentCaptor.forClass(DeadLetterQueue.class);
+        verify(repository).save(captor.capture());
+        var saved = captor.getValue();
+        assertThat(saved.getMsgTopic()).isEqualTo("transfer-notification");
+        assertThat(saved.getMsgPartition()).isEqualTo(2);
+        assertThat(saved.getMsgOffset()).isEqualTo(42L);
+    }
+
+    @Test
+    void accept_storesOriginalBytesOfUnreadableRecord() {
+        var underTest = new DeadLetterQueueRecordRecoverer(repository, new ObjectMapper());
+        byte[] garbage = {0x7f, 0x01, 0x02};
+        var record = new ConsumerRecord<String, Object>("cash-notification", 0, 7L, "5", null);
+        // так заголовок заполняет ErrorHandlingDeserializer
+        SerializationUtils.deserializationException(record.headers(), garbage,
+                new DeserializationException("failed to deserialize", garbage, false, new IllegalStateException("unknown format")),
+                false);
+
+        underTest.accept(record, new BatchListenerFailedException("Notification request can't be deserialized", 0));
+
+        var captor = ArgumentCaptor.forClass(DeadLetterQueue.class);
+        verify(repository).save(captor.capture());
+        var saved = captor.getValue();
+        assertThat(saved.getPayload()).isEqualTo(garbage);
+        assertThat(saved.getErrorType()).isEqualTo(IllegalStateException.class.getName());
+        assertThat(saved.getHeaders()).isNull();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.notification.kafka;
+
+import com.example.clients.notification.NotificationRequest;
+import com.example.clients.notification.NotificationRequestDeserializer;
+import com.example.clients.notification.NotificationRequestSerializer;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NotificationRequestSerializationTest {
+
+    private static final String TOPIC = "cash-notification";
+
+    private final NotificationRequestSerializer serializer = new NotificationRequestSerializer();
+    private final NotificationRequestDeserializer deserializer = new NotificationRequestDeserializer();
+
+    @Test
+    void compactRoundTrip() {
+        var request = new NotificationRequest(42, "john@example.com", "Снятие 100 RUB со счета выполнено");
+
+        var decoded = deserializer.deserialize(TOPIC, serializer.serialize(TOPIC, request));
+
+        assertThat(decoded).isEqualTo(request);
+    }
+
+    @Test
+    void compactRoundTrip_nullFieldsAndNegativeId() {
+        var request = new NotificationRequest(-7, null, null);
+
+        assertThat(deserializer.deserialize(TOPIC, serializer.serialize(TOPIC, request))).isEqualTo(request);
+        var withoutId = new NotificationRequest(null, "a", "");
+        assertThat(deserializer.deserialize(TOPIC, serializer.serialize(TOPIC, withoutId))).isEqualTo(withoutId);
+    }
+
+    @Test
+    void compactIsSmallerThanJson() {
+        var request = new NotificationRequest(123456, "john.doe@example.com", "Hi John Doe, welcome to Bank-system...");
+        try (var json = new JsonSerializer<NotificationRequest>()) {
+            byte[] jsonBytes = json.serialize(TOPIC, request);
+            byte[] compactBytes = serializer.serialize(TOPIC, request);
+
+            assertThat(compactBytes.length).isLessThan(jsonBytes.length);
+        }
+    }
+
+    @Test
+    void readsLegacyJson() {
+        var request = new NotificationRequest(1, "test@example.com", "Test message");
+        try (var json = new JsonSerializer<NotificationRequest>()) {
+            assertThat(deserializer.deserialize(TOPIC, json.serialize(TOPIC, request))).isEqualTo(request);
+        }
+    }
+
+    @Test
+    void truncatedMessageFails() {
+        byte[] bytes = serializer.serialize(TOPIC, new NotificationRequest(1, "test@example.com", "Test message"));
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 3);
+
+        assertThatThrownBy(() -> deserializer.deserialize(TOPIC, truncated))
+                .isInstanceOf(SerializationException.class);
+    }
+}
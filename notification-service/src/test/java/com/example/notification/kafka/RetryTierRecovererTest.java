@@ -0,0 +1,153 @@
+package com.example.notification.kafka;
+
+import com.example.clients.notification.NotificationRequest;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ListenerExecutionFailedException;
+import org.springframework.kafka.support.SendResult;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class RetryTierRecovererTest {
+
+    @Mock
+    private DeadLetterQueueRecordRecoverer deadLetterQueueRecordRecoverer;
+    @Mock
+    private KafkaTemplate<String, NotificationRequest> kafkaTemplate;
+    @Captor
+    private ArgumentCaptor<ProducerRecord<String, NotificationRequest>> forwarded;
+
+    private final RetryTopics retryTopics = new RetryTopics("notification-retry",
+            List.of(Duration.ofSeconds(5), Duration.ofSeconds(30), Duration.ofMinutes(3)));
+    private final NotificationRequest request = new NotificationRequest(3, "john@example.com", "Перевод выполнен");
+    private final Exception dbDown = new ListenerExecutionFailedException("Listener failed",
+            new DataAccessResourceFailureException("connection refused"));
+
+    private RetryTierRecoverer underTest;
+
+    @BeforeEach
+    void setUp() {
+        CompletableFuture<SendResult<String, NotificationRequest>> acked = CompletableFuture.completedFuture(null);
+        when(kafkaTemplate.send(anyRecord())).thenReturn(acked);
+        underTest = new RetryTierRecoverer(retryTopics, deadLetterQueueRecordRecoverer, kafkaTemplate, Duration.ofSeconds(1));
+    }
+
+    private static String header(ProducerRecord<?, ?> record, String name) {
+        return new String(record.headers().lastHeader(name).value(), StandardCharsets.UTF_8);
+    }
+
+    // send перегружен (ProducerRecord / Message), поэтому any() с явным типом записи
+    private static ProducerRecord<String, NotificationRequest> anyRecord() {
+        return any();
+    }
+
+    private ProducerRecord<String, NotificationRequest> sent() {
+        verify(kafkaTemplate).send(forwarded.capture());
+        return forwarded.getValue();
+    }
+
+    @Test
+    void topicsAreNamedAfterDelays() {
+        assertThat(retryTopics.topics())
+                .containsExactly("notification-retry-5s", "notification-retry-30s", "notification-retry-3m");
+    }
+
+    @Test
+    void accept_firstFailureGoesToFirstTier() {
+        var record = new ConsumerRecord<String, Object>("cash-notification", 1, 10L, "3", request);
+        record.headers().add("traceparent", "00-abc-01".getBytes(StandardCharsets.UTF_8));
+        long before = System.currentTimeMillis();
+
+        underTest.accept(record, dbDown);
+
+        var sent = sent();
+        assertThat(sent.topic()).isEqualTo("notification-retry-5s");
+        assertThat(sent.key()).isEqualTo("3");
+        assertThat(sent.value()).isEqualTo(request);
+        assertThat(header(sent, RetryTopics.ORIGINAL_TOPIC_HEADER)).isEqualTo("cash-notification");
+        assertThat(header(sent, RetryTopics.ORIGINAL_PARTITION_HEADER)).isEqualTo("1");
+        assertThat(header(sent, RetryTopics.ORIGINAL_OFFSET_HEADER)).isEqualTo("10");
+        assertThat(header(sent, RetryTopics.ATTEMPT_HEADER)).isEqualTo("1");
+        assertThat(Long.parseLong(header(sent, RetryTopics.DUE_HEADER))).isGreaterThanOrEqualTo(before + 5_000);
+        assertThat(header(sent, "traceparent")).isEqualTo("00-abc-01");
+        verifyNoInteractions(deadLetterQueueRecordRecoverer);
+    }
+
+    @Test
+    void accept_failureInTierGoesToNextTierKeepingOriginalTopic() {
+        var record = new ConsumerRecord<String, Object>("notification-retry-5s", 0, 4L, "3", request);
+        record.headers()
+                .add(new RecordHeader(RetryTopics.ORIGINAL_TOPIC_HEADER, "cash-notification".getBytes(StandardCharsets.UTF_8)))
+                .add(new RecordHeader(RetryTopics.ORIGINAL_PARTITION_HEADER, "1".getBytes(StandardCharsets.UTF_8)))
+                .add(new RecordHeader(RetryTopics.ORIGINAL_OFFSET_HEADER, "10".getBytes(StandardCharsets.UTF_8)))
+                .add(new RecordHeader(RetryTopics.ATTEMPT_HEADER, "1".getBytes(StandardCharsets.UTF_8)));
+
+        underTest.accept(record, dbDown);
+
+        var sent = sent();
+        assertThat(sent.topic()).isEqualTo("notification-retry-30s");
+        assertThat(header(sent, RetryTopics.ORIGINAL_TOPIC_HEADER)).isEqualTo("cash-notification");
+        // партиция и offset - исходного топика, а не уровня повторов
+        assertThat(header(sent, RetryTopics.ORIGINAL_PARTITION_HEADER)).isEqualTo("1");
+        assertThat(header(sent, RetryTopics.ORIGINAL_OFFSET_HEADER)).isEqualTo("10");
+        assertThat(sent.headers().headers(RetryTopics.ORIGINAL_OFFSET_HEADER)).hasSize(1);
+        assertThat(header(sent, RetryTopics.ATTEMPT_HEADER)).isEqualTo("2");
+        assertThat(sent.headers().headers(RetryTopics.ATTEMPT_HEADER)).hasSize(1);
+    }
+
+    @Test
+    void accept_lastTierGoesToDeadLetterQueue() {
+        var record = new ConsumerRecord<String, Object>("notification-retry-3m", 0, 4L, "3", request);
+        record.headers().add(new RecordHeader(RetryTopics.ATTEMPT_HEADER, "3".getBytes(StandardCharsets.UTF_8)));
+
+        underTest.accept(record, dbDown);
+
+        verify(deadLetterQueueRecordRecoverer).accept(record, dbDown);
+        verify(kafkaTemplate, never()).send(anyRecord());
+    }
+
+    @Test
+    void accept_nonRetryableErrorGoesStraightToDeadLetterQueue() {
+        var record = new ConsumerRecord<String, Object>("cash-notification", 0, 4L, "3", request);
+        var badData = new ListenerExecutionFailedException("Listener failed", new IllegalArgumentException("bad recipient"));
+
+        underTest.accept(record, badData);
+
+        verify(deadLetterQueueRecordRecoverer).accept(record, badData);
+        verify(kafkaTemplate, never()).send(anyRecord());
+    }
+
+    @Test
+    void accept_failsWhenForwardIsNotAcknowledged() {
+        CompletableFuture<SendResult<String, NotificationRequest>> failed =
+                CompletableFuture.failedFuture(new RuntimeException("broker down"));
+        when(kafkaTemplate.send(anyRecord())).thenReturn(failed);
+        var record = new ConsumerRecord<String, Object>("cash-notification", 0, 4L, "3", request);
+
+        assertThatThrownBy(() -> underTest.accept(record, dbDown)).isInstanceOf(KafkaException.class);
+        verifyNoInteractions(deadLetterQueueRecordRecoverer);
+    }
+}
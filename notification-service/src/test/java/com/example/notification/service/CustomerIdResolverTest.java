@@ -0,0 +1,61 @@
+package com.example.notification.service;
+
+import com.example.clients.customer.CustomerClient;
+import com.example.clients.customer.CustomerDto;
+import feign.FeignException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerIdResolverTest {
+
+    @Mock
+    private CustomerClient customerClient;
+
+    @InjectMocks
+    private CustomerIdResolver underTest;
+
+    private static Jwt token(String login) {
+        var builder = Jwt.withTokenValue("token").header("alg", "none").subject("sub");
+        if (login != null) {
+            builder.claim("preferred_username", login);
+        }
+        return builder.build();
+    }
+
+    @Test
+    void resolve_looksUpCustomerOnceAndCachesId() {
+        when(customerClient.getCustomer("john"))
+                .thenReturn(new CustomerDto(7, "john", "John", "john@example.com", LocalDate.of(1990, 1, 1), List.of()));
+
+        assertThat(underTest.resolve(token("john"))).isEqualTo(7);
+        assertThat(underTest.resolve(token("john"))).isEqualTo(7);
+
+        verify(customerClient, times(1)).getCustomer("john");
+    }
+
+    @Test
+    void resolve_deniesUnknownLogin() {
+        when(customerClient.getCustomer("ghost")).thenThrow(mock(FeignException.NotFound.class));
+
+        assertThatThrownBy(() -> underTest.resolve(token("ghost"))).isInstanceOf(AccessDeniedException.class);
+    }
+
+    @Test
+    void resolve_deniesTokenWithoutLogin() {
+        assertThatThrownBy(() -> underTest.resolve(token(null))).isInstanceOf(AccessDeniedException.class);
+        verifyNoInteractions(customerClient);
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.notification.service;
+
+import com.example.clients.notification.NotificationRequest;
+import com.example.clients.notification.NotificationRequestSerializer;
+import com.example.notification.delivery.NotificationDeliveryService;
+import com.example.notification.model.DeadLetterQueue;
+import com.example.notification.model.DeadLetterStatus;
+import com.example.notification.model.Notification;
+import com.example.notification.repository.DeadLetterQueueRepository;
+import com.example.notification.service.DeadLetterReplayService.ReplayFilter;
+import com.example.notification.service.DeadLetterReplayService.ReplayState;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DeadLetterReplayServiceTest {
+
+    @Mock
+    private DeadLetterQueueRepository repository;
+    @Mock
+    private NotificationService notificationService;
+    @Mock
+    private NotificationDeliveryService deliveryService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private DeadLetterReplayService underTest;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        underTest = new DeadLetterReplayService(repository, notificationService, deliveryService,
+                new TransactionTemplate(transactionManager), new SimpleMeterRegistry(), 2, Duration.ZERO);
+    }
+
+    private static DeadLetterQueue entry(long id, byte[] payload) {
+        var entry = new DeadLetterQueue();
+        entry.setId(id);
+        entry.setMsgTopic("cash-notification");
+        entry.setPayload(payload);
+        return entry;
+    }
+
+    @Test
+    void run_replaysBatchesAndMarksEntries() {
+        var request = new NotificationRequest(1, "john@example.com", "Выполнено снятие");
+        byte[] payload = new NotificationRequestSerializer().serialize("cash-notification", request);
+        var first = entry(1, payload);
+        var broken = entry(2, null);
+        var last = entry(3, payload);
+        var filter = new ReplayFilter("cash-notification", null, null, null);
+        when(repository.lockBatch(eq(DeadLetterStatus.NEW), eq(0L), eq("cash-notification"), isNull(), isNull(), isNull(), any()))
+                .thenReturn(List.of(first, broken));
+        when(repository.lockBatch(eq(DeadLetterStatus.NEW), eq(2L), eq("cash-notification"), isNull(), isNull(), isNull(), any()))
+                .thenReturn(List.of(last));
+        var saved = List.of(Notification.builder().notificationId(10).build());
+        when(notificationService.sendAll(anyList())).thenReturn(saved);
+
+        var job = new DeadLetterReplayService.Job(1, filter);
+        underTest.run(job);
+
+        verify(notificationService, times(2)).sendAll(List.of(request));
+        verify(deliveryService, times(2)).dispatch(saved);
+        assertThat(first.getStatus()).isEqualTo(DeadLetterStatus.REPLAYED);
+        assertThat(broken.getStatus()).isEqualTo(DeadLetterStatus.FAILED);
+        assertThat(last.getStatus()).isEqualTo(DeadLetterStatus.REPLAYED);
+        assertThat(first.getReplayedAt()).isNotNull();
+
+        var snapshot = job.snapshot();
+        assertThat(snapshot.state()).isEqualTo(ReplayState.COMPLETED);
+        assertThat(snapshot.replayed()).isEqualTo(2);
+        assertThat(snapshot.failed()).isEqualTo(1);
+        assertThat(snapshot.finishedAt()).isNotNull();
+    }
+
+    @Test
+    void run_locksAndMarksBatchInOneTransaction() {
+        var request = new NotificationRequest(1, "john@example.com", "Выполнено снятие");
+        var entry = entry(1, new NotificationRequestSerializer().serialize("cash-notification", request));
+        when(repository.lockBatch(any(), eq(0L), any(), any(), any(), any(), any())).thenReturn(List.of(entry));
+        var saved = List.of(Notification.builder().notificationId(10).build());
+        when(notificationService.sendAll(anyList())).thenReturn(saved);
+
+        underTest.run(new DeadLetterReplayService.Job(1, new ReplayFilter(null, null, null, null)));
+
+        // блокировка строк, запись уведомлений и статусов - до коммита, доставка - после
+        var order = inOrder(transactionManager, repository, notificationService, deliveryService);
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(repository).lockBatch(any(), eq(0L), any(), any(), any(), any(), any());
+        order.verify(notificationService).sendAll(List.of(request));
+        order.verify(repository).saveAll(List.of(entry));
+        order.verify(transactionManager).commit(any());
+        order.verify(deliveryService).dispatch(saved);
+    }
+
+    @Test
+    void run_cancelledJobStopsBeforeNextBatch() {
+        var job = new DeadLetterReplayService.Job(1, new ReplayFilter(null, null, null, null));
+        job.cancelled = true;
+
+        underTest.run(job);
+
+        verifyNoInteractions(repository, notificationService);
+        assertThat(job.snapshot().state()).isEqualTo(ReplayState.CANCELLED);
+    }
+
+    @Test
+    void run_storageErrorFailsJob() {
+        when(repository.lockBatch(any(), anyLong(), any(), any(), any(), any(), any()))
+                .thenThrow(new IllegalStateException("db is down"));
+        var job = new DeadLetterReplayService.Job(1, new ReplayFilter(null, null, LocalDateTime.now().minusHours(1), null));
+
+        underTest.run(job);
+
+        assertThat(job.snapshot().state()).isEqualTo(ReplayState.FAILED);
+        assertThat(job.snapshot().error()).isEqualTo("db is down");
+    }
+
+    @Test
+    void start_rejectsSecondReplayWhileRunning() throws InterruptedException {
+        // выборка пачки занимает 200 мс - при втором запуске первый replay еще идет
+        when(repository.lockBatch(any(), anyLong(), any(), any(), any(), any(), any())).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return List.of();
+        });
+        var filter = new ReplayFilter(null, null, null, null);
+
+        assertThat(underTest.start(filter)).isPresent();
+        assertThat(underTest.start(filter)).isEmpty();
+        assertThat(underTest.current()).get().extracting(DeadLetterReplayService.ReplayJob::state)
+                .isEqualTo(ReplayState.RUNNING);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.notification.service;
+
+import com.example.notification.model.Notification;
+import com.example.notification.model.NotificationCounter;
+import com.example.notification.repository.NotificationCounterRepository;
+import com.example.notification.repository.NotificationRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class NotificationInboxServiceTest {
+
+    @Mock
+    private NotificationRepository notificationRepository;
+    @Mock
+    private NotificationCounterRepository counterRepository;
+
+    @InjectMocks
+    private NotificationInboxService underTest;
+
+    private static List<Notification> rows(int fromId, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> Notification.builder()
+                        .notificationId(fromId - i)
+                        .toCustomerId(7)
+                        .sender("DRM Team")
+                        .message("message " + (fromId - i))
+                        .sentAt(LocalDateTime.now())
+                        .read(fromId - i <= 8)
+                        .build())
+                .toList();
+    }
+
+    @Test
+    void getInbox_firstPageWithMore() {
+        // запрошено 3, репозиторий вернул 4 - есть следующая страница
+        when(notificationRepository.findPage(7, Integer.MAX_VALUE, PageRequest.ofSize(4))).thenReturn(rows(10, 4));
+        when(counterRepository.findById(7)).thenReturn(Optional.of(new NotificationCounter(7, 2)));
+
+        var page = underTest.getInbox(7, null, 3);
+
+        assertThat(page.items()).extracting("id").containsExactly(10, 9, 8);
+        assertThat(page.items()).extracting("read").containsExactly(false, false, true);
+        assertThat(page.nextBefore()).isEqualTo(8);
+        assertThat(page.unread()).isEqualTo(2);
+    }
+
+    @Test
+    void getInbox_lastPageHasNoCursor() {
+        when(notificationRepository.findPage(7, 8, PageRequest.ofSize(21))).thenReturn(rows(7, 2));
+        when(counterRepository.findById(7)).thenReturn(Optional.empty());
+
+        var page = underTest.getInbox(7, 8, 20);
+
+        assertThat(page.items()).hasSize(2);
+        assertThat(page.nextBefore()).isNull();
+        assertThat(page.unread()).isZero();
+    }
+
+    @Test
+    void getInbox_pageSizeIsCapped() {
+        when(notificationRepository.findPage(anyInt(), anyInt(), any())).thenReturn(List.of());
+
+        underTest.getInbox(7, null, 10_000);
+
+        verify(notificationRepository).findPage(7, Integer.MAX_VALUE,
+                PageRequest.ofSize(NotificationInboxService.MAX_PAGE_SIZE + 1));
+    }
+
+    @Test
+    void markRead_marksGivenRowsAndDecrementsByActuallyMarked() {
+        // из трех id непрочитанными были только два
+        when(notificationRepository.markRead(7, List.of(10, 9, 8))).thenReturn(2);
+        when(counterRepository.findById(7)).thenReturn(Optional.of(new NotificationCounter(7, 1)));
+
+        assertThat(underTest.markRead(7, List.of(10, 9, 8))).isEqualTo(1);
+        verify(counterRepository).decrementUnread(7, 2);
+    }
+
+    @Test
+    void markRead_alreadyReadRowsKeepCounter() {
+        when(notificationRepository.markRead(7, List.of(8))).thenReturn(0);
+
+        underTest.markRead(7, List.of(8));
+
+        verify(counterRepository, never()).decrementUnread(anyInt(), anyLong());
+    }
+
+    @Test
+    void markRead_emptyIdsTouchesNothing() {
+        underTest.markRead(7, List.of());
+
+        verify(notificationRepository, never()).markRead(anyInt(), anyCollection());
+        verify(counterRepository, never()).decrementUnread(anyInt(), anyLong());
+    }
+}
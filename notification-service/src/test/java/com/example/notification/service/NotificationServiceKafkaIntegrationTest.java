@@ -99,4 +99,21 @@ class NotificationServiceKafkaIntegrationTest extends AbstractIntegrationTest {
             assertThat(savedNotification.getMessage()).isEqualTo(request.message());
         });
     }
+
+    @Test
+    void shouldPersistBurstOfNotifications() {
+        // Given
+        int count = 50;
+
+        // When
+        for (int i = 0; i < count; i++) {
+            kafkaTemplate.send(CASH_NOTIFICATION_TOPIC, new NotificationRequest(i, "burst@example.com", "Burst message " + i));
+        }
+
+        // Then
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() ->
+                assertThat(notificationRepository.findAll())
+                        .hasSize(count)
+                        .allSatisfy(n -> assertThat(n.getNotificationId()).isNotNull()));
+    }
 }
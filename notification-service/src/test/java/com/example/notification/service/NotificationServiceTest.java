@@ -0,0 +1,144 @@
+package com.example.notification.service;
+
+import com.example.clients.notification.NotificationRequest;
+import com.example.notification.delivery.NotificationDeliveryService;
+import com.example.notification.model.Notification;
+import com.example.notification.repository.NotificationCounterRepository;
+import com.example.notification.repository.NotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class NotificationServiceTest {
+
+    @Mock
+    private NotificationRepository notificationRepository;
+    @Mock
+    private NotificationCounterRepository counterRepository;
+    @Mock
+    private NotificationDeliveryService deliveryService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private NotificationService underTest;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        underTest = new NotificationService(notificationRepository, counterRepository, deliveryService,
+                new TransactionTemplate(transactionManager), "DRM Team");
+    }
+
+    @Test
+    void listen_savesBatchAndDispatches() {
+        var requests = List.of(new NotificationRequest(1, "a@example.com", "one"));
+        List<Notification> saved = List.of(
+                Notification.builder().notificationId(1).toCustomerId(1).build(),
+                Notification.builder().notificationId(2).toCustomerId(1).build(),
+                Notification.builder().notificationId(3).toCustomerId(2).build());
+        when(notificationRepository.saveAll(anyList())).thenReturn(saved);
+
+        underTest.listenCash(requests);
+
+        verify(counterRepository).incrementUnread(Map.of(1, 2L, 2, 1L));
+        verify(deliveryService).dispatch(saved);
+        verify(notificationRepository, never()).save(any());
+    }
+
+    @Test
+    void listen_failedBatchReportsIndexOfFailedRecord() {
+        var requests = List.of(
+                new NotificationRequest(1, "a@example.com", "one"),
+                new NotificationRequest(2, "b@example.com", "two"),
+                new NotificationRequest(3, "c@example.com", "three"));
+        when(notificationRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("value too long"));
+        var first = Notification.builder().notificationId(1).build();
+        when(notificationRepository.save(argThat(n -> n != null && n.getToCustomerId() == 1))).thenReturn(first);
+        when(notificationRepository.save(argThat(n -> n != null && n.getToCustomerId() == 2)))
+                .thenThrow(new DataIntegrityViolationException("value too long"));
+
+        assertThatThrownBy(() -> underTest.listenTransfer(requests))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class,
+                        e -> assertThat(e.getIndex()).isEqualTo(1));
+
+        // первое уже сохранено и будет закоммичено - его доставляем
+        verify(deliveryService).dispatch(List.of(first));
+        verify(notificationRepository, never()).save(argThat(n -> n != null && n.getToCustomerId() == 3));
+    }
+
+    @Test
+    void listen_unreadableRecordSavesPrefixAndReportsItsIndex() {
+        var first = new NotificationRequest(1, "a@example.com", "one");
+        // null - ErrorHandlingDeserializer не смог прочитать значение
+        var requests = Arrays.asList(first, null, new NotificationRequest(3, "c@example.com", "three"));
+        var saved = List.of(Notification.builder().notificationId(1).toCustomerId(1).build());
+        when(notificationRepository.saveAll(anyList())).thenReturn(saved);
+
+        assertThatThrownBy(() -> underTest.listenCash(requests))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class,
+                        e -> assertThat(e.getIndex()).isEqualTo(1));
+
+        verify(notificationRepository).saveAll(argThat(list -> ((Collection<?>) list).size() == 1));
+        verify(deliveryService).dispatch(saved);
+    }
+
+    @Test
+    void listen_counterFailureRollsBackBatchAndRetriesEachInOwnTransaction() {
+        var requests = List.of(
+                new NotificationRequest(1, "a@example.com", "one"),
+                new NotificationRequest(2, "b@example.com", "two"));
+        when(notificationRepository.saveAll(anyList())).thenReturn(List.of(
+                Notification.builder().notificationId(1).toCustomerId(1).build(),
+                Notification.builder().notificationId(2).toCustomerId(2).build()));
+        when(notificationRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        doThrow(new DataIntegrityViolationException("counter"))
+                .doNothing()
+                .when(counterRepository).incrementUnread(anyMap());
+
+        underTest.listenCash(requests);
+
+        // пачка откатилась вместе с уже вставленными строками, дальше каждое - своя транзакция
+        verify(transactionManager, times(1)).rollback(any());
+        verify(transactionManager, times(2)).commit(any());
+        verify(notificationRepository, times(2)).save(any());
+        verify(counterRepository).incrementUnread(Map.of(1, 1L));
+        verify(counterRepository).incrementUnread(Map.of(2, 1L));
+    }
+
+    @Test
+    void listen_counterFailureOnSingleRecordRollsBackItsRow() {
+        var requests = List.of(new NotificationRequest(1, "a@example.com", "one"));
+        when(notificationRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("batch"));
+        when(notificationRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        doThrow(new DataIntegrityViolationException("counter")).when(counterRepository).incrementUnread(anyMap());
+
+        assertThatThrownBy(() -> underTest.listenCustomer(requests))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class,
+                        e -> assertThat(e.getIndex()).isEqualTo(0));
+
+        verify(transactionManager, times(2)).rollback(any());
+        verify(transactionManager, never()).commit(any());
+        verify(deliveryService).dispatch(List.of());
+    }
+}
@@ -3,6 +3,8 @@ package com.example.transfer.config;
 import feign.RequestInterceptor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 
@@ -21,5 +23,14 @@ public class FeignConfig {
             }
         };
     }
-}
 
+    /**
+     * relayJwt читает токен из SecurityContextHolder (ThreadLocal). Для кода, который уходит
+     * в transferLookupExecutor (в режиме виртуальных потоков это новый поток на задачу),
+     * переносим SecurityContext вызывающего потока, иначе Feign-запрос уйдет без Authorization.
+     */
+    @Bean
+    public TaskDecorator securityContextTaskDecorator() {
+        return DelegatingSecurityContextRunnable::new;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.transfer.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Отдельный executor для параллельных Feign-запросов перевода, чтобы они не делили
+ * applicationTaskExecutor (8 потоков, неограниченная очередь) с остальными задачами.
+ * На платформенных потоках пул и очередь ограничены: при переполнении задачу выполняет
+ * сам поток запроса (CallerRuns) - запрос становится последовательным, а не копится в очереди.
+ * С виртуальными потоками - поток на задачу с тем же лимитом одновременных запросов.
+ */
+@Configuration
+public class LookupExecutorConfig {
+
+    @Bean
+    public AsyncTaskExecutor transferLookupExecutor(
+            TaskDecorator securityContextTaskDecorator,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            @Value("${transfer.lookup.max-concurrency:32}") int maxConcurrency,
+            @Value("${transfer.lookup.queue-capacity:64}") int queueCapacity) {
+        if (virtualThreads) {
+            var executor = new SimpleAsyncTaskExecutor("transfer-lookup-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(maxConcurrency);
+            executor.setTaskDecorator(securityContextTaskDecorator);
+            return executor;
+        }
+        var executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("transfer-lookup-");
+        executor.setCorePoolSize(maxConcurrency);
+        executor.setMaxPoolSize(maxConcurrency);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setTaskDecorator(securityContextTaskDecorator);
+        return executor;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.transfer.config;
+
+import io.micrometer.java21.instrument.binder.jdk.VirtualThreadMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Включается через spring.threads.virtual.enabled=true (VIRTUAL_THREADS_ENABLED).
+ * Сам Spring Boot переводит Tomcat, applicationTaskExecutor и слушатели Kafka на виртуальные потоки,
+ * а Feign-вызовы выполняются синхронно в потоке запроса, поэтому тоже блокируют только виртуальный поток.
+ * Здесь регистрируем метрики JFR-событий: jvm.threads.virtual.pinned (поток прикрепился к carrier-потоку)
+ * и jvm.threads.virtual.submit.failed (планировщику не хватило carrier-потоков).
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    @Bean
+    public VirtualThreadMetrics virtualThreadMetrics() {
+        return new VirtualThreadMetrics();
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.transfer.kafka;
+
+import com.example.clients.exchange.ExchangeRateTable;
+import com.example.clients.exchange.ExchangeRequest;
+import com.example.transfer.service.ExchangeRateCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ExchangeRateKafkaConsumer {
+
+    private final ExchangeRateCache exchangeRateCache;
+
+    // у каждого экземпляра своя группа: обновления курсов нужны всем подам, а не одному
+    @KafkaListener(
+            topics = "${spring.kafka.topics.exchange-rates}",
+            groupId = "transfer-service-rates-${random.uuid}",
+            properties = "auto.offset.reset=latest"
+    )
+    public void listenExchangeRates(ConsumerRecord<String, ExchangeRequest> record) {
+        log.debug("Received exchange rates: key = {}, value = {}", record.key(), record.value());
+        // таблица с кросс-курсами строится здесь, а не в потоке перевода
+        exchangeRateCache.update(ExchangeRateTable.of(record.value().getRates()));
+    }
+}
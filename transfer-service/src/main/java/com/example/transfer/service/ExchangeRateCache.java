@@ -0,0 +1,126 @@
+package com.example.transfer.service;
+
+import com.example.clients.exchange.ExchangeClient;
+import com.example.clients.exchange.ExchangeRateTable;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Локальный неизменяемый снимок курсов валют.
+ * Заполняется при старте через ExchangeClient и дальше обновляется из топика exchange-rates,
+ * поэтому перевод не делает HTTP-запрос в exchange-service.
+ * Если снимок устарел (Kafka молчит дольше max-age), отдаем старый и обновляем его в фоне;
+ * при этом передаем известную версию, и неизмененный набор курсов повторно не скачивается.
+ * Ответ HTTP ставится только поверх снимка, с которого начинался запрос: пришедшие за это время
+ * курсы из Kafka новее и не перезаписываются.
+ */
+@Component
+@Slf4j
+public class ExchangeRateCache {
+
+    private final ExchangeClient exchangeClient;
+    private final Executor refreshExecutor;
+    private final long maxAgeMillis;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+    // version = 0 - версия неизвестна (снимок пришел из Kafka), следующий запрос получит полный набор
+    private record Snapshot(ExchangeRateTable rates, long version, long updatedAtMillis) {}
+
+    public ExchangeRateCache(
+            ExchangeClient exchangeClient,
+            @Qualifier("transferLookupExecutor") Executor refreshExecutor,
+            MeterRegistry meterRegistry,
+            @Value("${transfer.rates.max-age:30s}") Duration maxAge) {
+        this.exchangeClient = exchangeClient;
+        this.refreshExecutor = refreshExecutor;
+        this.maxAgeMillis = maxAge.toMillis();
+
+        Gauge.builder("transfer_rates_snapshot_age_seconds", this, ExchangeRateCache::snapshotAgeSeconds)
+                .description("Age (in seconds) of the in-memory exchange rate snapshot used by transfers")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            // не блокируем старт: снимок придет из Kafka или при первом переводе
+            log.warn("Could not load exchange rates on startup: {}", e.getMessage());
+        }
+    }
+
+    public ExchangeRateTable getRateTable() {
+        var current = snapshot.get();
+        if (current == null) {
+            return refresh();
+        }
+        if (System.currentTimeMillis() - current.updatedAtMillis() > maxAgeMillis) {
+            refreshInBackground();
+        }
+        return current.rates();
+    }
+
+    /** Курсы из Kafka - самые свежие, ставятся безусловно */
+    public void update(ExchangeRateTable rates) {
+        snapshot.set(new Snapshot(rates, 0L, System.currentTimeMillis()));
+        log.debug("Exchange rate snapshot updated: {}", rates.toDtoList());
+    }
+
+    private ExchangeRateTable refresh() {
+        var current = snapshot.get();
+        var response = exchangeClient.getRatesSince(current == null ? 0L : current.version());
+
+        if (current != null && response.getStatusCode().isSameCodeAs(HttpStatus.NO_CONTENT)) {
+            // курсы не менялись - только продлеваем снимок
+            snapshot.compareAndSet(current, new Snapshot(current.rates(), current.version(), System.currentTimeMillis()));
+            return current.rates();
+        }
+        var body = response.getBody();
+        var rates = ExchangeRateTable.of(body == null ? List.of() : body);
+        var refreshed = new Snapshot(rates, ExchangeClient.versionOf(response), System.currentTimeMillis());
+        if (!snapshot.compareAndSet(current, refreshed)) {
+            // пока шел запрос, пришли курсы из Kafka - они новее ответа
+            log.debug("Exchange rate refresh discarded: snapshot updated concurrently");
+            return snapshot.get().rates();
+        }
+        log.debug("Exchange rate snapshot refreshed: {}", rates.toDtoList());
+        return rates;
+    }
+
+    private void refreshInBackground() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        CompletableFuture.runAsync(this::refresh, refreshExecutor)
+                .whenComplete((ignored, ex) -> {
+                    refreshing.set(false);
+                    if (ex != null) {
+                        log.warn("Exchange rate snapshot is stale and refresh failed: {}", ex.getMessage());
+                    }
+                });
+    }
+
+    private double snapshotAgeSeconds() {
+        var current = snapshot.get();
+        return current == null
+                ? Double.NaN
+                : (System.currentTimeMillis() - current.updatedAtMillis()) / 1000.0;
+    }
+}
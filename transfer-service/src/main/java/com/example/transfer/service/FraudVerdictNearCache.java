@@ -0,0 +1,43 @@
+package com.example.transfer.service;
+
+import com.example.clients.fraud.FraudClient;
+import com.example.clients.fraud.FraudVerdictCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Near-cache вердиктов fraud-service: повторный перевод того же клиента в пределах TTL
+ * не делает HTTP-запрос. TTL короткий - это окно, в течение которого новый вердикт "fraud"
+ * может быть еще не виден; transfer.fraud-cache.ttl=0 отключает кэш.
+ */
+@Component
+public class FraudVerdictNearCache {
+
+    private final FraudClient fraudClient;
+    private final MeterRegistry meterRegistry;
+    private final FraudVerdictCache cache;
+
+    public FraudVerdictNearCache(
+            FraudClient fraudClient,
+            MeterRegistry meterRegistry,
+            @Value("${transfer.fraud-cache.max-size:10000}") int maxSize,
+            @Value("${transfer.fraud-cache.ttl:5s}") Duration ttl) {
+        this.fraudClient = fraudClient;
+        this.meterRegistry = meterRegistry;
+        this.cache = new FraudVerdictCache(maxSize, ttl);
+    }
+
+    public boolean isFraudster(Integer customerId) {
+        Boolean cached = cache.get(customerId);
+        meterRegistry.counter("transfer_fraud_cache_total", "result", cached != null ? "hit" : "miss").increment();
+        if (cached != null) {
+            return cached;
+        }
+        boolean fraudster = fraudClient.isFraudster(customerId).isFraudster();
+        cache.put(customerId, fraudster);
+        return fraudster;
+    }
+}
@@ -1,50 +1,59 @@
 package com.example.transfer.service;
 
 import com.example.clients.customer.AccountDto;
+import com.example.clients.customer.AccountTransferRequest;
+import com.example.clients.customer.Currency;
 import com.example.clients.customer.CustomerClient;
 import com.example.clients.customer.CustomerDto;
-import com.example.clients.exchange.ExchangeClient;
-import com.example.clients.exchange.ExchangeRateDto;
-import com.example.clients.fraud.FraudClient;
+import com.example.clients.fraud.OperationEvent;
 import com.example.clients.notification.NotificationRequest;
 import com.example.clients.transfer.TransferRequest;
 import com.example.clients.transfer.TransferResponse;
 import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Value;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 @Service
 @Slf4j
 public class TransferService {
 
     private final CustomerClient customerClient;
-    private final FraudClient fraudClient;
+    private final FraudVerdictNearCache fraudCheck;
     private final KafkaTemplate<String, NotificationRequest> kafkaTemplate;
-    private final ExchangeClient exchangeClient;
+    private final ExchangeRateCache exchangeRateCache;
     private final MeterRegistry meterRegistry;
+    private final Executor lookupExecutor;
+    private final OperationEventPublisher operationEventPublisher;
 
     @Value("${spring.kafka.topics.transfer-notification}")
     private String transferNotificationTopic;
 
     public TransferService(
             CustomerClient customerClient,
-            FraudClient fraudClient,
+            FraudVerdictNearCache fraudCheck,
             KafkaTemplate<String, NotificationRequest> kafkaTemplate,
-            ExchangeClient exchangeClient,
-            MeterRegistry meterRegistry) {
+            ExchangeRateCache exchangeRateCache,
+            MeterRegistry meterRegistry,
+            @Qualifier("transferLookupExecutor") Executor lookupExecutor,
+            OperationEventPublisher operationEventPublisher) {
         this.customerClient = customerClient;
-        this.fraudClient = fraudClient;
+        this.fraudCheck = fraudCheck;
         this.kafkaTemplate = kafkaTemplate;
-        this.exchangeClient = exchangeClient;
+        this.exchangeRateCache = exchangeRateCache;
         this.meterRegistry = meterRegistry;
+        this.lookupExecutor = lookupExecutor;
+        this.operationEventPublisher = operationEventPublisher;
     }
 
     public TransferResponse transfer(String login, TransferRequest req) {
@@ -52,17 +61,38 @@ public class TransferService {
         List<String> ownErrors = new ArrayList<>();
         List<String> otherErrors = new ArrayList<>();
 
-        var sender = customerClient.getCustomer(login);
+        /*
+         * Независимые запросы параллельно: отправитель -> проверка на фрод (нужен его id)
+         * и получатель. Executor свой и ограниченный (LookupExecutorConfig), он переносит
+         * SecurityContext, поэтому JWT уходит и из пула.
+         */
+        var senderCheck = CompletableFuture
+                .supplyAsync(() -> customerClient.getCustomer(login), lookupExecutor)
+                .thenApplyAsync(s -> new SenderCheck(s, fraudCheck.isFraudster(s.id())), lookupExecutor);
+        var receiverLookup = login.equals(req.toLogin())
+                ? null
+                : CompletableFuture.supplyAsync(() -> customerClient.getCustomer(req.toLogin()), lookupExecutor);
+
+        SenderCheck checked;
+        try {
+            checked = await(senderCheck);
+        } catch (RuntimeException e) {
+            cancel(receiverLookup);
+            throw e;
+        }
+        var sender = checked.sender();
 
-        if (fraudClient.isFraudster(sender.id()).isFraudster()) {
+        // фрод важнее ошибок по получателю - как и при последовательных вызовах
+        if (checked.fraudster()) {
+            cancel(receiverLookup);
             ownErrors.add("Fraud detected");
             meterRegistry.counter("transfer_operations_total", "status", "failed").increment();
             return TransferResponse.errors(ownErrors);
         }
 
-        var receiver = login.equals(req.toLogin())
+        var receiver = receiverLookup == null
                 ? sender
-                : customerClient.getCustomer(req.toLogin());
+                : await(receiverLookup);
 
         var fromAcc = find(sender, req.fromCurrency());
         var toAcc = find(receiver, req.toCurrency());
@@ -103,15 +133,14 @@ public class TransferService {
             return buildError(ownErrors, otherErrors);
         }
 
-        /* Обновляем балансы */
-        // todo: make it transactional
-        customerClient.updateAccountBalance(
-                login, req.fromCurrency(),
-                fromAcc.get().balance().subtract(debitAmount));
-
-        customerClient.updateAccountBalance(
-                receiver.login(), req.toCurrency(),
-                toAcc.get().balance().add(creditAmount));
+        /* Обновляем балансы одной транзакцией на стороне customer-service */
+        var transferErrors = customerClient.transferBalance(new AccountTransferRequest(
+                login, req.fromCurrency(), debitAmount,
+                receiver.login(), req.toCurrency(), creditAmount));
+        if (!transferErrors.isEmpty()) {
+            meterRegistry.counter("transfer_operations_total", "status", "failed").increment();
+            return TransferResponse.errors(transferErrors);
+        }
 
         /* Notification */
                     var msg = String.format(
@@ -119,11 +148,14 @@ public class TransferService {
                             debitAmount, req.fromCurrency(),
                             creditAmount, req.toCurrency(),
                             sender.login(), login.equals(req.toLogin()) ? sender.login() : receiver.login());
-        kafkaTemplate.send(transferNotificationTopic, new NotificationRequest(sender.id(), sender.name(), msg));
+        kafkaTemplate.send(transferNotificationTopic, String.valueOf(sender.id()), new NotificationRequest(sender.id(), sender.name(), msg));
         if (!sender.login().equals(receiver.login())) {
-            kafkaTemplate.send(transferNotificationTopic, new NotificationRequest(receiver.id(), receiver.name(), msg));
+            kafkaTemplate.send(transferNotificationTopic, String.valueOf(receiver.id()), new NotificationRequest(receiver.id(), receiver.name(), msg));
         }
 
+        operationEventPublisher.publish(OperationEvent.transfer(
+                sender.id(), debitAmount, req.fromCurrency(), receiver.id(), req.toCurrency()));
+
         // successful transfer metric
         meterRegistry.counter("transfer_operations_total", "status", "success").increment();
 
@@ -131,6 +163,30 @@ public class TransferService {
     }
 
     /* helpers */
+    private record SenderCheck(CustomerDto sender, boolean fraudster) {}
+
+    /** Ждет результат и пробрасывает исходное исключение Feign, а не CompletionException */
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Ответ получателя больше не нужен. Отмена снимает задачу, которая еще не начала выполняться;
+     * уже идущий Feign-запрос прерыванием не останавливается и завершится по read-timeout клиента.
+     */
+    private static void cancel(CompletableFuture<?> future) {
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
+
     private static Optional<AccountDto> find(CustomerDto c, String code) {
         return c.accounts().stream()
                 .filter(a -> a.currency().getCode().equals(code))
@@ -159,30 +215,7 @@ public class TransferService {
                 "from_currency", fromCurrency,
                 "to_currency", toCurrency).increment();
 
-        List<ExchangeRateDto> rates = exchangeClient.getRates();
-        double fromRate = getRateValue(rates, fromCurrency);
-        double toRate = getRateValue(rates, toCurrency);
-
-        var fromRateBD = BigDecimal.valueOf(fromRate);
-        var toRateBD = BigDecimal.valueOf(toRate);
-
-        return amount.multiply(fromRateBD)
-                .divide(toRateBD, 0, RoundingMode.HALF_UP);  // 0 decimal places
-    }
-
-
-    /**
-     * Получает курс валюты к рублю
-     */
-    private double getRateValue(List<ExchangeRateDto> rates, String currency) {
-        if ("RUB".equals(currency)) {
-            return 1.0; // Рубль - базовая валюта
-        }
-
-        return rates.stream()
-                .filter(rate -> rate.getName().equals(currency))
-                .findFirst()
-                .map(ExchangeRateDto::getValue)
-                .orElseThrow(() -> new IllegalArgumentException("Exchange rate not found for " + currency));
+        return exchangeRateCache.getRateTable()
+                .convert(amount, Currency.valueOf(fromCurrency), Currency.valueOf(toCurrency), 0);  // 0 decimal places
     }
 }
@@ -0,0 +1,117 @@
+package com.example.transfer.service;
+
+import com.example.clients.customer.Currency;
+import com.example.clients.exchange.ExchangeClient;
+import com.example.clients.exchange.ExchangeRateDto;
+import com.example.clients.exchange.ExchangeRateTable;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExchangeRateCacheTest {
+
+    @Mock
+    private ExchangeClient exchangeClient;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ExchangeRateCache underTest;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        underTest = new ExchangeRateCache(exchangeClient, Runnable::run, meterRegistry, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void getRates_coldStartLoadsFromExchangeService() {
+        var rates = List.of(new ExchangeRateDto("Доллар", "USD", 95.0));
+        when(exchangeClient.getRatesSince(0L)).thenReturn(versioned(rates, 5L));
+
+        assertThat(underTest.getRateTable().rateToRub(Currency.USD)).isEqualTo(95.0);
+        assertThat(underTest.getRateTable().rateToRub(Currency.USD)).isEqualTo(95.0);
+
+        verify(exchangeClient, times(1)).getRatesSince(0L);
+    }
+
+    @Test
+    void update_replacesSnapshotWithoutHttpCall() {
+        var rates = ExchangeRateTable.of(List.of(new ExchangeRateDto("Юань", "CNY", 13.2)));
+
+        underTest.update(rates);
+
+        assertThat(underTest.getRateTable()).isSameAs(rates);
+        verifyNoInteractions(exchangeClient);
+        assertThat(meterRegistry.get("transfer_rates_snapshot_age_seconds").gauge().value()).isLessThan(60);
+    }
+
+    @Test
+    void getRates_noSnapshotAndExchangeDown() {
+        when(exchangeClient.getRatesSince(0L)).thenThrow(new RuntimeException("connection refused"));
+
+        assertThatThrownBy(() -> underTest.getRateTable()).hasMessage("connection refused");
+    }
+
+    @Test
+    void refresh_unchangedVersionKeepsSnapshot() {
+        var rates = List.of(new ExchangeRateDto("Доллар", "USD", 95.0));
+        var notModified = ResponseEntity.noContent()
+                .header(ExchangeClient.RATES_VERSION_HEADER, "5")
+                .<List<ExchangeRateDto>>build();
+        when(exchangeClient.getRatesSince(0L)).thenReturn(versioned(rates, 5L));
+        when(exchangeClient.getRatesSince(5L)).thenReturn(notModified);
+
+        underTest.warmUp();
+        var first = underTest.getRateTable();
+        underTest.warmUp();
+
+        assertThat(underTest.getRateTable()).isSameAs(first);
+        verify(exchangeClient).getRatesSince(5L);
+    }
+
+    @Test
+    void refresh_doesNotOverwriteNewerKafkaSnapshot() {
+        var kafkaRates = ExchangeRateTable.of(List.of(new ExchangeRateDto("Доллар", "USD", 96.0)));
+        when(exchangeClient.getRatesSince(0L)).thenAnswer(invocation -> {
+            // курсы из Kafka приходят, пока HTTP-запрос еще идет
+            underTest.update(kafkaRates);
+            return versioned(List.of(new ExchangeRateDto("Доллар", "USD", 95.0)), 5L);
+        });
+
+        assertThat(underTest.getRateTable()).isSameAs(kafkaRates);
+        assertThat(underTest.getRateTable()).isSameAs(kafkaRates);
+    }
+
+    @Test
+    void getRates_staleSnapshotRefreshedOnGivenExecutor() {
+        List<Runnable> tasks = new ArrayList<>();
+        underTest = new ExchangeRateCache(exchangeClient, tasks::add, meterRegistry, Duration.ZERO);
+        var stale = ExchangeRateTable.of(List.of(new ExchangeRateDto("Доллар", "USD", 95.0)));
+        underTest.update(stale);
+        when(exchangeClient.getRatesSince(0L)).thenReturn(versioned(List.of(new ExchangeRateDto("Доллар", "USD", 97.0)), 6L));
+
+        assertThat(underTest.getRateTable()).isSameAs(stale);
+        assertThat(tasks).hasSize(1);
+
+        tasks.get(0).run();
+        assertThat(underTest.getRateTable().rateToRub(Currency.USD)).isEqualTo(97.0);
+    }
+
+    private static ResponseEntity<List<ExchangeRateDto>> versioned(List<ExchangeRateDto> rates, long version) {
+        return ResponseEntity.ok()
+                .header(ExchangeClient.RATES_VERSION_HEADER, String.valueOf(version))
+                .body(rates);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.transfer.service;
+
+import com.example.clients.fraud.FraudCheckResponse;
+import com.example.clients.fraud.FraudClient;
+import com.example.clients.fraud.FraudVerdictCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FraudVerdictNearCacheTest {
+
+    @Mock
+    private FraudClient fraudClient;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void isFraudster_repeatedCheckServedFromCache() {
+        var underTest = new FraudVerdictNearCache(fraudClient, meterRegistry, 100, Duration.ofMinutes(1));
+        when(fraudClient.isFraudster(1)).thenReturn(new FraudCheckResponse(true));
+
+        assertThat(underTest.isFraudster(1)).isTrue();
+        assertThat(underTest.isFraudster(1)).isTrue();
+
+        verify(fraudClient, times(1)).isFraudster(1);
+        assertThat(meterRegistry.get("transfer_fraud_cache_total").tag("result", "hit").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void isFraudster_zeroTtlDisablesCache() {
+        var underTest = new FraudVerdictNearCache(fraudClient, meterRegistry, 100, Duration.ZERO);
+        when(fraudClient.isFraudster(1)).thenReturn(new FraudCheckResponse(false));
+
+        underTest.isFraudster(1);
+        underTest.isFraudster(1);
+
+        verify(fraudClient, times(2)).isFraudster(1);
+    }
+
+    @Test
+    void isFraudster_overflowEvictsBelowMaxSizeSoNextPutsDoNotSweep() {
+        var cache = new FraudVerdictCache(16, Duration.ofMinutes(1));
+
+        for (int id = 0; id <= 16; id++) {
+            cache.put(id, false);
+        }
+        // переполнение чистит до 16 - 16/8, следующие две вставки проходят без чистки
+        assertThat(cache.size()).isEqualTo(14);
+
+        cache.put(100, false);
+        cache.put(101, false);
+        assertThat(cache.size()).isEqualTo(16);
+    }
+}
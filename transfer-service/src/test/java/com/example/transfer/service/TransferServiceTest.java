@@ -1,23 +1,24 @@
 package com.example.transfer.service;
 
 import com.example.clients.customer.AccountDto;
+import com.example.clients.customer.AccountTransferRequest;
 import com.example.clients.customer.Currency;
 import com.example.clients.customer.CustomerClient;
 import com.example.clients.customer.CustomerDto;
-import com.example.clients.exchange.ExchangeClient;
 import com.example.clients.exchange.ExchangeRateDto;
+import com.example.clients.exchange.ExchangeRateTable;
 import com.example.clients.fraud.FraudCheckResponse;
 import com.example.clients.fraud.FraudClient;
 import com.example.clients.notification.NotificationRequest;
 import com.example.clients.transfer.TransferRequest;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
@@ -26,10 +27,16 @@ import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.AssertionsForClassTypes.tuple;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -46,15 +53,21 @@ class TransferServiceTest {
     @Mock
     private KafkaTemplate<String, NotificationRequest> kafkaTemplate;
     @Mock
-    private ExchangeClient exchangeClient;
+    private ExchangeRateCache exchangeRateCache;
     @Mock
     private MeterRegistry meterRegistry;
+    @Mock
+    private OperationEventPublisher operationEventPublisher;
 
-    @InjectMocks
+    private ExecutorService executor;
     private TransferService underTest;
 
     @BeforeEach
     void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        var fraudCheck = new FraudVerdictNearCache(fraudClient, meterRegistry, 100, Duration.ofSeconds(5));
+        underTest = new TransferService(customerClient, fraudCheck, kafkaTemplate,
+                exchangeRateCache, meterRegistry, executor, operationEventPublisher);
         ReflectionTestUtils.setField(underTest, "transferNotificationTopic", "transfer-notification");
 
         var mockCounter = mock(Counter.class);
@@ -62,6 +75,11 @@ class TransferServiceTest {
         when(meterRegistry.counter(anyString(), any(String[].class))).thenReturn(mockCounter);
     }
 
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
     private static CustomerDto buildCustomer(int id, String login, BigDecimal balance) {
         var accDTO = new AccountDto(
                 Currency.RUB,
@@ -100,11 +118,12 @@ class TransferServiceTest {
 
         assertTrue(resp.isSuccess());
         // balances
-        verify(customerClient).updateAccountBalance("alice", "RUB", BigDecimal.valueOf(850));
-        verify(customerClient).updateAccountBalance("bob",   "RUB", BigDecimal.valueOf(350));
+        verify(customerClient).transferBalance(new AccountTransferRequest(
+                "alice", "RUB", BigDecimal.valueOf(150),
+                "bob",   "RUB", BigDecimal.valueOf(150)));
         // notifications
         ArgumentCaptor<NotificationRequest> captor = ArgumentCaptor.forClass(NotificationRequest.class);
-        verify(kafkaTemplate, times(2)).send(eq("transfer-notification"), captor.capture());
+        verify(kafkaTemplate, times(2)).send(eq("transfer-notification"), anyString(), captor.capture());
         List<NotificationRequest> sent = captor.getAllValues();
         assertThat(sent)
                 .extracting(NotificationRequest::toCustomerId, NotificationRequest::toCustomerName)
@@ -114,6 +133,8 @@ class TransferServiceTest {
                 );
 
         verify(meterRegistry).counter("transfer_operations_total", "status", "success");
+        verify(operationEventPublisher).publish(argThat(e ->
+                e.customerId() == 1 && e.toCustomerId() == 2 && e.amount().equals(BigDecimal.valueOf(150))));
     }
 
     @Test
@@ -131,8 +152,9 @@ class TransferServiceTest {
 
         assertFalse(resp.isSuccess());
         assertThat(resp.getTransferErrors()).containsExactly("Fraud detected");
-        verify(customerClient, never()).updateAccountBalance(anyString(), anyString(), any());
-        verify(kafkaTemplate, never()).send(eq("transfer-notification"), any(NotificationRequest.class));
+        verify(customerClient, never()).transferBalance(any());
+        verify(kafkaTemplate, never()).send(eq("transfer-notification"), anyString(), any(NotificationRequest.class));
+        verify(operationEventPublisher, never()).publish(any());
 
         verify(meterRegistry).counter("transfer_operations_total", "status", "failed");
     }
@@ -180,7 +202,7 @@ class TransferServiceTest {
                 new ExchangeRateDto("Доллар", "USD", 95.0),
                 new ExchangeRateDto("Рубль",  "RUB", 1.0)
         );
-        when(exchangeClient.getRates()).thenReturn(rates);
+        when(exchangeRateCache.getRateTable()).thenReturn(ExchangeRateTable.of(rates));
 
         var transferRequest = new TransferRequest("USD", "RUB",
                 BigDecimal.valueOf(10), "user2");
@@ -188,10 +210,11 @@ class TransferServiceTest {
         var transferResponse = underTest.transfer("user1", transferRequest);
 
         assertTrue(transferResponse.isSuccess());
-        verify(exchangeClient).getRates();
+        verify(exchangeRateCache).getRateTable();
 
-        verify(customerClient).updateAccountBalance("user1", "USD", BigDecimal.valueOf(90));
-        verify(customerClient).updateAccountBalance("user2", "RUB", BigDecimal.valueOf(950));
+        verify(customerClient).transferBalance(new AccountTransferRequest(
+                "user1", "USD", BigDecimal.valueOf(10),
+                "user2", "RUB", BigDecimal.valueOf(950)));
 
         verify(meterRegistry).counter("currency_exchange_total",
                 "from_currency", "USD",
@@ -199,4 +222,89 @@ class TransferServiceTest {
 
         verify(meterRegistry).counter("transfer_operations_total", "status", "success");
     }
-}
\ No newline at end of file
+
+    @Test
+    void transfer_conversionRoundsExactHalfUp() {
+        var user1 = new CustomerDto(1, "user1", "Name user1", "user1@example.com", LocalDate.of(1990, 1, 1),
+                List.of(new AccountDto(Currency.CNY, Currency.CNY.getCode(), Currency.CNY.getTitle(), BigDecimal.valueOf(100), true)));
+        var user2 = new CustomerDto(2, "user2", "Name user2", "user2@example.com", LocalDate.of(1995, 1, 1),
+                List.of(new AccountDto(Currency.USD, Currency.USD.getCode(), Currency.USD.getTitle(), BigDecimal.ZERO, true)));
+        when(customerClient.getCustomer("user1")).thenReturn(user1);
+        when(customerClient.getCustomer("user2")).thenReturn(user2);
+        when(fraudClient.isFraudster(1)).thenReturn(new FraudCheckResponse(false));
+        when(customerClient.transferBalance(any())).thenReturn(List.of());
+        // 13 * 10.0 / 10.4 = 12.5 ровно; через double-кросс-курс 0.96153846... получилось бы 12
+        when(exchangeRateCache.getRateTable()).thenReturn(ExchangeRateTable.of(List.of(
+                new ExchangeRateDto("Юань", "CNY", 10.0),
+                new ExchangeRateDto("Доллар", "USD", 10.4))));
+
+        var response = underTest.transfer("user1", new TransferRequest("CNY", "USD", BigDecimal.valueOf(13), "user2"));
+
+        assertTrue(response.isSuccess());
+        verify(customerClient).transferBalance(new AccountTransferRequest(
+                "user1", "CNY", BigDecimal.valueOf(13),
+                "user2", "USD", BigDecimal.valueOf(13)));
+    }
+
+    @Test
+    void transfer_rejectedByCustomerService() {
+        var alice = buildCustomer(1, "alice", BigDecimal.valueOf(1000));
+        var bob   = buildCustomer(2, "bob",   BigDecimal.valueOf(200));
+        when(customerClient.getCustomer("alice")).thenReturn(alice);
+        when(customerClient.getCustomer("bob")).thenReturn(bob);
+        when(fraudClient.isFraudster(1)).thenReturn(new FraudCheckResponse(false));
+        when(customerClient.transferBalance(any())).thenReturn(List.of("Insufficient funds"));
+
+        var resp = underTest.transfer("alice", new TransferRequest("RUB", "RUB", BigDecimal.valueOf(150), "bob"));
+
+        assertFalse(resp.isSuccess());
+        assertThat(resp.getTransferErrors()).containsExactly("Insufficient funds");
+        verify(kafkaTemplate, never()).send(eq("transfer-notification"), anyString(), any(NotificationRequest.class));
+        verify(meterRegistry).counter("transfer_operations_total", "status", "failed");
+    }
+
+    @Test
+    void transfer_receiverLookupRunsConcurrentlyWithFraudCheck() {
+        var alice = buildCustomer(1, "alice", BigDecimal.valueOf(1000));
+        var bob   = buildCustomer(2, "bob",   BigDecimal.valueOf(200));
+        var receiverRequested = new CountDownLatch(1);
+        when(customerClient.getCustomer("alice")).thenReturn(alice);
+        when(customerClient.getCustomer("bob")).thenAnswer(inv -> {
+            receiverRequested.countDown();
+            return bob;
+        });
+        // проверка на фрод завершится, только если получатель уже запрошен параллельно
+        when(fraudClient.isFraudster(1)).thenAnswer(inv -> {
+            assertTrue(receiverRequested.await(5, TimeUnit.SECONDS));
+            return new FraudCheckResponse(false);
+        });
+        when(customerClient.transferBalance(any())).thenReturn(List.of());
+
+        var resp = underTest.transfer("alice", new TransferRequest("RUB", "RUB", BigDecimal.valueOf(150), "bob"));
+
+        assertTrue(resp.isSuccess());
+    }
+
+    @Test
+    void transfer_fraudWinsOverReceiverLookupFailure() {
+        var alice = buildCustomer(1, "alice", BigDecimal.valueOf(1000));
+        when(customerClient.getCustomer("alice")).thenReturn(alice);
+        when(customerClient.getCustomer("bob")).thenThrow(new IllegalStateException("bob not found"));
+        when(fraudClient.isFraudster(1)).thenReturn(new FraudCheckResponse(true));
+
+        var resp = underTest.transfer("alice", new TransferRequest("RUB", "RUB", BigDecimal.valueOf(150), "bob"));
+
+        assertFalse(resp.isSuccess());
+        assertThat(resp.getTransferErrors()).containsExactly("Fraud detected");
+    }
+
+    @Test
+    void transfer_senderLookupFailurePropagatesOriginalException() {
+        when(customerClient.getCustomer("alice")).thenThrow(new IllegalStateException("customer-service down"));
+
+        assertThatThrownBy(() -> underTest.transfer("alice", new TransferRequest("RUB", "RUB", BigDecimal.TEN, "bob")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("customer-service down");
+        verify(fraudClient, never()).isFraudster(anyInt());
+    }
+}